@@ -0,0 +1,47 @@
+package fr.istic.bodin_bodier.cartaylor.benchmarks;
+
+import fr.istic.bodin_bodier.cartaylor.impl.CatalogImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure le chargement d'un catalogue JSON par CatalogImpl.loadFromJSON.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CatalogLoadBenchmark {
+
+  @Param({ "10", "1000", "10000", "100000" })
+  public int partCount;
+
+  private byte[] json;
+
+  @Setup
+  public void setUp() {
+    json = SyntheticCatalog.json(partCount);
+  }
+
+  @Benchmark
+  public CatalogImpl loadFromJSON() throws IOException {
+    CatalogImpl catalog = new CatalogImpl();
+    catalog.loadFromJSON(new ByteArrayInputStream(json));
+    return catalog;
+  }
+}
@@ -0,0 +1,87 @@
+package fr.istic.bodin_bodier.cartaylor.benchmarks;
+
+import fr.istic.bodin_bodier.cartaylor.api.PartType;
+import fr.istic.bodin_bodier.cartaylor.impl.CatalogImpl;
+import fr.istic.bodin_bodier.cartaylor.impl.CompatibilityManagerImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure l'ajout, la suppression et la consultation de règles dans
+ * CompatibilityManagerImpl.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompatibilityManagerBenchmark {
+
+  @Param({ "10", "1000", "100000" })
+  public int partCount;
+
+  @Param({ "1", "8" })
+  public double rulesPerPart;
+
+  private CompatibilityManagerImpl manager;
+  private List<PartType> parts;
+  private SplittableRandom random;
+
+  @Setup
+  public void setUp() {
+    CatalogImpl catalog = SyntheticCatalog.catalog(partCount);
+    manager = new CompatibilityManagerImpl(catalog.getPartTypeIndex());
+    parts = SyntheticCatalog.partTypes(catalog);
+    random = new SplittableRandom(SyntheticCatalog.SEED);
+    int ruleCount = (int) Math.round(partCount * rulesPerPart);
+    for (int i = 0; i < ruleCount; i++) {
+      manager.addIncompatibilities(randomPart(), Set.of(randomPart()));
+      manager.addRequirements(randomPart(), Set.of(randomPart()));
+    }
+  }
+
+  private PartType randomPart() {
+    return parts.get(random.nextInt(parts.size()));
+  }
+
+  @Benchmark
+  public void addThenRemoveIncompatibility() {
+    PartType reference = randomPart();
+    PartType target = randomPart();
+    manager.addIncompatibilities(reference, Set.of(target));
+    manager.removeIncompatibility(reference, target);
+  }
+
+  @Benchmark
+  public void addThenRemoveRequirement() {
+    PartType reference = randomPart();
+    PartType target = randomPart();
+    manager.addRequirements(reference, Set.of(target));
+    manager.removeRequirement(reference, target);
+  }
+
+  @Benchmark
+  public Set<PartType> getIncompatibilities() {
+    return manager.getIncompatibilities(randomPart());
+  }
+
+  @Benchmark
+  public Set<PartType> getRequirements() {
+    return manager.getRequirements(randomPart());
+  }
+}
@@ -0,0 +1,69 @@
+package fr.istic.bodin_bodier.cartaylor.benchmarks;
+
+import fr.istic.bodin_bodier.cartaylor.api.Configuration;
+import fr.istic.bodin_bodier.cartaylor.impl.ConfiguratorImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure les lectures sur une configuration complète : validité,
+ * complétude, prix total et description HTML.
+ *
+ * <p>
+ * {@code rulesPerPart} fixe la densité de règles du catalogue synthétique.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfigurationBenchmark {
+
+  @Param({ "10", "1000", "100000" })
+  public int partCount;
+
+  @Param({ "0", "1", "8" })
+  public double rulesPerPart;
+
+  private Configuration configuration;
+
+  @Setup
+  public void setUp() {
+    ConfiguratorImpl configurator = SyntheticCatalog.configurator(partCount, rulesPerPart);
+    SyntheticCatalog.selectRandomParts(configurator, new SplittableRandom(SyntheticCatalog.SEED));
+    configuration = configurator.getConfiguration();
+  }
+
+  @Benchmark
+  public boolean isValid() {
+    return configuration.isValid();
+  }
+
+  @Benchmark
+  public boolean isComplete() {
+    return configuration.isComplete();
+  }
+
+  @Benchmark
+  public int getTotalPrice() {
+    return configuration.getTotalPrice();
+  }
+
+  @Benchmark
+  public String getHtmlDescription() {
+    return configuration.getHtmlDescription();
+  }
+}
@@ -0,0 +1,48 @@
+package fr.istic.bodin_bodier.cartaylor.benchmarks;
+
+import fr.istic.bodin_bodier.cartaylor.api.Category;
+import fr.istic.bodin_bodier.cartaylor.api.PartType;
+import fr.istic.bodin_bodier.cartaylor.impl.ConfiguratorImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure ConfiguratorImpl.getVariants.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConfiguratorBenchmark {
+
+  @Param({ "10", "1000", "10000", "100000" })
+  public int partCount;
+
+  private ConfiguratorImpl configurator;
+  private Category category;
+
+  @Setup
+  public void setUp() {
+    configurator = SyntheticCatalog.configurator(partCount, 0);
+    category = configurator.getCategories().iterator().next();
+  }
+
+  @Benchmark
+  public Set<PartType> getVariants() {
+    return configurator.getVariants(category);
+  }
+}
@@ -0,0 +1,141 @@
+package fr.istic.bodin_bodier.cartaylor.benchmarks;
+
+import fr.istic.bodin_bodier.cartaylor.api.Category;
+import fr.istic.bodin_bodier.cartaylor.api.PartType;
+import fr.istic.bodin_bodier.cartaylor.impl.CatalogImpl;
+import fr.istic.bodin_bodier.cartaylor.impl.CompatibilityManagerImpl;
+import fr.istic.bodin_bodier.cartaylor.impl.ConfiguratorImpl;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Générateur de catalogues synthétiques pour les benchmarks.
+ *
+ * <p>
+ * Les types de pièces sont répartis uniformément entre les catégories du
+ * catalogue et nommés {@code P0}, {@code P1}, ... Les règles sont tirées avec
+ * une graine fixe afin que deux exécutions mesurent le même jeu de données.
+ */
+public final class SyntheticCatalog {
+
+  /** Catégories reconnues par CatalogImpl */
+  static final String[] CATEGORIES = { "Engine", "Transmission", "Exterior", "Interior" };
+
+  /** Graine utilisée pour toutes les générations */
+  static final long SEED = 42L;
+
+  private SyntheticCatalog() {
+  }
+
+  /**
+   * Génère le contenu JSON d'un catalogue de {@code partCount} types de pièces.
+   *
+   * @param partCount le nombre de types de pièces
+   * @return le document JSON encodé en UTF-8
+   */
+  public static byte[] json(int partCount) {
+    SplittableRandom random = new SplittableRandom(SEED);
+    StringBuilder json = new StringBuilder(partCount * 64);
+    json.append("{\"partTypes\":[");
+    for (int i = 0; i < partCount; i++) {
+      if (i > 0) {
+        json.append(',');
+      }
+      json.append("{\"name\":\"P").append(i)
+          .append("\",\"category\":\"").append(CATEGORIES[i % CATEGORIES.length])
+          .append("\",\"description\":\"Synthetic part ").append(i)
+          .append("\",\"price\":").append(100 + random.nextInt(10_000))
+          .append('}');
+    }
+    json.append("]}");
+    return json.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Charge un catalogue synthétique.
+   *
+   * @param partCount le nombre de types de pièces
+   * @return le catalogue chargé
+   */
+  public static CatalogImpl catalog(int partCount) {
+    CatalogImpl catalog = new CatalogImpl();
+    try {
+      catalog.loadFromJSON(new ByteArrayInputStream(json(partCount)));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return catalog;
+  }
+
+  /**
+   * Construit un configurateur sur un catalogue synthétique, avec en moyenne
+   * {@code rulesPerPart} incompatibilités et {@code rulesPerPart / 4}
+   * exigences par type de pièce.
+   *
+   * @param partCount    le nombre de types de pièces
+   * @param rulesPerPart la densité de règles
+   * @return le configurateur
+   */
+  public static ConfiguratorImpl configurator(int partCount, double rulesPerPart) {
+    CatalogImpl catalog = catalog(partCount);
+    CompatibilityManagerImpl manager = new CompatibilityManagerImpl(catalog.getPartTypeIndex());
+    List<PartType> parts = partTypes(catalog);
+    SplittableRandom random = new SplittableRandom(SEED);
+    int incompatibilityCount = (int) Math.round(partCount * rulesPerPart);
+    for (int i = 0; i < incompatibilityCount; i++) {
+      PartType reference = parts.get(random.nextInt(parts.size()));
+      PartType target = parts.get(random.nextInt(parts.size()));
+      if (!reference.getCategory().equals(target.getCategory())) {
+        manager.addIncompatibilities(reference, Set.of(target));
+      }
+    }
+    for (int i = 0; i < incompatibilityCount / 4; i++) {
+      PartType reference = parts.get(random.nextInt(parts.size()));
+      PartType target = parts.get(random.nextInt(parts.size()));
+      if (!reference.getCategory().equals(target.getCategory())) {
+        manager.addRequirements(reference, Set.of(target));
+      }
+    }
+    return new ConfiguratorImpl(catalog, manager);
+  }
+
+  /**
+   * Retourne les types de pièces d'un catalogue, triés par nom pour un ordre
+   * reproductible.
+   *
+   * @param catalog le catalogue
+   * @return la liste triée des types de pièces
+   */
+  public static List<PartType> partTypes(CatalogImpl catalog) {
+    List<PartType> parts = new ArrayList<>(catalog.getPartTypes());
+    parts.sort((a, b) -> Integer.compare(ordinal(a), ordinal(b)));
+    return parts;
+  }
+
+  /**
+   * Sélectionne, pour chaque catégorie, une variante tirée au hasard.
+   *
+   * @param configurator le configurateur
+   * @param random       le générateur aléatoire
+   */
+  public static void selectRandomParts(ConfiguratorImpl configurator, SplittableRandom random) {
+    for (Category category : configurator.getCategories()) {
+      List<PartType> variants = new ArrayList<>(configurator.getVariants(category));
+      if (!variants.isEmpty()) {
+        variants.sort((a, b) -> Integer.compare(ordinal(a), ordinal(b)));
+        configurator.getConfiguration().selectPart(variants.get(random.nextInt(variants.size())));
+      }
+    }
+  }
+
+  private static int ordinal(PartType partType) {
+    return Integer.parseInt(partType.getName().substring(1));
+  }
+}
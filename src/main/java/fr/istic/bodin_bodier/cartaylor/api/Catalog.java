@@ -2,6 +2,9 @@ package fr.istic.bodin_bodier.cartaylor.api;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 /**
@@ -55,4 +58,24 @@ public interface Catalog {
    * @return un ensemble contenant tous les types de pièces pour la catégorie
    */
   Set<PartType> getPartTypesForCategory(Category category);
-}
\ No newline at end of file
+
+  /**
+   * Recherche un type de pièce par son nom.
+   * 
+   * @param name le nom du type de pièce
+   * @return le type de pièce, ou Optional.empty() s'il n'existe pas
+   * @throws IllegalArgumentException si le nom est null
+   */
+  Optional<PartType> findPartType(String name);
+
+  /**
+   * Résout un ensemble de noms en types de pièces.
+   * 
+   * @param names les noms à résoudre
+   * @return les types de pièces, dans l'ordre d'itération des noms
+   * @throws IllegalArgumentException si names est null ou si un des noms est
+   *                                  inconnu ; le message liste tous les noms
+   *                                  inconnus
+   */
+  List<PartType> resolveAll(Collection<String> names);
+}
@@ -20,6 +20,16 @@ public interface Configuration extends Element {
    */
   boolean isValid();
 
+  /**
+   * Valide la configuration actuelle et explique le verdict : chaque couple
+   * de pièces incompatibles sélectionnées et chaque exigence non satisfaite
+   * est rapporté.
+   * 
+   * @return le verdict de validation, valide si et seulement si
+   *         {@link #isValid()} retourne true
+   */
+  ValidationResult validate();
+
   /**
    * Vérifie si la configuration est complète, c'est-à-dire si une pièce
    * a été sélectionnée pour chaque catégorie requise.
@@ -1,5 +1,6 @@
 package fr.istic.bodin_bodier.cartaylor.api;
 
+import java.util.Optional;
 import java.util.Set;
 
 /**
@@ -40,6 +41,15 @@ public interface Configurator {
    */
   Set<PartType> getVariants(Category category);
 
+  /**
+   * Recherche un type de pièce par son nom.
+   * 
+   * @param name le nom du type de pièce
+   * @return le type de pièce, ou Optional.empty() s'il n'existe pas
+   * @throws IllegalArgumentException si le nom est null
+   */
+  Optional<PartType> findPartType(String name);
+
   /**
    * Retourne la configuration actuelle du véhicule.
    * 
@@ -47,6 +57,15 @@ public interface Configurator {
    */
   Configuration getConfiguration();
 
+  /**
+   * Crée une nouvelle configuration vide, indépendante de la configuration
+   * actuelle. Toutes les configurations d'un configurateur partagent son
+   * catalogue et ses règles de compatibilité.
+   * 
+   * @return une nouvelle configuration
+   */
+  Configuration newConfiguration();
+
   /**
    * Retourne le vérificateur de compatibilité utilisé par le configurateur.
    * 
@@ -14,6 +14,14 @@ import fr.istic.bodin_bodier.cartaylor.impl.PartImpl;
  */
 public interface PartType extends Element {
 
+  /**
+   * Retourne l'identifiant stable du type de pièce (référence catalogue).
+   * Deux types de pièces de même identifiant sont égaux.
+   * 
+   * @return l'identifiant du type de pièce
+   */
+  String getId();
+
   /**
    * Retourne le nom du type de pièce.
    * 
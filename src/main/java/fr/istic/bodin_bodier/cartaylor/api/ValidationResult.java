@@ -0,0 +1,28 @@
+package fr.istic.bodin_bodier.cartaylor.api;
+
+import java.util.List;
+
+/**
+ * Interface représentant le verdict de validation d'une sélection de pièces.
+ * 
+ * @see Violation
+ */
+public interface ValidationResult {
+
+  /**
+   * Indique si la sélection ne viole aucune règle.
+   * 
+   * @return true si la sélection est valide, false sinon
+   */
+  boolean isValid();
+
+  /**
+   * Retourne les règles violées par la sélection. Chaque incompatibilité
+   * n'apparaît qu'une fois, quel que soit le sens dans lequel elle a été
+   * déclarée.
+   * 
+   * @return la liste non modifiable des violations, vide si la sélection est
+   *         valide
+   */
+  List<Violation> getViolations();
+}
@@ -0,0 +1,46 @@
+package fr.istic.bodin_bodier.cartaylor.api;
+
+/**
+ * Interface représentant une règle de compatibilité violée par une sélection
+ * de pièces.
+ * 
+ * <p>
+ * Une violation est soit une incompatibilité entre deux pièces sélectionnées,
+ * soit une exigence d'une pièce sélectionnée dont la cible ne l'est pas.
+ * 
+ * @see ValidationResult
+ */
+public interface Violation {
+
+  /**
+   * Nature de la règle violée.
+   */
+  enum Kind {
+    /** Deux pièces incompatibles sont sélectionnées ensemble */
+    INCOMPATIBILITY,
+    /** Une pièce sélectionnée requiert une pièce non sélectionnée */
+    REQUIREMENT
+  }
+
+  /**
+   * Retourne la nature de la règle violée.
+   * 
+   * @return la nature de la violation
+   */
+  Kind getKind();
+
+  /**
+   * Retourne la pièce sélectionnée à l'origine de la violation.
+   * 
+   * @return la pièce de référence de la règle
+   */
+  PartType getSource();
+
+  /**
+   * Retourne la cible de la règle : la pièce incompatible sélectionnée, ou la
+   * pièce requise manquante.
+   * 
+   * @return la pièce cible de la règle
+   */
+  PartType getTarget();
+}
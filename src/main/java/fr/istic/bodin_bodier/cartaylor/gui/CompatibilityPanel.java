@@ -127,9 +127,8 @@ public class CompatibilityPanel extends VBox {
     addButton.setOnAction(e -> {
       String selectedName = combo.getValue();
       if (selectedName != null) {
-        PartType selected = getAllOtherParts(partType).stream()
-            .filter(pt -> pt.getName().equals(selectedName))
-            .findFirst()
+        PartType selected = configurator.findPartType(selectedName)
+            .filter(pt -> !pt.equals(partType))
             .orElse(null);
         if (selected != null) {
           CompatibilityManager manager = (CompatibilityManager) configurator.getCompatibilityChecker();
@@ -140,6 +139,7 @@ public class CompatibilityPanel extends VBox {
           }
           updateList(partType, listBox, isIncomp);
           summaryPanel.updateSummary();
+          configPanel.refreshVariants();
           configPanel.updateValidationButton();
         }
       }
@@ -179,6 +179,7 @@ public class CompatibilityPanel extends VBox {
         }
         updateList(partType, listBox, isIncomp);
         summaryPanel.updateSummary();
+        configPanel.refreshVariants();
         configPanel.updateValidationButton();
       });
 
@@ -1,14 +1,18 @@
 package fr.istic.bodin_bodier.cartaylor.gui;
 
 import fr.istic.bodin_bodier.cartaylor.api.*;
+import fr.istic.bodin_bodier.cartaylor.impl.solver.DecisionDiagram;
+import fr.istic.bodin_bodier.cartaylor.impl.solver.DiagramCompiler;
+import fr.istic.bodin_bodier.cartaylor.impl.solver.PropagationEngine;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
+import java.math.BigInteger;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -19,6 +23,11 @@ import java.util.stream.Collectors;
  * Ce panneau permet à l'utilisateur de sélectionner des options pour chaque
  * catégorie
  * de pièces et de valider la configuration choisie.
+ * 
+ * <p>
+ * Chaque liste ne propose que les variantes pouvant encore mener à une
+ * configuration valide et complète, compte tenu des autres sélections, suivie
+ * du nombre de configurations valides et complètes qu'elle permet d'obtenir.
  *
  * @see ConfigurationPanel
  */
@@ -26,6 +35,12 @@ public class ConfigurationPanel extends VBox {
   private final Configurator configurator;
   private final Button validateButton;
   private final Map<Category, ComboBox<PartType>> categoryBoxes = new HashMap<>();
+  private final PropagationEngine propagation;
+  private final DiagramCompiler diagrams;
+  /** Nombre de complétions de chaque variante proposée */
+  private final Map<PartType, BigInteger> optionCounts = new HashMap<>();
+  /** Vrai pendant la mise à jour des listes, pour ignorer leurs événements */
+  private boolean refreshingVariants;
 
   /**
    * Constructeur du panneau de configuration.
@@ -35,6 +50,8 @@ public class ConfigurationPanel extends VBox {
    */
   public ConfigurationPanel(Configurator configurator) {
     this.configurator = configurator;
+    this.propagation = new PropagationEngine(configurator);
+    this.diagrams = new DiagramCompiler(configurator);
     setPadding(new Insets(20));
     setSpacing(15);
     setStyle("-fx-background-color: #f5f5f5;");
@@ -61,6 +78,8 @@ public class ConfigurationPanel extends VBox {
       contentBox.getChildren().add(categoryPane);
     }
 
+    refreshVariants();
+
     ScrollPane scrollPane = new ScrollPane(contentBox);
     scrollPane.setFitToWidth(true);
     scrollPane.setStyle("-fx-background-color: transparent;");
@@ -97,7 +116,8 @@ public class ConfigurationPanel extends VBox {
       @Override
       protected void updateItem(PartType item, boolean empty) {
         super.updateItem(item, empty);
-        setText(empty ? "" : item.getName());
+        BigInteger count = empty ? null : optionCounts.get(item);
+        setText(empty ? "" : count == null ? item.getName() : item.getName() + " (" + count + ")");
       }
     });
 
@@ -111,8 +131,9 @@ public class ConfigurationPanel extends VBox {
 
     comboBox.setOnAction(e -> {
       PartType selected = comboBox.getValue();
-      if (selected != null) {
+      if (selected != null && !refreshingVariants) {
         configurator.getConfiguration().selectPart(selected);
+        refreshVariants();
         updateValidationButton();
       }
     });
@@ -123,6 +144,33 @@ public class ConfigurationPanel extends VBox {
     return new TitledPane(category.getName(), content);
   }
 
+  /**
+   * Restreint chaque liste aux variantes encore compatibles avec les autres
+   * sélections, et met à jour le nombre de configurations de chacune. La
+   * sélection courante d'une liste y est toujours conservée.
+   */
+  public void refreshVariants() {
+    Configuration config = configurator.getConfiguration();
+    DecisionDiagram diagram = diagrams.getDiagram();
+    refreshingVariants = true;
+    try {
+      optionCounts.clear();
+      for (Map.Entry<Category, ComboBox<PartType>> entry : categoryBoxes.entrySet()) {
+        optionCounts.putAll(diagram.countOptions(config, entry.getKey()));
+        ComboBox<PartType> comboBox = entry.getValue();
+        Set<PartType> variants = new LinkedHashSet<>(propagation.getCompatibleVariants(config, entry.getKey()));
+        PartType selected = config.getSelectionForCategory(entry.getKey());
+        if (selected != null) {
+          variants.add(selected);
+        }
+        comboBox.getItems().setAll(variants);
+        comboBox.setValue(selected);
+      }
+    } finally {
+      refreshingVariants = false;
+    }
+  }
+
   /**
    * Valide la configuration actuelle et affiche un message d'alerte en fonction
    * de son état.
@@ -151,30 +199,15 @@ public class ConfigurationPanel extends VBox {
   public void updateValidationButton() {
     Configuration config = configurator.getConfiguration();
 
-    if (!config.isValid() && !config.getSelectedParts().isEmpty()) {
-      StringBuilder message = new StringBuilder("Incompatibilités détectées entre : ");
-      Set<PartType> selectedParts = config.getSelectedParts();
-
-      for (PartType part : selectedParts) {
-        Set<PartType> incompatibilities = configurator.getCompatibilityChecker()
-            .getIncompatibilities(part);
-
-        Set<PartType> commonParts = new HashSet<>(incompatibilities);
-        commonParts.retainAll(selectedParts);
-
-        if (!commonParts.isEmpty()) {
-          message.append(part.getName())
-              .append(" et ")
-              .append(commonParts.stream()
-                  .map(PartType::getName)
-                  .collect(Collectors.joining(", ")))
-              .append("; ");
-        }
-      }
+    ValidationResult result = config.validate();
+    if (!result.isValid()) {
+      String message = result.getViolations().stream()
+          .map(ConfigurationPanel::describe)
+          .collect(Collectors.joining("; "));
 
       validateButton.setText("Configuration invalide");
       validateButton.setStyle("-fx-background-color: #FF6B6B;");
-      validateButton.setTooltip(new Tooltip(message.toString()));
+      validateButton.setTooltip(new Tooltip(message));
     } else if (!config.isComplete()) {
       validateButton.setText("Configuration incomplète");
       validateButton.setStyle("-fx-background-color: #FFA500;");
@@ -186,12 +219,26 @@ public class ConfigurationPanel extends VBox {
     }
   }
 
+  /**
+   * Décrit une règle violée pour l'infobulle du bouton de validation.
+   * 
+   * @param violation la règle violée
+   * @return la description de la violation
+   */
+  private static String describe(Violation violation) {
+    String source = violation.getSource().getName();
+    String target = violation.getTarget().getName();
+    return violation.getKind() == Violation.Kind.INCOMPATIBILITY
+        ? "Incompatibilité entre " + source + " et " + target
+        : source + " requiert " + target;
+  }
+
   /**
    * Réinitialise la configuration en cours, effaçant toutes les sélections.
    */
   private void clearConfiguration() {
     configurator.getConfiguration().clear();
-    categoryBoxes.values().forEach(comboBox -> comboBox.getSelectionModel().clearSelection());
+    refreshVariants();
     updateValidationButton();
   }
 }
\ No newline at end of file
@@ -10,6 +10,9 @@ import java.util.Objects;
  */
 public abstract class AbstractCategory implements Category {
   private final String name;
+  /** Index ayant attribué l'ordinal mémorisé, voir {@link CategoryIndex} */
+  volatile CategoryIndex ordinalOwner;
+  int ordinal;
 
   /**
    * Constructeur de la classe AbstractCategory.
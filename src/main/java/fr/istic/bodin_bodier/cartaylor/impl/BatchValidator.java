@@ -0,0 +1,173 @@
+package fr.istic.bodin_bodier.cartaylor.impl;
+
+import fr.istic.bodin_bodier.cartaylor.api.CompatibilityChecker;
+import fr.istic.bodin_bodier.cartaylor.api.PartType;
+import fr.istic.bodin_bodier.cartaylor.api.ValidationResult;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Validation en masse de sélections de pièces, par exemple pour revalider
+ * toutes les configurations enregistrées après une modification des règles.
+ *
+ * <p>
+ * Les sélections sont validées en parallèle sur un {@link ForkJoinPool}.
+ * Lorsque les règles sont gérées par un {@link CompatibilityManagerImpl},
+ * chaque sélection est convertie en ensemble de bits d'ordinaux et validée
+ * par opérations mot à mot, sans construire d'ensemble intermédiaire ; toutes
+ * les sélections d'un même appel sont alors validées contre la même version
+ * des règles.
+ *
+ * @see ValidationResult
+ */
+public class BatchValidator {
+  private final CompatibilityChecker checker;
+  private final ForkJoinPool pool;
+
+  /**
+   * Constructeur utilisant le pool commun.
+   *
+   * @param checker le vérificateur de compatibilité partagé
+   * @throws IllegalArgumentException si le vérificateur est null
+   */
+  public BatchValidator(CompatibilityChecker checker) {
+    this(checker, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Constructeur de la classe BatchValidator.
+   *
+   * @param checker le vérificateur de compatibilité partagé
+   * @param pool    le pool sur lequel valider les sélections
+   * @throws IllegalArgumentException si un des paramètres est null
+   */
+  public BatchValidator(CompatibilityChecker checker, ForkJoinPool pool) {
+    if (checker == null || pool == null) {
+      throw new IllegalArgumentException("Les paramètres ne peuvent pas être null");
+    }
+    this.checker = checker;
+    this.pool = pool;
+  }
+
+  /**
+   * Valide une seule sélection contre les règles courantes.
+   *
+   * @param selection les pièces sélectionnées
+   * @return le verdict de validation
+   * @throws IllegalArgumentException si la sélection est null ou contient null
+   */
+  public ValidationResult validate(Collection<PartType> selection) {
+    if (checker instanceof CompatibilityManagerImpl) {
+      CompatibilityManagerImpl manager = (CompatibilityManagerImpl) checker;
+      return validate(selection, manager.getPartTypeIndex(), manager.getRules());
+    }
+    return validateWithChecker(selection);
+  }
+
+  /**
+   * Valide en parallèle un flux de sélections et retourne les verdicts dans
+   * l'ordre du flux.
+   *
+   * @param selections les sélections à valider
+   * @return la liste des verdicts, un par sélection
+   * @throws IllegalArgumentException si le flux est null, ou si une sélection
+   *                                  est null ou contient null
+   */
+  public List<ValidationResult> validateAll(Stream<? extends Collection<PartType>> selections) {
+    if (selections == null) {
+      throw new IllegalArgumentException("Les sélections ne peuvent pas être null");
+    }
+    Validation validation = validation();
+    return pool.submit(() -> selections.parallel()
+        .map(validation::validate)
+        .collect(Collectors.toList()))
+        .join();
+  }
+
+  /**
+   * Valide en parallèle un flux de sélections et transmet chaque verdict à
+   * mesure, sans conserver les résultats. Adapté aux très gros volumes.
+   *
+   * <p>
+   * Le consommateur est appelé depuis les threads du pool, dans un ordre
+   * quelconque : il doit être sûr vis-à-vis des threads.
+   *
+   * @param <S>        le type des sélections
+   * @param selections les sélections à valider
+   * @param verdicts   le consommateur recevant chaque sélection et son verdict
+   * @throws IllegalArgumentException si un des paramètres est null, ou si une
+   *                                  sélection est null ou contient null
+   */
+  public <S extends Collection<PartType>> void validateEach(Stream<S> selections,
+      BiConsumer<? super S, ? super ValidationResult> verdicts) {
+    if (selections == null || verdicts == null) {
+      throw new IllegalArgumentException("Les paramètres ne peuvent pas être null");
+    }
+    Validation validation = validation();
+    pool.submit(() -> selections.parallel()
+        .forEach(selection -> verdicts.accept(selection, validation.validate(selection))))
+        .join();
+  }
+
+  /**
+   * Fige la stratégie de validation d'un appel : avec un
+   * {@link CompatibilityManagerImpl}, la version des règles est lue une seule
+   * fois pour tout le lot.
+   */
+  private Validation validation() {
+    if (checker instanceof CompatibilityManagerImpl) {
+      CompatibilityManagerImpl manager = (CompatibilityManagerImpl) checker;
+      PartTypeIndex index = manager.getPartTypeIndex();
+      RuleSnapshot rules = manager.getRules();
+      return selection -> validate(selection, index, rules);
+    }
+    return this::validateWithChecker;
+  }
+
+  /**
+   * Valide une sélection par ensembles de bits. Les pièces absentes de
+   * l'index ne sont concernées par aucune règle.
+   */
+  private static ValidationResult validate(Collection<PartType> selection, PartTypeIndex index, RuleSnapshot rules) {
+    checkSelection(selection);
+    long[] bits = new long[Bits.wordCount(index.size())];
+    for (PartType part : selection) {
+      int ordinal = index.ordinalOf(part);
+      if (ordinal >= 0) {
+        bits[ordinal >>> 6] |= 1L << ordinal;
+      }
+    }
+    return rules.validate(bits, index);
+  }
+
+  /**
+   * Valide une sélection à l'aide des seules méthodes de
+   * {@link CompatibilityChecker}.
+   */
+  private ValidationResult validateWithChecker(Collection<PartType> selection) {
+    checkSelection(selection);
+    return ValidationResultImpl.of(checker, new HashSet<>(selection));
+  }
+
+  private static void checkSelection(Collection<PartType> selection) {
+    if (selection == null) {
+      throw new IllegalArgumentException("La sélection ne peut pas être null");
+    }
+    for (PartType part : selection) {
+      if (part == null) {
+        throw new IllegalArgumentException("La sélection ne peut pas contenir null");
+      }
+    }
+  }
+
+  @FunctionalInterface
+  private interface Validation {
+    ValidationResult validate(Collection<PartType> selection);
+  }
+}
@@ -0,0 +1,279 @@
+package fr.istic.bodin_bodier.cartaylor.impl;
+
+import java.util.Arrays;
+
+/**
+ * Opérations utilitaires sur des ensembles de bits représentés par des
+ * tableaux de {@code long}.
+ *
+ * <p>
+ * Le bit {@code i} est stocké dans le mot {@code i >>> 6}. Les tableaux peuvent
+ * être de longueurs différentes : les mots absents sont considérés comme nuls.
+ */
+public final class Bits {
+
+  /** Tableau vide partagé, représentant l'ensemble vide */
+  public static final long[] EMPTY = new long[0];
+
+  private Bits() {
+  }
+
+  /**
+   * Retourne le nombre de mots nécessaires pour stocker un nombre de bits donné.
+   *
+   * @param bitCount le nombre de bits
+   * @return le nombre de mots de 64 bits
+   */
+  public static int wordCount(int bitCount) {
+    return (bitCount + 63) >>> 6;
+  }
+
+  /**
+   * Indique si un bit est positionné.
+   *
+   * @param bits  l'ensemble de bits
+   * @param index l'indice du bit
+   * @return true si le bit est positionné, false sinon
+   */
+  public static boolean get(long[] bits, int index) {
+    int word = index >>> 6;
+    return word < bits.length && (bits[word] & (1L << index)) != 0;
+  }
+
+  /**
+   * Positionne un bit, en agrandissant le tableau si nécessaire.
+   *
+   * @param bits  l'ensemble de bits
+   * @param index l'indice du bit
+   * @return le tableau contenant le bit (éventuellement une nouvelle instance)
+   */
+  public static long[] set(long[] bits, int index) {
+    int word = index >>> 6;
+    if (word >= bits.length) {
+      bits = Arrays.copyOf(bits, Math.max(word + 1, bits.length * 2));
+    }
+    bits[word] |= 1L << index;
+    return bits;
+  }
+
+  /**
+   * Efface un bit.
+   *
+   * @param bits  l'ensemble de bits
+   * @param index l'indice du bit
+   */
+  public static void clear(long[] bits, int index) {
+    int word = index >>> 6;
+    if (word < bits.length) {
+      bits[word] &= ~(1L << index);
+    }
+  }
+
+  /**
+   * Indique si l'ensemble est vide.
+   *
+   * @param bits l'ensemble de bits
+   * @return true si aucun bit n'est positionné
+   */
+  public static boolean isEmpty(long[] bits) {
+    for (long word : bits) {
+      if (word != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Indique si deux ensembles ont au moins un bit en commun ({@code a AND b}).
+   *
+   * @param a le premier ensemble
+   * @param b le second ensemble
+   * @return true si l'intersection n'est pas vide
+   */
+  public static boolean intersects(long[] a, long[] b) {
+    int n = Math.min(a.length, b.length);
+    for (int i = 0; i < n; i++) {
+      if ((a[i] & b[i]) != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Indique si {@code subset} est inclus dans {@code set}
+   * ({@code subset ANDNOT set} est vide).
+   *
+   * @param set    l'ensemble englobant
+   * @param subset l'ensemble supposé inclus
+   * @return true si tous les bits de subset sont positionnés dans set
+   */
+  public static boolean containsAll(long[] set, long[] subset) {
+    for (int i = 0; i < subset.length; i++) {
+      long word = i < set.length ? set[i] : 0L;
+      if ((subset[i] & ~word) != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Retourne le nombre de bits positionnés.
+   *
+   * @param bits l'ensemble de bits
+   * @return le cardinal de l'ensemble
+   */
+  public static int cardinality(long[] bits) {
+    int count = 0;
+    for (long word : bits) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+
+  /**
+   * Retourne le cardinal de {@code a AND b}.
+   *
+   * @param a le premier ensemble
+   * @param b le second ensemble
+   * @return le nombre de bits communs
+   */
+  public static int cardinalityAnd(long[] a, long[] b) {
+    int n = Math.min(a.length, b.length);
+    int count = 0;
+    for (int i = 0; i < n; i++) {
+      count += Long.bitCount(a[i] & b[i]);
+    }
+    return count;
+  }
+
+  /**
+   * Retourne le cardinal de {@code a ANDNOT b}.
+   *
+   * @param a l'ensemble de départ
+   * @param b l'ensemble à retirer
+   * @return le nombre de bits de a absents de b
+   */
+  public static int cardinalityAndNot(long[] a, long[] b) {
+    int count = 0;
+    for (int i = 0; i < a.length; i++) {
+      long word = i < b.length ? b[i] : 0L;
+      count += Long.bitCount(a[i] & ~word);
+    }
+    return count;
+  }
+
+  /**
+   * Indique si {@code a AND b} contient au moins un bit dans l'intervalle
+   * {@code [from, to)}.
+   *
+   * @param a    le premier ensemble
+   * @param b    le second ensemble
+   * @param from le premier indice de l'intervalle (inclus)
+   * @param to   le dernier indice de l'intervalle (exclu)
+   * @return true si l'intersection n'est pas vide sur l'intervalle
+   */
+  public static boolean intersectsRange(long[] a, long[] b, int from, int to) {
+    if (from >= to) {
+      return false;
+    }
+    int first = from >>> 6;
+    int last = (to - 1) >>> 6;
+    int n = Math.min(Math.min(a.length, b.length), last + 1);
+    for (int i = first; i < n; i++) {
+      long word = a[i] & b[i];
+      if (i == first) {
+        word &= -1L << from;
+      }
+      if (i == last) {
+        word &= -1L >>> (63 - ((to - 1) & 63));
+      }
+      if (word != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Retourne le nombre de bits positionnés dans l'intervalle
+   * {@code [from, to)}.
+   *
+   * @param bits l'ensemble de bits
+   * @param from le premier indice de l'intervalle (inclus)
+   * @param to   le dernier indice de l'intervalle (exclu)
+   * @return le cardinal de l'ensemble restreint à l'intervalle
+   */
+  public static int cardinalityRange(long[] bits, int from, int to) {
+    if (from >= to) {
+      return 0;
+    }
+    int first = from >>> 6;
+    int last = (to - 1) >>> 6;
+    int n = Math.min(bits.length, last + 1);
+    int count = 0;
+    for (int i = first; i < n; i++) {
+      long word = bits[i];
+      if (i == first) {
+        word &= -1L << from;
+      }
+      if (i == last) {
+        word &= -1L >>> (63 - ((to - 1) & 63));
+      }
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+
+  /**
+   * Efface tous les bits de l'intervalle {@code [from, to)}.
+   *
+   * @param bits l'ensemble de bits
+   * @param from le premier indice de l'intervalle (inclus)
+   * @param to   le dernier indice de l'intervalle (exclu)
+   */
+  public static void clearRange(long[] bits, int from, int to) {
+    if (from >= to) {
+      return;
+    }
+    int first = from >>> 6;
+    int last = (to - 1) >>> 6;
+    int n = Math.min(bits.length, last + 1);
+    for (int i = first; i < n; i++) {
+      long mask = -1L;
+      if (i == first) {
+        mask &= -1L << from;
+      }
+      if (i == last) {
+        mask &= -1L >>> (63 - ((to - 1) & 63));
+      }
+      bits[i] &= ~mask;
+    }
+  }
+
+  /**
+   * Retourne l'indice du prochain bit positionné à partir d'un indice donné.
+   *
+   * @param bits  l'ensemble de bits
+   * @param from  l'indice de départ (inclus)
+   * @return l'indice du prochain bit positionné, ou -1 s'il n'y en a pas
+   */
+  public static int nextSetBit(long[] bits, int from) {
+    int word = from >>> 6;
+    if (word >= bits.length) {
+      return -1;
+    }
+    long current = bits[word] & (-1L << from);
+    while (true) {
+      if (current != 0) {
+        return (word << 6) + Long.numberOfTrailingZeros(current);
+      }
+      if (++word == bits.length) {
+        return -1;
+      }
+      current = bits[word];
+    }
+  }
+}
@@ -2,21 +2,31 @@ package fr.istic.bodin_bodier.cartaylor.impl;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 
 import fr.istic.bodin_bodier.cartaylor.api.Category;
 import fr.istic.bodin_bodier.cartaylor.api.PartType;
 import fr.istic.bodin_bodier.cartaylor.api.Catalog;
+import fr.istic.bodin_bodier.cartaylor.api.PropertyManager;
 import fr.istic.bodin_bodier.cartaylor.impl.categories.ExteriorCategory;
 import fr.istic.bodin_bodier.cartaylor.impl.categories.InteriorCategory;
 import fr.istic.bodin_bodier.cartaylor.impl.categories.TransmissionCategory;
 import fr.istic.bodin_bodier.cartaylor.impl.categories.EngineCategory;
+import fr.istic.bodin_bodier.cartaylor.impl.categories.NamedCategory;
 
 /**
  * Classe gérant le catalogue des pièces et catégories disponibles
@@ -26,18 +36,68 @@ import fr.istic.bodin_bodier.cartaylor.impl.categories.EngineCategory;
  * Cette classe permet le chargement des données depuis un fichier JSON
  * et maintient la cohérence entre les catégories et les types de pièces.
  * 
+ * <p>
+ * Un catalogue vide contient les quatre catégories standard (Engine,
+ * Transmission, Exterior, Interior). Un fichier peut déclarer ses propres
+ * catégories : la première déclaration remplace les catégories standard si
+ * aucune pièce n'a encore été chargée. Chaque catégorie reçoit un ordinal
+ * dense dans l'ordre de déclaration (voir {@link CategoryIndex}).
+ * 
+ * <p>
+ * La description et les propriétés de chaque type de pièce sont rangées dans
+ * la {@link PropertyTable} de sa catégorie, qui permet de filtrer les
+ * variantes sur leurs propriétés.
+ * 
  * @see Catalog
  */
 public class CatalogImpl implements Catalog {
 
+  /** Fabrique de parseurs JSON, partagée et sans état */
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  /** Nombre de types de pièces entre deux notifications de progression */
+  private static final int PROGRESS_INTERVAL = 1024;
+
   /** Map associant les noms des catégories à leurs instances */
   private final Map<String, Category> categories;
+  /** Ensemble des catégories, dans l'ordre de déclaration */
+  private final Set<Category> categorySet;
+  /** Vue non modifiable des catégories */
+  private final Set<Category> categoriesView;
   /** Ensemble des types de pièces disponibles */
   private final Set<PartType> partTypes;
+  /** Vue non modifiable des types de pièces */
+  private final Set<PartType> partTypesView;
+  /** Ordinaux denses attribués aux catégories, dans l'ordre de déclaration */
+  private CategoryIndex categoryIndex;
+  /** Vrai tant que le catalogue ne contient que les catégories standard, sans pièce */
+  private boolean defaultCategories;
+  /** Index des types de pièces par ordinal de catégorie */
+  private final List<Set<PartType>> partTypesByCategory;
+  /** Vues non modifiables de l'index par catégorie */
+  private final List<Set<PartType>> partTypesByCategoryView;
+  /** Propriétés des types de pièces par ordinal de catégorie */
+  private final List<PropertyTable> propertiesByCategory;
+  /** Index des types de pièces par nom */
+  private final Map<String, PartType> partTypesByName;
+  /** Ordinaux denses attribués aux types de pièces au chargement */
+  private final PartTypeIndex partTypeIndex;
+  /** Règles de compatibilité lues dans les fichiers chargés */
+  private final CompatibilityRules compatibilityRules;
 
   public CatalogImpl() {
     this.categories = new HashMap<>();
+    this.categorySet = new LinkedHashSet<>();
+    this.categoriesView = Collections.unmodifiableSet(categorySet);
     this.partTypes = new HashSet<>();
+    this.partTypesView = Collections.unmodifiableSet(partTypes);
+    this.categoryIndex = new CategoryIndex();
+    this.partTypesByCategory = new ArrayList<>();
+    this.partTypesByCategoryView = new ArrayList<>();
+    this.propertiesByCategory = new ArrayList<>();
+    this.partTypesByName = new HashMap<>();
+    this.partTypeIndex = new PartTypeIndex();
+    this.compatibilityRules = new CompatibilityRules();
     initializeCategories();
   }
 
@@ -47,10 +107,81 @@ public class CatalogImpl implements Catalog {
     Category exterior = new ExteriorCategory();
     Category interior = new InteriorCategory();
 
-    categories.put(engine.getName(), engine);
-    categories.put(transmission.getName(), transmission);
-    categories.put(exterior.getName(), exterior);
-    categories.put(interior.getName(), interior);
+    addCategory(engine);
+    addCategory(transmission);
+    addCategory(exterior);
+    addCategory(interior);
+    defaultCategories = true;
+  }
+
+  /**
+   * Ajoute une catégorie au catalogue et crée son entrée dans l'index.
+   * 
+   * @param category la catégorie à ajouter
+   */
+  private void addCategory(Category category) {
+    categories.put(category.getName(), category);
+    categorySet.add(category);
+    // Des catégories étrangères au catalogue peuvent avoir été enregistrées
+    // dans l'index par les configurations : les ordinaux ne sont pas contigus
+    int ordinal = categoryIndex.register(category);
+    while (partTypesByCategory.size() <= ordinal) {
+      partTypesByCategory.add(null);
+      partTypesByCategoryView.add(null);
+      propertiesByCategory.add(null);
+    }
+    Set<PartType> parts = new LinkedHashSet<>();
+    partTypesByCategory.set(ordinal, parts);
+    partTypesByCategoryView.set(ordinal, Collections.unmodifiableSet(parts));
+    propertiesByCategory.set(ordinal, new PropertyTable(category));
+  }
+
+  /**
+   * Déclare une catégorie. La première déclaration retire les catégories
+   * standard si aucune pièce n'a encore été chargée ; une catégorie déjà
+   * déclarée est retournée telle quelle.
+   * 
+   * @param name le nom de la catégorie
+   * @return la catégorie du catalogue portant ce nom
+   * @throws IllegalArgumentException si le nom est null ou vide
+   */
+  Category declareCategory(String name) {
+    if (defaultCategories) {
+      categories.clear();
+      categorySet.clear();
+      partTypesByCategory.clear();
+      partTypesByCategoryView.clear();
+      propertiesByCategory.clear();
+      categoryIndex = new CategoryIndex();
+      defaultCategories = false;
+    }
+    Category category = categories.get(name);
+    if (category == null) {
+      category = newCategory(name);
+      addCategory(category);
+    }
+    return category;
+  }
+
+  /**
+   * Crée une catégorie : les noms standard conservent leur classe dédiée.
+   * 
+   * @param name le nom de la catégorie
+   * @return la nouvelle catégorie
+   */
+  private static Category newCategory(String name) {
+    switch (name == null ? "" : name) {
+      case "Engine":
+        return new EngineCategory();
+      case "Transmission":
+        return new TransmissionCategory();
+      case "Exterior":
+        return new ExteriorCategory();
+      case "Interior":
+        return new InteriorCategory();
+      default:
+        return new NamedCategory(name);
+    }
   }
 
   /**
@@ -77,37 +208,354 @@ public class CatalogImpl implements Catalog {
    * @throws IllegalStateException si une catégorie référencée n'existe pas
    */
   public void loadFromJSON(InputStream inputStream) throws IOException {
-    ObjectMapper mapper = new ObjectMapper();
-    JsonNode rootNode = mapper.readTree(inputStream);
-
-    // Charger les types de pièces
-    JsonNode partTypesNode = rootNode.get("partTypes");
-    for (JsonNode partTypeNode : partTypesNode) {
-      String partTypeName = partTypeNode.get("name").asText();
-      String categoryName = partTypeNode.get("category").asText();
-      int partTypePrice = partTypeNode.get("price").asInt();
-
-      Category category = categories.get(categoryName);
-      if (category == null) {
-        throw new IllegalStateException("Category not found: " + categoryName);
+    loadFromJSON(inputStream, null);
+  }
+
+  /**
+   * Charge les données du catalogue depuis un flux d'entrée JSON en le lisant
+   * jeton par jeton.
+   * 
+   * <p>
+   * Le document n'est jamais matérialisé en mémoire : chaque type de pièce est
+   * créé dès que son objet JSON a été lu, et les champs inconnus sont ignorés
+   * sans être construits.
+   * 
+   * <p>
+   * Le document peut aussi porter des règles de compatibilité, sous la forme
+   * de tableaux {@code incompatibilities} et {@code requirements} d'objets
+   * {@code { "reference": nom, "targets": [noms] }}. Elles sont résolues en fin
+   * de document et accumulées dans {@link #getCompatibilityRules()}. Un fichier
+   * de règles séparé peut donc être chargé après le catalogue par cette même
+   * méthode.
+   * 
+   * @param inputStream le flux d'entrée contenant les données JSON
+   * @param listener    l'observateur de progression, ou null
+   * @throws IOException           si une erreur survient lors de la lecture,
+   *                               si le document est mal formé, si deux
+   *                               types de pièces d'identifiants différents
+   *                               portent le même nom ou si un identifiant
+   *                               désigne deux pièces différentes
+   * @throws IllegalStateException si une catégorie ou un type de pièce
+   *                               référencé n'existe pas
+   */
+  public void loadFromJSON(InputStream inputStream, CatalogLoadListener listener) throws IOException {
+    try (JsonParser parser = JSON_FACTORY.createParser(inputStream)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new IOException("Le catalogue doit être un objet JSON");
       }
+      int loaded = 0;
+      List<String> incompatibilityNames = new ArrayList<>();
+      List<String> requirementNames = new ArrayList<>();
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        JsonToken value = parser.nextToken();
+        if ("categories".equals(field) && value == JsonToken.START_ARRAY) {
+          readCategories(parser);
+        } else if ("partTypes".equals(field) && value == JsonToken.START_ARRAY) {
+          // Charger les types de pièces
+          while (parser.nextToken() == JsonToken.START_OBJECT) {
+            readPartType(parser);
+            loaded++;
+            if (listener != null && loaded % PROGRESS_INTERVAL == 0) {
+              listener.onProgress(loaded, parser.getCurrentLocation().getByteOffset());
+            }
+          }
+        } else if ("incompatibilities".equals(field) && value == JsonToken.START_ARRAY) {
+          readRules(parser, incompatibilityNames);
+        } else if ("requirements".equals(field) && value == JsonToken.START_ARRAY) {
+          readRules(parser, requirementNames);
+        } else {
+          parser.skipChildren();
+        }
+      }
+      // Les règles peuvent précéder les pièces : elles sont résolues à la fin
+      for (int i = 0; i < incompatibilityNames.size(); i += 2) {
+        compatibilityRules.addIncompatibility(
+            ordinalOf(incompatibilityNames.get(i)), ordinalOf(incompatibilityNames.get(i + 1)));
+      }
+      for (int i = 0; i < requirementNames.size(); i += 2) {
+        compatibilityRules.addRequirement(
+            ordinalOf(requirementNames.get(i)), ordinalOf(requirementNames.get(i + 1)));
+      }
+      if (listener != null) {
+        listener.onProgress(loaded, parser.getCurrentLocation().getByteOffset());
+      }
+    }
+  }
+
+  /**
+   * Lit un type de pièce dont l'objet JSON vient d'être ouvert et l'ajoute
+   * au catalogue avec sa description et ses propriétés.
+   * 
+   * @param parser le parseur positionné sur le début de l'objet
+   * @throws IOException           si un champ obligatoire est absent, ou si
+   *                               le type de pièce est rejeté par
+   *                               {@link #addPartType(PartType, String, Map)}
+   * @throws IllegalStateException si la catégorie référencée n'existe pas
+   */
+  private void readPartType(JsonParser parser) throws IOException {
+    String partTypeId = null;
+    String partTypeName = null;
+    String categoryName = null;
+    Integer partTypePrice = null;
+    String description = null;
+    Map<String, Object> properties = Collections.emptyMap();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.getCurrentName();
+      parser.nextToken();
+      switch (field) {
+        case "id":
+          partTypeId = parser.getValueAsString();
+          break;
+        case "name":
+          partTypeName = parser.getValueAsString();
+          break;
+        case "category":
+          categoryName = parser.getValueAsString();
+          break;
+        case "price":
+          partTypePrice = parser.getValueAsInt();
+          break;
+        case "description":
+          description = parser.getValueAsString();
+          break;
+        case "properties":
+          properties = readProperties(parser);
+          break;
+        default:
+          parser.skipChildren();
+      }
+    }
+    if (partTypeName == null || categoryName == null || partTypePrice == null) {
+      throw new IOException("Type de pièce incomplet (name, category et price sont requis) à "
+          + parser.getCurrentLocation());
+    }
+
+    Category category = categories.get(categoryName);
+    if (category == null) {
+      throw new IllegalStateException("Category not found: " + categoryName);
+    }
+
+    String id = partTypeId == null ? PartTypeImpl.defaultId(category, partTypeName) : partTypeId;
+    PartType partType = new PartTypeImpl(id, partTypeName, category, PartImpl.class, partTypePrice);
+    try {
+      addPartType(partType, description, properties);
+    } catch (IllegalArgumentException e) {
+      throw new IOException(e.getMessage() + " à " + parser.getCurrentLocation(), e);
+    }
+  }
 
-      PartType partType = new PartTypeImpl(
-          partTypeName,
-          category,
-          PartImpl.class,
-          partTypePrice);
-      partTypes.add(partType);
+  /**
+   * Lit l'objet des propriétés d'un type de pièce. Les entiers sont lus comme
+   * Integer, les autres valeurs scalaires sous forme textuelle ; les valeurs
+   * null, les objets et les tableaux sont ignorés.
+   * 
+   * @param parser le parseur positionné sur la valeur du champ
+   * @return les propriétés, dans l'ordre du document
+   * @throws IOException si une erreur survient lors de la lecture
+   */
+  private static Map<String, Object> readProperties(JsonParser parser) throws IOException {
+    if (parser.currentToken() != JsonToken.START_OBJECT) {
+      parser.skipChildren();
+      return Collections.emptyMap();
     }
+    Map<String, Object> properties = new LinkedHashMap<>();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String name = parser.getCurrentName();
+      JsonToken value = parser.nextToken();
+      if (value == JsonToken.VALUE_NUMBER_INT && parser.getNumberType() == JsonParser.NumberType.INT) {
+        properties.put(name, parser.getIntValue());
+      } else if (value.isScalarValue() && value != JsonToken.VALUE_NULL) {
+        properties.put(name, parser.getText());
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return properties;
+  }
+
+  /**
+   * Lit un tableau de catégories dont le début vient d'être lu. Chaque entrée
+   * est un nom, ou un objet portant un champ {@code name}.
+   * 
+   * @param parser le parseur positionné sur le début du tableau
+   * @throws IOException si une entrée n'a pas de nom
+   */
+  private void readCategories(JsonParser parser) throws IOException {
+    JsonToken token;
+    while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+      String name = null;
+      if (token == JsonToken.START_OBJECT) {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          String field = parser.getCurrentName();
+          parser.nextToken();
+          if ("name".equals(field)) {
+            name = parser.getValueAsString();
+          } else {
+            parser.skipChildren();
+          }
+        }
+      } else {
+        name = parser.getValueAsString();
+      }
+      if (name == null || name.trim().isEmpty()) {
+        throw new IOException("Catégorie sans nom à " + parser.getCurrentLocation());
+      }
+      declareCategory(name);
+    }
+  }
+
+  /**
+   * Lit un tableau de règles dont le début vient d'être lu. Chaque cible
+   * produit un couple (référence, cible) ajouté à la liste de noms.
+   * 
+   * @param parser le parseur positionné sur le début du tableau
+   * @param names  la liste recevant les couples de noms à plat
+   * @throws IOException si une règle n'a pas de référence
+   */
+  private void readRules(JsonParser parser, List<String> names) throws IOException {
+    while (parser.nextToken() == JsonToken.START_OBJECT) {
+      String reference = null;
+      List<String> targets = new ArrayList<>();
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.getCurrentName();
+        JsonToken value = parser.nextToken();
+        if ("reference".equals(field)) {
+          reference = parser.getValueAsString();
+        } else if ("targets".equals(field) && value == JsonToken.START_ARRAY) {
+          while (parser.nextToken() != JsonToken.END_ARRAY) {
+            targets.add(parser.getValueAsString());
+          }
+        } else {
+          parser.skipChildren();
+        }
+      }
+      if (reference == null) {
+        throw new IOException("Règle sans référence à " + parser.getCurrentLocation());
+      }
+      for (String target : targets) {
+        names.add(reference);
+        names.add(target);
+      }
+    }
+  }
+
+  /**
+   * Retourne l'ordinal d'un type de pièce du catalogue désigné par son nom.
+   * 
+   * @param name le nom du type de pièce
+   * @return l'ordinal
+   * @throws IllegalStateException si le type de pièce n'existe pas
+   */
+  private int ordinalOf(String name) {
+    PartType partType = name == null ? null : partTypesByName.get(name);
+    if (partType == null) {
+      throw new IllegalStateException("Part type not found: " + name);
+    }
+    return partTypeIndex.ordinalOf(partType);
+  }
+
+  /**
+   * Retourne les règles de compatibilité lues dans les fichiers chargés, à
+   * appliquer au gestionnaire par
+   * {@link CompatibilityManagerImpl#addRules(CompatibilityRules)}.
+   * 
+   * @return le lot de règles, exprimé dans les ordinaux du catalogue
+   */
+  public CompatibilityRules getCompatibilityRules() {
+    return compatibilityRules;
+  }
+
+  /**
+   * Ajoute un type de pièce sans propriété au catalogue et lui attribue un
+   * ordinal.
+   * 
+   * @param partType le type de pièce à ajouter
+   * @throws IllegalArgumentException dans les cas de
+   *                                  {@link #addPartType(PartType, String, Map)}
+   */
+  void addPartType(PartType partType) {
+    addPartType(partType, null, Collections.emptyMap());
+  }
+
+  /**
+   * Ajoute un type de pièce au catalogue, lui attribue un ordinal et range
+   * ses propriétés dans la table de sa catégorie.
+   * 
+   * <p>
+   * Un type de pièce de même identifiant, de même nom et de même catégorie
+   * qu'un type déjà chargé le remplace, par exemple après une mise à jour de
+   * prix : il conserve son ordinal et sa place dans sa catégorie, et devient
+   * l'instance retournée par tous les index du catalogue.
+   * 
+   * @param partType    le type de pièce à ajouter
+   * @param description la description, ou null
+   * @param properties  les propriétés, voir {@link PropertyTable}
+   * @throws IllegalArgumentException si un autre type de pièce, d'identifiant
+   *                                  différent, porte déjà ce nom, ou si un
+   *                                  type de pièce de même identifiant porte
+   *                                  un autre nom ou une autre catégorie
+   */
+  void addPartType(PartType partType, String description, Map<String, ?> properties) {
+    // Les noms désignent les pièces dans les règles et les recherches : ils
+    // doivent rester uniques, même entre catégories
+    PartType homonym = partTypesByName.get(partType.getName());
+    if (homonym != null && !homonym.getId().equals(partType.getId())) {
+      throw new IllegalArgumentException("Nom de type de pièce en double (" + partType.getName() + " : "
+          + homonym.getId() + " et " + partType.getId() + ")");
+    }
+    int known = partTypeIndex.ordinalOf(partType.getId());
+    PartType previous = known < 0 ? null : partTypeIndex.get(known);
+    if (previous != null && (!previous.getName().equals(partType.getName())
+        || !previous.getCategory().getName().equals(partType.getCategory().getName()))) {
+      throw new IllegalArgumentException("Identifiant de type de pièce en double (" + partType.getId() + " : "
+          + previous.getName() + " et " + partType.getName() + ")");
+    }
+    int ordinal = categoryIndex.ordinalOf(partType.getCategory());
+    if (partTypes.remove(partType)) {
+      // Rechargement : l'ancienne instance est remplacée à sa place
+      Set<PartType> parts = partTypesByCategory.get(ordinal);
+      List<PartType> ordered = new ArrayList<>(parts);
+      ordered.set(ordered.indexOf(partType), partType);
+      parts.clear();
+      parts.addAll(ordered);
+    } else {
+      partTypesByCategory.get(ordinal).add(partType);
+    }
+    partTypes.add(partType);
+    propertiesByCategory.get(ordinal).put(partType, description, properties);
+    partTypesByName.put(partType.getName(), partType);
+    partTypeIndex.replace(partType);
+    defaultCategories = false;
+  }
+
+  /**
+   * Retourne l'index des ordinaux des types de pièces du catalogue.
+   * 
+   * @return l'index des ordinaux
+   */
+  public PartTypeIndex getPartTypeIndex() {
+    return partTypeIndex;
+  }
+
+  /**
+   * Retourne l'index des ordinaux des catégories du catalogue, dans l'ordre
+   * de {@link #getCategories()}. Les configurations peuvent y enregistrer des
+   * catégories étrangères au catalogue, à la suite.
+   * 
+   * @return l'index des ordinaux
+   */
+  public CategoryIndex getCategoryIndex() {
+    return categoryIndex;
   }
 
   /**
    * Retourne l'ensemble des catégories disponibles dans le catalogue.
    * 
-   * @return un ensemble contenant toutes les catégories
+   * @return une vue non modifiable de toutes les catégories
    */
   public Set<Category> getCategories() {
-    return new HashSet<>(categories.values());
+    return categoriesView;
   }
 
   /**
@@ -123,21 +571,104 @@ public class CatalogImpl implements Catalog {
   /**
    * Retourne l'ensemble des types de pièces disponibles dans le catalogue.
    * 
-   * @return un ensemble contenant tous les types de pièces
+   * @return une vue non modifiable de tous les types de pièces
    */
   public Set<PartType> getPartTypes() {
-    return new HashSet<>(partTypes);
+    return partTypesView;
   }
 
   /**
    * Retourne l'ensemble des types de pièces pour une catégorie spécifique.
    * 
+   * <p>
+   * La réponse est lue dans l'index par catégorie construit au chargement :
+   * aucun parcours du catalogue ni aucune allocation n'est effectué.
+   * 
    * @param category la catégorie à filtrer
-   * @return un ensemble contenant tous les types de pièces pour la catégorie
+   * @return une vue non modifiable des types de pièces de la catégorie, vide si
+   *         la catégorie est inconnue
    */
   public Set<PartType> getPartTypesForCategory(Category category) {
-    return partTypes.stream()
-        .filter(pt -> pt.getCategory().equals(category))
-        .collect(java.util.stream.Collectors.toSet());
+    int ordinal = categoryIndex.ordinalOf(category);
+    Set<PartType> parts = ordinal < 0 || ordinal >= partTypesByCategoryView.size()
+        ? null
+        : partTypesByCategoryView.get(ordinal);
+    return parts == null ? Collections.emptySet() : parts;
+  }
+
+  /**
+   * Retourne la table des propriétés des types de pièces d'une catégorie.
+   * 
+   * @param category la catégorie
+   * @return la table des propriétés, vide si la catégorie est inconnue
+   * @throws IllegalArgumentException si la catégorie est null
+   */
+  public PropertyTable getProperties(Category category) {
+    int ordinal = categoryIndex.ordinalOf(category);
+    PropertyTable table = ordinal < 0 || ordinal >= propertiesByCategory.size()
+        ? null
+        : propertiesByCategory.get(ordinal);
+    return table == null ? new PropertyTable(category) : table;
+  }
+
+  /**
+   * Retourne les propriétés lues dans le catalogue pour un type de pièce.
+   * 
+   * @param partType le type de pièce
+   * @return un gestionnaire de propriétés en lecture seule, sans propriété si
+   *         le type de pièce est inconnu du catalogue
+   * @throws IllegalArgumentException si le type de pièce est null
+   */
+  public PropertyManager getProperties(PartType partType) {
+    if (partType == null) {
+      throw new IllegalArgumentException("La pièce ne peut pas être null");
+    }
+    return getProperties(partType.getCategory()).getPropertyManager(partType);
+  }
+
+  /**
+   * Recherche un type de pièce par son nom dans l'index des noms.
+   * 
+   * @param name le nom du type de pièce
+   * @return le type de pièce, ou Optional.empty() s'il n'existe pas
+   * @throws IllegalArgumentException si le nom est null
+   */
+  public Optional<PartType> findPartType(String name) {
+    if (name == null) {
+      throw new IllegalArgumentException("Le nom ne peut pas être null");
+    }
+    return Optional.ofNullable(partTypesByName.get(name));
+  }
+
+  /**
+   * Résout un ensemble de noms en types de pièces.
+   * 
+   * @param names les noms à résoudre
+   * @return les types de pièces, dans l'ordre d'itération des noms
+   * @throws IllegalArgumentException si names est null ou si un des noms est
+   *                                  inconnu ; le message liste tous les noms
+   *                                  inconnus
+   */
+  public List<PartType> resolveAll(Collection<String> names) {
+    if (names == null) {
+      throw new IllegalArgumentException("Les noms ne peuvent pas être null");
+    }
+    List<PartType> resolved = new ArrayList<>(names.size());
+    List<String> unknown = null;
+    for (String name : names) {
+      PartType partType = name == null ? null : partTypesByName.get(name);
+      if (partType == null) {
+        if (unknown == null) {
+          unknown = new ArrayList<>();
+        }
+        unknown.add(name);
+      } else {
+        resolved.add(partType);
+      }
+    }
+    if (unknown != null) {
+      throw new IllegalArgumentException("Types de pièces inconnus : " + unknown);
+    }
+    return resolved;
   }
-}
\ No newline at end of file
+}
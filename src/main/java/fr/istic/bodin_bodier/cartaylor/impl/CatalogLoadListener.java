@@ -0,0 +1,19 @@
+package fr.istic.bodin_bodier.cartaylor.impl;
+
+/**
+ * Observateur de la progression du chargement d'un catalogue.
+ *
+ * @see CatalogImpl#loadFromJSON(java.io.InputStream, CatalogLoadListener)
+ */
+@FunctionalInterface
+public interface CatalogLoadListener {
+
+  /**
+   * Signale l'avancement du chargement. Appelée périodiquement pendant la
+   * lecture, puis une dernière fois à la fin du document.
+   *
+   * @param partTypesLoaded le nombre de types de pièces déjà chargés
+   * @param bytesRead       le nombre d'octets déjà lus dans le flux
+   */
+  void onProgress(int partTypesLoaded, long bytesRead);
+}
@@ -0,0 +1,387 @@
+package fr.istic.bodin_bodier.cartaylor.impl;
+
+import fr.istic.bodin_bodier.cartaylor.api.Category;
+import fr.istic.bodin_bodier.cartaylor.api.PartType;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Instantané binaire d'un catalogue et de ses règles de compatibilité.
+ *
+ * <p>
+ * L'instantané est produit une fois à partir du catalogue JSON, puis relu au
+ * démarrage par projection mémoire du fichier, sans analyse JSON. Il
+ * contient :
+ * <ul>
+ * <li>une table de chaînes dédoublonnées (identifiants et noms de pièces,
+ * noms de catégories, descriptions, noms et valeurs textuelles des
+ * propriétés)</li>
+ * <li>les catégories déclarées par le catalogue, dans l'ordre de leurs
+ * ordinaux</li>
+ * <li>les types de pièces dans l'ordre de leurs ordinaux, avec leur
+ * identifiant, leur prix et l'ordinal de leur catégorie ; les pièces du
+ * catalogue portent en outre leur description et leurs propriétés, chacune
+ * typée comme sa colonne dans la {@link PropertyTable} de la catégorie</li>
+ * <li>les règles compilées sous forme d'ensembles de bits</li>
+ * </ul>
+ *
+ * <p>
+ * Toutes les valeurs sont écrites en gros-boutiste. Le format commence par un
+ * nombre magique et un numéro de version ; un fichier d'une autre version est
+ * refusé.
+ */
+public final class CatalogSnapshot {
+
+  /** Nombre magique « CTSN » */
+  static final int MAGIC = 0x4354534E;
+
+  /** Version du format */
+  static final int FORMAT_VERSION = 4;
+
+  /** Type d'une valeur de propriété : entier */
+  private static final byte INT_VALUE = 0;
+  /** Type d'une valeur de propriété : chaîne de la table */
+  private static final byte TEXT_VALUE = 1;
+
+  private final CatalogImpl catalog;
+  private final CompatibilityManagerImpl compatibilityManager;
+
+  private CatalogSnapshot(CatalogImpl catalog, CompatibilityManagerImpl compatibilityManager) {
+    this.catalog = catalog;
+    this.compatibilityManager = compatibilityManager;
+  }
+
+  /**
+   * Retourne le catalogue relu depuis l'instantané.
+   *
+   * @return le catalogue
+   */
+  public CatalogImpl getCatalog() {
+    return catalog;
+  }
+
+  /**
+   * Retourne le gestionnaire de compatibilité relu depuis l'instantané. Il
+   * partage l'index des ordinaux du catalogue.
+   *
+   * @return le gestionnaire de compatibilité
+   */
+  public CompatibilityManagerImpl getCompatibilityManager() {
+    return compatibilityManager;
+  }
+
+  /**
+   * Écrit l'instantané d'un catalogue et de ses règles.
+   *
+   * @param catalog le catalogue
+   * @param manager le gestionnaire de compatibilité, qui doit partager l'index
+   *                des ordinaux du catalogue
+   * @param path    le fichier à écrire
+   * @throws IOException              si une erreur survient lors de l'écriture,
+   *                                  ou si une pièce appartient à une
+   *                                  catégorie étrangère au catalogue
+   * @throws IllegalArgumentException si un paramètre est null ou si les index
+   *                                  diffèrent
+   */
+  public static void write(CatalogImpl catalog, CompatibilityManagerImpl manager, Path path) throws IOException {
+    if (catalog == null || manager == null || path == null) {
+      throw new IllegalArgumentException("Les paramètres ne peuvent pas être null");
+    }
+    PartTypeIndex index = catalog.getPartTypeIndex();
+    if (manager.getPartTypeIndex() != index) {
+      throw new IllegalArgumentException("Le gestionnaire doit partager l'index du catalogue");
+    }
+
+    // Une seule version des règles est lue, même si elles changent pendant l'écriture
+    RuleSnapshot rules = manager.getRules();
+    int partCount = index.size();
+
+    // Table des chaînes : chaque nom n'est écrit qu'une fois
+    List<String> strings = new ArrayList<>();
+    Map<String, Integer> stringIds = new HashMap<>();
+    List<Category> categories = new ArrayList<>(catalog.getCategories());
+    Map<String, Integer> categoryOrdinals = new HashMap<>();
+    for (Category category : categories) {
+      intern(category.getName(), strings, stringIds);
+      categoryOrdinals.put(category.getName(), categoryOrdinals.size());
+    }
+    for (int ordinal = 0; ordinal < partCount; ordinal++) {
+      PartType partType = index.get(ordinal);
+      if (!categoryOrdinals.containsKey(partType.getCategory().getName())) {
+        throw new IOException("Catégorie étrangère au catalogue : " + partType.getCategory().getName());
+      }
+      intern(partType.getId(), strings, stringIds);
+      intern(partType.getName(), strings, stringIds);
+      if (catalog.getPartTypes().contains(partType)) {
+        PropertyTable table = catalog.getProperties(partType.getCategory());
+        table.getDescription(partType).ifPresent(description -> intern(description, strings, stringIds));
+        for (String property : table.getPropertyNames()) {
+          Optional<String> value = table.getProperty(partType, property);
+          if (value.isPresent()) {
+            intern(property, strings, stringIds);
+            if (!table.isNumeric(property)) {
+              intern(value.get(), strings, stringIds);
+            }
+          }
+        }
+      }
+    }
+
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(FORMAT_VERSION);
+
+      out.writeInt(strings.size());
+      for (String string : strings) {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+      }
+
+      out.writeInt(categories.size());
+      for (Category category : categories) {
+        out.writeInt(stringIds.get(category.getName()));
+      }
+
+      out.writeInt(partCount);
+      for (int ordinal = 0; ordinal < partCount; ordinal++) {
+        PartType partType = index.get(ordinal);
+        out.writeInt(stringIds.get(partType.getId()));
+        out.writeInt(stringIds.get(partType.getName()));
+        out.writeInt(categoryOrdinals.get(partType.getCategory().getName()));
+        out.writeInt(partType.getPrice());
+        // Les pièces connues du seul gestionnaire ne font pas partie du catalogue
+        boolean inCatalog = catalog.getPartTypes().contains(partType);
+        out.writeBoolean(inCatalog);
+        if (inCatalog) {
+          writeProperties(out, catalog.getProperties(partType.getCategory()), partType, stringIds);
+        }
+      }
+
+      writeRows(out, rules, partCount, true);
+      writeRows(out, rules, partCount, false);
+    }
+  }
+
+  /**
+   * Relit un instantané par projection mémoire du fichier.
+   *
+   * @param path le fichier à lire
+   * @return l'instantané relu
+   * @throws IOException si le fichier est illisible, tronqué, corrompu ou
+   *                     d'une autre version
+   */
+  public static CatalogSnapshot load(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return read(buffer);
+    }
+  }
+
+  /**
+   * Décode un instantané.
+   *
+   * @param buffer le tampon positionné au début de l'instantané
+   * @return l'instantané décodé
+   * @throws IOException si le contenu est invalide
+   */
+  private static CatalogSnapshot read(ByteBuffer buffer) throws IOException {
+    try {
+      if (buffer.getInt() != MAGIC) {
+        throw new IOException("Le fichier n'est pas un instantané de catalogue");
+      }
+      int version = buffer.getInt();
+      if (version != FORMAT_VERSION) {
+        throw new IOException("Version d'instantané non supportée : " + version);
+      }
+
+      String[] strings = new String[readCount(buffer, Integer.BYTES)];
+      for (int i = 0; i < strings.length; i++) {
+        byte[] bytes = new byte[readCount(buffer, 1)];
+        buffer.get(bytes);
+        strings[i] = new String(bytes, StandardCharsets.UTF_8);
+      }
+
+      CatalogImpl catalog = new CatalogImpl();
+      Category[] categories = new Category[readCount(buffer, Integer.BYTES)];
+      for (int i = 0; i < categories.length; i++) {
+        categories[i] = catalog.declareCategory(strings[buffer.getInt()]);
+      }
+
+      PartTypeIndex index = catalog.getPartTypeIndex();
+      // Identifiant, nom, catégorie, prix et appartenance au catalogue
+      int partCount = readCount(buffer, 4 * Integer.BYTES + 1);
+      for (int ordinal = 0; ordinal < partCount; ordinal++) {
+        String id = strings[buffer.getInt()];
+        String name = strings[buffer.getInt()];
+        Category category = categories[buffer.getInt()];
+        int price = buffer.getInt();
+        boolean inCatalog = buffer.get() != 0;
+        PartType partType = new PartTypeImpl(id, name, category, PartImpl.class, price);
+        if (inCatalog) {
+          int description = buffer.getInt();
+          Map<String, Object> properties = new LinkedHashMap<>();
+          int propertyCount = readCount(buffer, 2 * Integer.BYTES + 1);
+          for (int i = 0; i < propertyCount; i++) {
+            String property = strings[buffer.getInt()];
+            byte type = buffer.get();
+            int value = buffer.getInt();
+            properties.put(property, type == INT_VALUE ? (Object) value : strings[value]);
+          }
+          catalog.addPartType(partType, description < 0 ? null : strings[description], properties);
+        } else {
+          index.register(partType);
+        }
+      }
+
+      long[][] incompatibilities = readRows(buffer, partCount);
+      long[][] requirements = readRows(buffer, partCount);
+      CompatibilityManagerImpl manager = new CompatibilityManagerImpl(index);
+      manager.installRules(incompatibilities, requirements);
+      return new CatalogSnapshot(catalog, manager);
+    } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+      throw new IOException("Instantané de catalogue tronqué ou corrompu", e);
+    } catch (IllegalArgumentException e) {
+      // Pièces ou catégories refusées par le catalogue : noms en double, prix négatif...
+      throw new IOException("Instantané de catalogue incohérent : " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Lit un nombre d'éléments et vérifie qu'il est positif et que le tampon
+   * peut encore les contenir.
+   *
+   * @param buffer      le tampon
+   * @param elementSize la taille minimale d'un élément, en octets
+   * @return le nombre d'éléments
+   * @throws IOException si le nombre est négatif ou dépasse le reste du
+   *                     tampon
+   */
+  private static int readCount(ByteBuffer buffer, int elementSize) throws IOException {
+    int count = buffer.getInt();
+    if (count < 0 || (long) count * elementSize > buffer.remaining()) {
+      throw new IOException("Longueur invalide dans l'instantané de catalogue : " + count);
+    }
+    return count;
+  }
+
+  /**
+   * Convertit un catalogue JSON en instantané.
+   *
+   * @param args le fichier JSON d'entrée et le fichier instantané à produire
+   * @throws IOException si une erreur survient lors de la lecture ou de
+   *                     l'écriture
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2) {
+      System.err.println("Usage : CatalogSnapshot <catalogue.json> <catalogue.snapshot>");
+      System.exit(2);
+    }
+    CatalogImpl catalog = new CatalogImpl();
+    try (InputStream in = Files.newInputStream(Paths.get(args[0]))) {
+      catalog.loadFromJSON(in);
+    }
+    CompatibilityManagerImpl manager = new CompatibilityManagerImpl(catalog.getPartTypeIndex());
+    manager.addRules(catalog.getCompatibilityRules());
+    write(catalog, manager, Paths.get(args[1]));
+  }
+
+  /**
+   * Écrit la description et les propriétés d'une pièce du catalogue :
+   * l'indice de la description, -1 si elle est absente, le nombre de
+   * propriétés, puis pour chacune l'indice de son nom, son type et sa valeur.
+   * Les propriétés suivent l'ordre des colonnes de la table, et les valeurs
+   * le type de leur colonne : la relecture reconstruit les mêmes colonnes.
+   */
+  private static void writeProperties(DataOutputStream out, PropertyTable table, PartType partType,
+      Map<String, Integer> stringIds) throws IOException {
+    Optional<String> description = table.getDescription(partType);
+    out.writeInt(description.isPresent() ? stringIds.get(description.get()) : -1);
+    List<String> present = new ArrayList<>();
+    for (String property : table.getPropertyNames()) {
+      if (table.getProperty(partType, property).isPresent()) {
+        present.add(property);
+      }
+    }
+    out.writeInt(present.size());
+    for (String property : present) {
+      String value = table.getProperty(partType, property).get();
+      out.writeInt(stringIds.get(property));
+      if (table.isNumeric(property)) {
+        out.writeByte(INT_VALUE);
+        out.writeInt(Integer.parseInt(value));
+      } else {
+        out.writeByte(TEXT_VALUE);
+        out.writeInt(stringIds.get(value));
+      }
+    }
+  }
+
+  private static void intern(String string, List<String> strings, Map<String, Integer> stringIds) {
+    if (!stringIds.containsKey(string)) {
+      stringIds.put(string, strings.size());
+      strings.add(string);
+    }
+  }
+
+  /**
+   * Écrit les lignes non vides d'une famille de règles : leur nombre, puis
+   * pour chacune son ordinal, son nombre de mots et ses mots.
+   */
+  private static void writeRows(DataOutputStream out, RuleSnapshot rules, int size,
+      boolean incompatibilities) throws IOException {
+    int nonEmpty = 0;
+    for (int ordinal = 0; ordinal < size; ordinal++) {
+      if (!Bits.isEmpty(row(rules, ordinal, incompatibilities))) {
+        nonEmpty++;
+      }
+    }
+    out.writeInt(nonEmpty);
+    for (int ordinal = 0; ordinal < size; ordinal++) {
+      long[] bits = row(rules, ordinal, incompatibilities);
+      if (!Bits.isEmpty(bits)) {
+        out.writeInt(ordinal);
+        out.writeInt(bits.length);
+        for (long word : bits) {
+          out.writeLong(word);
+        }
+      }
+    }
+  }
+
+  private static long[] row(RuleSnapshot rules, int ordinal, boolean incompatibilities) {
+    return incompatibilities ? rules.getIncompatibilityBits(ordinal) : rules.getRequirementBits(ordinal);
+  }
+
+  private static long[][] readRows(ByteBuffer buffer, int size) throws IOException {
+    long[][] rows = new long[size][];
+    // Ordinal et nombre de mots de chaque ligne
+    int nonEmpty = readCount(buffer, 2 * Integer.BYTES);
+    for (int i = 0; i < nonEmpty; i++) {
+      int ordinal = buffer.getInt();
+      long[] bits = new long[readCount(buffer, Long.BYTES)];
+      buffer.asLongBuffer().get(bits);
+      buffer.position(buffer.position() + bits.length * Long.BYTES);
+      rows[ordinal] = bits;
+    }
+    return rows;
+  }
+}
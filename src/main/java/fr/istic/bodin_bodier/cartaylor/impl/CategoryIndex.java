@@ -0,0 +1,126 @@
+package fr.istic.bodin_bodier.cartaylor.impl;
+
+import fr.istic.bodin_bodier.cartaylor.api.Category;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index attribuant à chaque catégorie un ordinal dense (0, 1, 2, ...).
+ *
+ * <p>
+ * Les ordinaux permettent de ranger la sélection d'une configuration dans un
+ * tableau indexé par catégorie. Ils sont attribués dans l'ordre
+ * d'enregistrement, c'est-à-dire l'ordre de déclaration des catégories du
+ * catalogue, et ne changent plus ensuite.
+ *
+ * <p>
+ * Les catégories sont indexées par nom : l'égalité de certaines catégories
+ * dépend de champs modifiables, et ne peut donc pas servir de clé. L'ordinal
+ * est en outre mémorisé dans la première instance enregistrée, qui est ainsi
+ * résolue sans calcul de hachage.
+ *
+ * <p>
+ * L'index peut être partagé entre threads : les lectures ne prennent aucun
+ * verrou, et un ordinal visible par {@link #ordinalOf(Category)} est toujours
+ * résolu par {@link #get(int)}.
+ */
+public class CategoryIndex {
+  private final Map<String, Integer> ordinals;
+  private volatile Category[] categories;
+  private volatile int size;
+
+  public CategoryIndex() {
+    this.ordinals = new ConcurrentHashMap<>();
+    this.categories = new Category[8];
+    this.size = 0;
+  }
+
+  /**
+   * Constructeur enregistrant des catégories dans leur ordre d'itération.
+   *
+   * @param categories les catégories à enregistrer
+   * @throws IllegalArgumentException si la collection ou une catégorie est
+   *                                  null
+   */
+  public CategoryIndex(Collection<Category> categories) {
+    this();
+    if (categories == null) {
+      throw new IllegalArgumentException("Les catégories ne peuvent pas être null");
+    }
+    for (Category category : categories) {
+      register(category);
+    }
+  }
+
+  /**
+   * Enregistre une catégorie si elle n'est pas déjà connue.
+   *
+   * @param category la catégorie
+   * @return l'ordinal de la catégorie
+   * @throws IllegalArgumentException si la catégorie est null
+   */
+  public synchronized int register(Category category) {
+    if (category == null) {
+      throw new IllegalArgumentException("La catégorie ne peut pas être null");
+    }
+    Integer known = ordinals.get(category.getName());
+    if (known != null) {
+      return known;
+    }
+    int ordinal = size;
+    if (ordinal == categories.length) {
+      categories = Arrays.copyOf(categories, ordinal * 2);
+    }
+    categories[ordinal] = category;
+    // La taille est publiée avant l'ordinal, pour que get() le résolve
+    size = ordinal + 1;
+    ordinals.put(category.getName(), ordinal);
+    if (category instanceof AbstractCategory && ((AbstractCategory) category).ordinalOwner == null) {
+      AbstractCategory first = (AbstractCategory) category;
+      first.ordinal = ordinal;
+      // Publié après l'ordinal : un propriétaire visible garantit l'ordinal
+      first.ordinalOwner = this;
+    }
+    return ordinal;
+  }
+
+  /**
+   * Retourne l'ordinal d'une catégorie.
+   *
+   * @param category la catégorie
+   * @return l'ordinal, ou -1 si la catégorie n'est pas enregistrée
+   */
+  public int ordinalOf(Category category) {
+    if (category instanceof AbstractCategory && ((AbstractCategory) category).ordinalOwner == this) {
+      return ((AbstractCategory) category).ordinal;
+    }
+    Integer ordinal = category == null ? null : ordinals.get(category.getName());
+    return ordinal == null ? -1 : ordinal;
+  }
+
+  /**
+   * Retourne la catégorie associée à un ordinal.
+   *
+   * @param ordinal l'ordinal
+   * @return la catégorie correspondante
+   * @throws IndexOutOfBoundsException si l'ordinal n'est pas attribué
+   */
+  public Category get(int ordinal) {
+    if (ordinal < 0 || ordinal >= size) {
+      throw new IndexOutOfBoundsException("Ordinal inconnu : " + ordinal);
+    }
+    return categories[ordinal];
+  }
+
+  /**
+   * Retourne le nombre de catégories enregistrées.
+   *
+   * @return le nombre d'ordinaux attribués
+   */
+  public int size() {
+    return size;
+  }
+}
@@ -3,7 +3,11 @@ package fr.istic.bodin_bodier.cartaylor.impl;
 import fr.istic.bodin_bodier.cartaylor.api.CompatibilityManager;
 import fr.istic.bodin_bodier.cartaylor.api.PartType;
 
-import java.util.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Implémentation de l'interface CompatibilityManager qui gère les
@@ -14,17 +18,133 @@ import java.util.*;
  * Cette classe permet d'ajouter, de supprimer et de récupérer les
  * règles de compatibilité entre les pièces.
  * 
+ * <p>
+ * Les règles sont compilées sous forme d'ensembles de bits indexés par les
+ * ordinaux d'un {@link PartTypeIndex} : chaque type de pièce possède une
+ * ligne d'incompatibilités et une ligne d'exigences. Les vérifications de
+ * validité se ramènent ainsi à des opérations AND / ANDNOT mot à mot.
+ * 
+ * <p>
+ * Le gestionnaire peut être partagé par de nombreux threads. Les règles sont
+ * publiées sous forme de {@link RuleSnapshot} immuables : les lecteurs ne
+ * prennent aucun verrou et lisent la dernière version publiée. Les écrivains
+ * sont sérialisés ; chaque modification copie uniquement les lignes qu'elle
+ * touche, puis publie une nouvelle version. Plusieurs modifications peuvent
+ * être regroupées en une seule publication avec {@link #batch(Consumer)}.
+ * 
  * @see CompatibilityManager
  */
 public class CompatibilityManagerImpl implements CompatibilityManager {
 
-  private final Map<PartType, Set<PartType>> incompatibilities;
+  /** Familles de règles d'un brouillon */
+  private static final int INCOMPATIBILITIES = 0;
+  private static final int REQUIREMENTS = 1;
+  private static final int REQUIRED_BY = 2;
+  private static final int FAMILIES = 3;
+
+  private final PartTypeIndex index;
 
-  private final Map<PartType, Set<PartType>> requirements;
+  /** Dernière version publiée des règles, lue sans verrou */
+  private volatile RuleSnapshot rules;
+
+  /** Verrou sérialisant les écrivains */
+  private final Object writeLock;
+
+  /** Brouillon du lot en cours, ou null hors d'un lot */
+  private Draft draft;
 
   public CompatibilityManagerImpl() {
-    this.incompatibilities = new HashMap<>();
-    this.requirements = new HashMap<>();
+    this(new PartTypeIndex());
+  }
+
+  /**
+   * Constructeur partageant l'index des ordinaux du catalogue.
+   * 
+   * @param index l'index des ordinaux des types de pièces
+   * @throws IllegalArgumentException si l'index est null
+   */
+  public CompatibilityManagerImpl(PartTypeIndex index) {
+    if (index == null) {
+      throw new IllegalArgumentException("L'index ne peut pas être null");
+    }
+    this.index = index;
+    this.rules = RuleSnapshot.EMPTY;
+    this.writeLock = new Object();
+  }
+
+  /**
+   * Retourne l'index des ordinaux utilisé par ce gestionnaire.
+   * 
+   * @return l'index des ordinaux
+   */
+  public PartTypeIndex getPartTypeIndex() {
+    return index;
+  }
+
+  /**
+   * Retourne la dernière version publiée des règles. Plusieurs lectures
+   * devant être cohérentes entre elles doivent être faites sur la même
+   * version.
+   * 
+   * @return les règles courantes
+   */
+  public RuleSnapshot getRules() {
+    return rules;
+  }
+
+  /**
+   * Retourne les incompatibilités d'un ordinal sous forme d'ensemble de bits.
+   * Le tableau retourné ne doit pas être modifié.
+   * 
+   * @param ordinal l'ordinal du type de pièce
+   * @return l'ensemble de bits des pièces incompatibles
+   */
+  public long[] getIncompatibilityBits(int ordinal) {
+    return rules.getIncompatibilityBits(ordinal);
+  }
+
+  /**
+   * Retourne les exigences d'un ordinal sous forme d'ensemble de bits.
+   * Le tableau retourné ne doit pas être modifié.
+   * 
+   * @param ordinal l'ordinal du type de pièce
+   * @return l'ensemble de bits des pièces requises
+   */
+  public long[] getRequirementBits(int ordinal) {
+    return rules.getRequirementBits(ordinal);
+  }
+
+  /**
+   * Retourne les pièces qui requièrent un ordinal, sous forme d'ensemble de
+   * bits. Le tableau retourné ne doit pas être modifié.
+   * 
+   * @param ordinal l'ordinal du type de pièce
+   * @return l'ensemble de bits des pièces requérant cet ordinal
+   */
+  public long[] getRequiredByBits(int ordinal) {
+    return rules.getRequiredByBits(ordinal);
+  }
+
+  /**
+   * Retourne le numéro de version des règles. Il change à chaque publication
+   * de nouvelles règles, ce qui permet aux configurations d'invalider les
+   * compteurs qu'elles maintiennent.
+   * 
+   * @return le numéro de version courant
+   */
+  public long getVersion() {
+    return rules.getVersion();
+  }
+
+  /**
+   * Vérifie qu'une sélection, donnée sous forme d'ensemble de bits d'ordinaux,
+   * ne contient aucune incompatibilité et satisfait toutes ses exigences.
+   * 
+   * @param selection l'ensemble de bits des pièces sélectionnées
+   * @return true si la sélection est valide, false sinon
+   */
+  public boolean isValidSelection(long[] selection) {
+    return rules.isValidSelection(selection);
   }
 
   /**
@@ -39,8 +159,8 @@ public class CompatibilityManagerImpl implements CompatibilityManager {
     if (reference == null) {
       throw new IllegalArgumentException("La référence ne peut pas être null");
     }
-    return Collections.unmodifiableSet(
-        incompatibilities.getOrDefault(reference, new HashSet<>()));
+    int ordinal = index.ordinalOf(reference);
+    return new PartTypeSet(index, ordinal < 0 ? Bits.EMPTY : rules.getIncompatibilityBits(ordinal));
   }
 
   /**
@@ -55,8 +175,63 @@ public class CompatibilityManagerImpl implements CompatibilityManager {
     if (reference == null) {
       throw new IllegalArgumentException("La référence ne peut pas être null");
     }
-    return Collections.unmodifiableSet(
-        requirements.getOrDefault(reference, new HashSet<>()));
+    int ordinal = index.ordinalOf(reference);
+    return new PartTypeSet(index, ordinal < 0 ? Bits.EMPTY : rules.getRequirementBits(ordinal));
+  }
+
+  /**
+   * Retourne l'ensemble des pièces requises, directement ou transitivement,
+   * par une pièce donnée. La fermeture est mise en cache et n'est recalculée
+   * qu'après une modification des exigences qu'elle traverse.
+   * 
+   * @param reference la pièce de référence
+   * @return un ensemble non modifiable des pièces requises transitivement
+   * @throws IllegalArgumentException si la référence est null
+   */
+  public Set<PartType> getTransitiveRequirements(PartType reference) {
+    if (reference == null) {
+      throw new IllegalArgumentException("La référence ne peut pas être null");
+    }
+    int ordinal = index.ordinalOf(reference);
+    return new PartTypeSet(index, ordinal < 0 ? Bits.EMPTY : rules.getRequirementClosureBits(ordinal));
+  }
+
+  /**
+   * Retourne les cycles d'exigences : chaque ensemble regroupe des pièces qui
+   * se requièrent mutuellement, directement ou transitivement.
+   * 
+   * @return la liste des cycles d'exigences
+   */
+  public List<Set<PartType>> findRequirementCycles() {
+    RequirementGraph graph = new RequirementGraph(rules, index.size());
+    List<Set<PartType>> cycles = new ArrayList<>();
+    for (long[] members : graph.cycles()) {
+      cycles.add(new PartTypeSet(index, members));
+    }
+    return cycles;
+  }
+
+  /**
+   * Retourne les pièces qui ne peuvent figurer dans aucune configuration
+   * valide : leur fermeture d'exigences, elles comprises, contient deux pièces
+   * incompatibles.
+   * 
+   * @return un ensemble non modifiable des pièces insatisfiables
+   */
+  public Set<PartType> findUnsatisfiableParts() {
+    RuleSnapshot current = rules;
+    int size = index.size();
+    long[] unsatisfiable = Bits.EMPTY;
+    for (int o = 0; o < size; o++) {
+      long[] closure = Bits.set(Arrays.copyOf(current.getRequirementClosureBits(o), Bits.wordCount(size)), o);
+      for (int p = Bits.nextSetBit(closure, 0); p >= 0; p = Bits.nextSetBit(closure, p + 1)) {
+        if (Bits.intersects(current.getIncompatibilityBits(p), closure)) {
+          unsatisfiable = Bits.set(unsatisfiable, o);
+          break;
+        }
+      }
+    }
+    return new PartTypeSet(index, unsatisfiable);
   }
 
   /**
@@ -72,16 +247,16 @@ public class CompatibilityManagerImpl implements CompatibilityManager {
   public void addIncompatibilities(PartType reference, Set<PartType> target) {
     validateParameters(reference, target);
 
-    // Créer ou obtenir l'ensemble des incompatibilités pour la référence
-    Set<PartType> incompatibleParts = incompatibilities.computeIfAbsent(
-        reference, k -> new HashSet<>());
-    incompatibleParts.addAll(target);
-
-    // Ajouter les incompatibilités bidirectionnelles
-    for (PartType targetPart : target) {
-      Set<PartType> reverseIncompatibilities = incompatibilities.computeIfAbsent(
-          targetPart, k -> new HashSet<>());
-      reverseIncompatibilities.add(reference);
+    synchronized (writeLock) {
+      Draft edit = openDraft();
+      int ref = index.register(reference);
+      for (PartType targetPart : target) {
+        int t = index.register(targetPart);
+        // Ajouter les incompatibilités bidirectionnelles
+        edit.set(INCOMPATIBILITIES, ref, t);
+        edit.set(INCOMPATIBILITIES, t, ref);
+      }
+      closeDraft(edit);
     }
   }
 
@@ -97,13 +272,16 @@ public class CompatibilityManagerImpl implements CompatibilityManager {
     if (reference == null || target == null) {
       throw new IllegalArgumentException("Les paramètres ne peuvent pas être null");
     }
-    Set<PartType> incompatibleParts = incompatibilities.get(reference);
-    if (incompatibleParts != null) {
-      incompatibleParts.remove(target);
+    int ref = index.ordinalOf(reference);
+    int t = index.ordinalOf(target);
+    if (ref < 0 || t < 0) {
+      return;
     }
-    Set<PartType> reverseIncompatibilities = incompatibilities.get(target);
-    if (reverseIncompatibilities != null) {
-      reverseIncompatibilities.remove(reference);
+    synchronized (writeLock) {
+      Draft edit = openDraft();
+      edit.clear(INCOMPATIBILITIES, ref, t);
+      edit.clear(INCOMPATIBILITIES, t, ref);
+      closeDraft(edit);
     }
   }
 
@@ -120,9 +298,16 @@ public class CompatibilityManagerImpl implements CompatibilityManager {
   public void addRequirements(PartType reference, Set<PartType> target) {
     validateParameters(reference, target);
 
-    Set<PartType> requiredParts = requirements.computeIfAbsent(
-        reference, k -> new HashSet<>());
-    requiredParts.addAll(target);
+    synchronized (writeLock) {
+      Draft edit = openDraft();
+      int ref = index.register(reference);
+      for (PartType targetPart : target) {
+        int t = index.register(targetPart);
+        edit.set(REQUIREMENTS, ref, t);
+        edit.set(REQUIRED_BY, t, ref);
+      }
+      closeDraft(edit);
+    }
   }
 
   /**
@@ -138,9 +323,49 @@ public class CompatibilityManagerImpl implements CompatibilityManager {
       throw new IllegalArgumentException("Les paramètres ne peuvent pas être null");
     }
 
-    Set<PartType> requiredParts = requirements.get(reference);
-    if (requiredParts != null) {
-      requiredParts.remove(target);
+    int ref = index.ordinalOf(reference);
+    int t = index.ordinalOf(target);
+    if (ref >= 0 && t >= 0) {
+      synchronized (writeLock) {
+        Draft edit = openDraft();
+        edit.clear(REQUIREMENTS, ref, t);
+        edit.clear(REQUIRED_BY, t, ref);
+        closeDraft(edit);
+      }
+    }
+  }
+
+  /**
+   * Applique un lot de modifications et publie une seule nouvelle version des
+   * règles à la fin du lot.
+   * 
+   * <p>
+   * Pendant le lot, les lecteurs (y compris le thread écrivain) continuent de
+   * voir la dernière version publiée. Si le lot lève une exception, aucune de
+   * ses modifications n'est publiée. Les lots imbriqués sont fusionnés dans le
+   * lot englobant.
+   * 
+   * @param edits les modifications à appliquer à ce gestionnaire
+   * @throws IllegalArgumentException si edits est null
+   */
+  public void batch(Consumer<? super CompatibilityManager> edits) {
+    if (edits == null) {
+      throw new IllegalArgumentException("Les modifications ne peuvent pas être null");
+    }
+    synchronized (writeLock) {
+      if (draft != null) {
+        edits.accept(this);
+        return;
+      }
+      draft = new Draft(rules, index.size());
+      try {
+        edits.accept(this);
+        if (draft.modified) {
+          rules = draft.publish();
+        }
+      } finally {
+        draft = null;
+      }
     }
   }
 
@@ -163,4 +388,199 @@ public class CompatibilityManagerImpl implements CompatibilityManager {
       }
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * Ajoute en masse un lot de règles exprimées en ordinaux.
+   * 
+   * <p>
+   * Les lignes touchées sont dimensionnées une seule fois à la taille de
+   * l'index, puis les incompatibilités (dans les deux sens) et les exigences
+   * (avec leurs exigences inverses) sont appliquées en un seul parcours du lot.
+   * 
+   * @param rules le lot de règles
+   * @throws IllegalArgumentException si le lot est null ou référence un ordinal
+   *                                  inconnu de l'index
+   */
+  public void addRules(CompatibilityRules rules) {
+    if (rules == null) {
+      throw new IllegalArgumentException("Les règles ne peuvent pas être null");
+    }
+    int size = index.size();
+    for (int i = 0; i < rules.getIncompatibilityCount(); i++) {
+      checkOrdinal(rules.getIncompatibilityReference(i), size);
+      checkOrdinal(rules.getIncompatibilityTarget(i), size);
+    }
+    for (int i = 0; i < rules.getRequirementCount(); i++) {
+      checkOrdinal(rules.getRequirementReference(i), size);
+      checkOrdinal(rules.getRequirementTarget(i), size);
+    }
+    synchronized (writeLock) {
+      Draft edit = openDraft();
+      for (int i = 0; i < rules.getIncompatibilityCount(); i++) {
+        int ref = rules.getIncompatibilityReference(i);
+        int t = rules.getIncompatibilityTarget(i);
+        edit.set(INCOMPATIBILITIES, ref, t);
+        edit.set(INCOMPATIBILITIES, t, ref);
+      }
+      for (int i = 0; i < rules.getRequirementCount(); i++) {
+        int ref = rules.getRequirementReference(i);
+        int t = rules.getRequirementTarget(i);
+        edit.set(REQUIREMENTS, ref, t);
+        edit.set(REQUIRED_BY, t, ref);
+      }
+      closeDraft(edit);
+    }
+  }
+
+  /**
+   * Remplace toutes les règles par des lignes déjà compilées, indexées par les
+   * ordinaux de l'index de ce gestionnaire. Les exigences inverses sont
+   * recalculées. Les tableaux sont repris sans copie.
+   * 
+   * @param incompatibilityRows les incompatibilités par ordinal (symétriques)
+   * @param requirementRows     les exigences par ordinal
+   */
+  void installRules(long[][] incompatibilityRows, long[][] requirementRows) {
+    int capacity = Math.max(index.size(), Math.max(incompatibilityRows.length, requirementRows.length));
+    long[][] incompatibilities = Arrays.copyOf(incompatibilityRows, capacity);
+    long[][] requirements = Arrays.copyOf(requirementRows, capacity);
+    long[][] requiredBy = new long[capacity][];
+    for (int ref = 0; ref < requirements.length; ref++) {
+      long[] targets = RuleSnapshot.row(requirements, ref);
+      for (int t = Bits.nextSetBit(targets, 0); t >= 0; t = Bits.nextSetBit(targets, t + 1)) {
+        requiredBy[t] = Bits.set(RuleSnapshot.row(requiredBy, t), ref);
+      }
+    }
+    synchronized (writeLock) {
+      rules = new RuleSnapshot(rules.getVersion() + 1, incompatibilities, requirements, requiredBy);
+    }
+  }
+
+  /**
+   * Retourne le brouillon du lot en cours, ou un brouillon propre à une seule
+   * modification. Doit être appelé sous le verrou des écrivains.
+   * 
+   * @return le brouillon à modifier
+   */
+  private Draft openDraft() {
+    if (draft != null) {
+      draft.ensureCapacity(index.size());
+      return draft;
+    }
+    return new Draft(rules, index.size());
+  }
+
+  /**
+   * Publie un brouillon ouvert par {@link #openDraft()}, sauf s'il appartient
+   * à un lot en cours. Doit être appelé sous le verrou des écrivains.
+   * 
+   * @param edit le brouillon modifié
+   */
+  private void closeDraft(Draft edit) {
+    if (edit != draft && edit.modified) {
+      rules = edit.publish();
+    }
+  }
+
+  private static int checkOrdinal(int ordinal, int size) {
+    if (ordinal < 0 || ordinal >= size) {
+      throw new IllegalArgumentException("Ordinal inconnu : " + ordinal);
+    }
+    return ordinal;
+  }
+
+  /**
+   * Brouillon copie-sur-écriture d'une version des règles.
+   * 
+   * <p>
+   * Les tableaux de lignes sont copiés à l'ouverture, mais chaque ligne reste
+   * partagée avec la version de base jusqu'à sa première modification : seule
+   * une ligne touchée est alors copiée.
+   */
+  private static final class Draft {
+    private final RuleSnapshot base;
+    /** Lignes de la version de base, par famille de règles */
+    private final long[][][] baseRows;
+    /** Lignes du brouillon, par famille de règles */
+    private final long[][][] rows;
+    private boolean modified;
+    /** Ordinaux dont les exigences directes ont changé */
+    private long[] touchedRequirements;
+
+    Draft(RuleSnapshot base, int size) {
+      this.base = base;
+      this.baseRows = new long[][][] { base.incompatibilityRows(), base.requirementRows(), base.requiredByRows() };
+      this.rows = new long[FAMILIES][][];
+      this.touchedRequirements = Bits.EMPTY;
+      int capacity = Math.max(size, base.capacity());
+      for (int family = 0; family < FAMILIES; family++) {
+        rows[family] = Arrays.copyOf(baseRows[family], capacity);
+      }
+    }
+
+    /**
+     * Agrandit les tableaux de lignes si l'index a grossi pendant le lot.
+     */
+    void ensureCapacity(int size) {
+      if (size > rows[0].length) {
+        int capacity = Math.max(size, rows[0].length * 2);
+        for (int family = 0; family < FAMILIES; family++) {
+          rows[family] = Arrays.copyOf(rows[family], capacity);
+        }
+      }
+    }
+
+    void set(int family, int ordinal, int bit) {
+      // Une règle déjà présente ne doit pas publier de nouvelle version
+      if (Bits.get(RuleSnapshot.row(rows[family], ordinal), bit)) {
+        return;
+      }
+      ensureCapacity(Math.max(ordinal, bit) + 1);
+      long[] bits = rows[family][ordinal];
+      int words = Bits.wordCount(bit + 1);
+      if (bits == null || isShared(family, ordinal, bits) || bits.length < words) {
+        bits = bits == null ? new long[words] : Arrays.copyOf(bits, Math.max(bits.length, words));
+        rows[family][ordinal] = bits;
+      }
+      bits[bit >>> 6] |= 1L << bit;
+      touch(family, ordinal);
+    }
+
+    void clear(int family, int ordinal, int bit) {
+      long[] bits = RuleSnapshot.row(rows[family], ordinal);
+      if (!Bits.get(bits, bit)) {
+        return;
+      }
+      if (isShared(family, ordinal, bits)) {
+        bits = bits.clone();
+        rows[family][ordinal] = bits;
+      }
+      Bits.clear(bits, bit);
+      touch(family, ordinal);
+    }
+
+    /**
+     * Publie le brouillon. Les fermetures d'exigences déjà calculées sont
+     * reprises, sauf celles des pièces dont les exigences ont pu changer.
+     */
+    RuleSnapshot publish() {
+      return new RuleSnapshot(base.getVersion() + 1, rows[INCOMPATIBILITIES], rows[REQUIREMENTS],
+          rows[REQUIRED_BY], base.carryClosures(rows[0].length, touchedRequirements, rows[REQUIRED_BY]));
+    }
+
+    private void touch(int family, int ordinal) {
+      modified = true;
+      if (family == REQUIREMENTS) {
+        touchedRequirements = Bits.set(touchedRequirements, ordinal);
+      }
+    }
+
+    /**
+     * Indique si une ligne est encore partagée avec la version de base, et
+     * doit donc être copiée avant d'être modifiée.
+     */
+    private boolean isShared(int family, int ordinal, long[] bits) {
+      return ordinal < baseRows[family].length && baseRows[family][ordinal] == bits;
+    }
+  }
+}
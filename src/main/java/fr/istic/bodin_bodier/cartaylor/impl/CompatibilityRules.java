@@ -0,0 +1,111 @@
+package fr.istic.bodin_bodier.cartaylor.impl;
+
+import java.util.Arrays;
+
+/**
+ * Lot de règles de compatibilité exprimées en ordinaux de types de pièces.
+ *
+ * <p>
+ * Les règles sont stockées sous forme de couples (référence, cible) aplatis
+ * dans des tableaux d'entiers, afin de pouvoir être chargées en masse par
+ * {@link CompatibilityManagerImpl#addRules(CompatibilityRules)} sans passer
+ * par des ensembles de types de pièces.
+ */
+public class CompatibilityRules {
+  private int[] incompatibilities;
+  private int incompatibilityCount;
+  private int[] requirements;
+  private int requirementCount;
+
+  public CompatibilityRules() {
+    this.incompatibilities = new int[16];
+    this.requirements = new int[16];
+  }
+
+  /**
+   * Ajoute une incompatibilité (symétrique) entre deux ordinaux.
+   *
+   * @param reference l'ordinal de la pièce de référence
+   * @param target    l'ordinal de la pièce incompatible
+   */
+  public void addIncompatibility(int reference, int target) {
+    incompatibilities = append(incompatibilities, incompatibilityCount++, reference, target);
+  }
+
+  /**
+   * Ajoute une exigence entre deux ordinaux.
+   *
+   * @param reference l'ordinal de la pièce de référence
+   * @param target    l'ordinal de la pièce requise
+   */
+  public void addRequirement(int reference, int target) {
+    requirements = append(requirements, requirementCount++, reference, target);
+  }
+
+  /**
+   * Retourne le nombre d'incompatibilités du lot.
+   *
+   * @return le nombre de couples d'incompatibilité
+   */
+  public int getIncompatibilityCount() {
+    return incompatibilityCount;
+  }
+
+  /**
+   * Retourne le nombre d'exigences du lot.
+   *
+   * @return le nombre de couples d'exigence
+   */
+  public int getRequirementCount() {
+    return requirementCount;
+  }
+
+  /**
+   * Retourne l'ordinal de référence de la i-ème incompatibilité.
+   *
+   * @param i l'indice de la règle
+   * @return l'ordinal de référence
+   */
+  public int getIncompatibilityReference(int i) {
+    return incompatibilities[2 * i];
+  }
+
+  /**
+   * Retourne l'ordinal cible de la i-ème incompatibilité.
+   *
+   * @param i l'indice de la règle
+   * @return l'ordinal cible
+   */
+  public int getIncompatibilityTarget(int i) {
+    return incompatibilities[2 * i + 1];
+  }
+
+  /**
+   * Retourne l'ordinal de référence de la i-ème exigence.
+   *
+   * @param i l'indice de la règle
+   * @return l'ordinal de référence
+   */
+  public int getRequirementReference(int i) {
+    return requirements[2 * i];
+  }
+
+  /**
+   * Retourne l'ordinal cible de la i-ème exigence.
+   *
+   * @param i l'indice de la règle
+   * @return l'ordinal cible
+   */
+  public int getRequirementTarget(int i) {
+    return requirements[2 * i + 1];
+  }
+
+  private static int[] append(int[] pairs, int count, int reference, int target) {
+    if (2 * count + 2 > pairs.length) {
+      pairs = Arrays.copyOf(pairs, pairs.length * 2);
+    }
+    pairs[2 * count] = reference;
+    pairs[2 * count + 1] = target;
+    return pairs;
+  }
+}
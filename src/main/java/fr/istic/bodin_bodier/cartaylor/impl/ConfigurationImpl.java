@@ -1,6 +1,7 @@
 package fr.istic.bodin_bodier.cartaylor.impl;
 
 import fr.istic.bodin_bodier.cartaylor.api.*;
+import fr.istic.bodin_bodier.cartaylor.impl.render.HtmlRenderer;
 
 import java.util.*;
 
@@ -12,18 +13,91 @@ import java.util.*;
  * Cette classe vérifie la validité et l'exhaustivité de la configuration
  * en fonction des règles de compatibilité et des exigences.
  * 
+ * <p>
+ * La sélection est rangée dans un tableau indexé par l'ordinal de la
+ * catégorie (voir {@link CategoryIndex}) : les catégories à remplir occupent
+ * les premiers ordinaux, et une catégorie étrangère au configurateur reçoit un
+ * ordinal au-delà à sa première sélection.
+ * 
  * @see Configuration
  */
 public class ConfigurationImpl implements Configuration {
-  private final Map<Category, PartType> selections;
+  /** Pièce sélectionnée par ordinal de catégorie, null si aucune */
+  private PartType[] selections;
   private final Configurator configurator;
+  /** Index des catégories */
+  private final CategoryIndex categoryIndex;
+  /**
+   * Nombre de catégories devant recevoir une sélection pour que la
+   * configuration soit complète ; ce sont les premiers ordinaux de l'index
+   */
+  private final int requiredCategories;
+  /** Nombre de catégories à remplir ayant une sélection */
+  private int filledCategories;
+  /** Nombre total de catégories ayant une sélection */
+  private int selectedCount;
+
+  /** Sélection courante sous forme d'ensemble de bits d'ordinaux */
+  private long[] selection;
+  /** Nombre de couples (pièce, pièce incompatible) présents dans la sélection */
+  private int conflicts;
+  /** Nombre d'exigences des pièces sélectionnées non satisfaites */
+  private int unmetRequirements;
+  /** Index des ordinaux du gestionnaire suivi */
+  private PartTypeIndex trackedIndex;
+  /** Version des règles pour laquelle les compteurs ont été calculés */
+  private RuleSnapshot trackedRules;
 
+  /** Prix total des pièces sélectionnées */
+  private int totalPrice;
+  /** Numéro de modification, incrémenté à chaque changement de sélection */
+  private long modifications;
+  /** Dernière description HTML d'une configuration valide et complète */
+  private String cachedHtml;
+  /** Numéro de modification pour lequel {@link #cachedHtml} a été produite */
+  private long cachedHtmlModification;
+
+  /**
+   * Constructeur de la classe ConfigurationImpl.
+   * 
+   * <p>
+   * Les catégories du configurateur sont lues une fois pour toutes à la
+   * construction.
+   * 
+   * @param configurator le configurateur auquel appartient la configuration
+   * @throws IllegalArgumentException si le configurateur est null
+   */
   public ConfigurationImpl(Configurator configurator) {
+    this(configurator, configurator == null ? null : new CategoryIndex(configurator.getCategories()),
+        configurator == null ? 0 : configurator.getCategories().size());
+  }
+
+  /**
+   * Constructeur partageant l'index des catégories entre toutes les
+   * configurations d'un même configurateur.
+   * 
+   * @param configurator       le configurateur auquel appartient la
+   *                           configuration
+   * @param categoryIndex      l'index des catégories
+   * @param requiredCategories le nombre de catégories à remplir, qui occupent
+   *                           les premiers ordinaux de l'index
+   * @throws IllegalArgumentException si le configurateur est null
+   */
+  ConfigurationImpl(Configurator configurator, CategoryIndex categoryIndex, int requiredCategories) {
     if (configurator == null) {
       throw new IllegalArgumentException("Le configurateur ne peut pas être null");
     }
-    this.selections = new HashMap<>();
+    this.selections = new PartType[requiredCategories];
     this.configurator = configurator;
+    this.categoryIndex = categoryIndex;
+    this.requiredCategories = requiredCategories;
+    this.filledCategories = 0;
+    this.selectedCount = 0;
+    this.selection = Bits.EMPTY;
+    this.trackedRules = null;
+    this.totalPrice = 0;
+    this.modifications = 0;
+    this.cachedHtml = null;
   }
 
   /**
@@ -40,27 +114,64 @@ public class ConfigurationImpl implements Configuration {
    * Vérifie si la configuration actuelle est valide en respectant
    * les règles de compatibilité et les exigences.
    * 
+   * <p>
+   * Lorsque les règles sont gérées par un {@link CompatibilityManagerImpl},
+   * la réponse est lue dans les compteurs de conflits et d'exigences non
+   * satisfaites maintenus à chaque modification de la sélection. Les règles
+   * sont lues dans la dernière version publiée par le gestionnaire, sans
+   * verrou.
+   * 
    * @return true si la configuration est valide, false sinon
    */
   @Override
   public boolean isValid() {
-    for (PartType selectedPart : getSelectedParts()) {
+    CompatibilityChecker checker = configurator.getCompatibilityChecker();
+    if (checker instanceof CompatibilityManagerImpl) {
+      track((CompatibilityManagerImpl) checker);
+      return conflicts == 0 && unmetRequirements == 0;
+    }
+    Set<PartType> selectedParts = getSelectedParts();
+    for (PartType selectedPart : selectedParts) {
       // Vérifier les incompatibilités
-      Set<PartType> incompatibilities = configurator.getCompatibilityChecker().getIncompatibilities(selectedPart);
-      if (Collections.disjoint(incompatibilities, getSelectedParts())) {
-        continue;
+      Set<PartType> incompatibilities = checker.getIncompatibilities(selectedPart);
+      if (!Collections.disjoint(incompatibilities, selectedParts)) {
+        return false;
       }
-      return false;
     }
-    for (PartType selectedPart : getSelectedParts()) {
-      Set<PartType> requirements = configurator.getCompatibilityChecker().getRequirements(selectedPart);
-      if (!getSelectedParts().containsAll(requirements)) {
+    for (PartType selectedPart : selectedParts) {
+      Set<PartType> requirements = checker.getRequirements(selectedPart);
+      if (!selectedParts.containsAll(requirements)) {
         return false;
       }
     }
     return true;
   }
 
+  /**
+   * Valide la configuration actuelle et rapporte toutes les règles violées.
+   * 
+   * <p>
+   * Lorsque les règles sont gérées par un {@link CompatibilityManagerImpl},
+   * une configuration valide est reconnue par ses compteurs sans aucun
+   * parcours ; sinon, les violations sont relevées en un seul passage sur
+   * l'ensemble de bits de la sélection, contre la même version des règles
+   * que les compteurs.
+   * 
+   * @return le verdict de validation
+   */
+  @Override
+  public ValidationResult validate() {
+    CompatibilityChecker checker = configurator.getCompatibilityChecker();
+    if (checker instanceof CompatibilityManagerImpl) {
+      track((CompatibilityManagerImpl) checker);
+      if (conflicts == 0 && unmetRequirements == 0) {
+        return ValidationResultImpl.VALID;
+      }
+      return trackedRules.validate(selection, trackedIndex);
+    }
+    return ValidationResultImpl.of(checker, getSelectedParts());
+  }
+
   /**
    * Vérifie si toutes les catégories ont une pièce sélectionnée.
    * 
@@ -68,12 +179,7 @@ public class ConfigurationImpl implements Configuration {
    */
   @Override
   public boolean isComplete() {
-    for (Category category : configurator.getCategories()) {
-      if (!selections.containsKey(category) || selections.get(category) == null) {
-        return false;
-      }
-    }
-    return true;
+    return filledCategories == requiredCategories;
   }
 
   /**
@@ -83,7 +189,13 @@ public class ConfigurationImpl implements Configuration {
    */
   @Override
   public Set<PartType> getSelectedParts() {
-    return new HashSet<>(selections.values());
+    Set<PartType> parts = new HashSet<>(selectedCount * 2);
+    for (PartType part : selections) {
+      if (part != null) {
+        parts.add(part);
+      }
+    }
+    return parts;
   }
 
   /**
@@ -97,7 +209,26 @@ public class ConfigurationImpl implements Configuration {
     if (chosenPart == null) {
       throw new IllegalArgumentException("La pièce choisie ne peut pas être null");
     }
-    selections.put(chosenPart.getCategory(), chosenPart);
+    int ordinal = categoryIndex.register(chosenPart.getCategory());
+    if (ordinal >= selections.length) {
+      selections = Arrays.copyOf(selections, Math.max(ordinal + 1, 2 * selections.length));
+    }
+    PartType previous = selections[ordinal];
+    selections[ordinal] = chosenPart;
+    if (previous == null) {
+      selectedCount++;
+      if (ordinal < requiredCategories) {
+        filledCategories++;
+      }
+    }
+    totalPrice += chosenPart.getPrice() - (previous == null ? 0 : previous.getPrice());
+    modifications++;
+    if (trackedRules != null) {
+      if (previous != null) {
+        untrackPart(previous);
+      }
+      trackPart(chosenPart);
+    }
   }
 
   /**
@@ -111,7 +242,8 @@ public class ConfigurationImpl implements Configuration {
     if (category == null) {
       throw new IllegalArgumentException("La catégorie ne peut pas être null");
     }
-    return selections.get(category);
+    int ordinal = categoryIndex.ordinalOf(category);
+    return ordinal < 0 || ordinal >= selections.length ? null : selections[ordinal];
   }
 
   /**
@@ -125,7 +257,21 @@ public class ConfigurationImpl implements Configuration {
     if (categoryToClear == null) {
       throw new IllegalArgumentException("La catégorie ne peut pas être null");
     }
-    selections.remove(categoryToClear);
+    int ordinal = categoryIndex.ordinalOf(categoryToClear);
+    PartType previous = ordinal < 0 || ordinal >= selections.length ? null : selections[ordinal];
+    if (previous == null) {
+      return;
+    }
+    selections[ordinal] = null;
+    selectedCount--;
+    if (ordinal < requiredCategories) {
+      filledCategories--;
+    }
+    totalPrice -= previous.getPrice();
+    modifications++;
+    if (trackedRules != null) {
+      untrackPart(previous);
+    }
   }
 
   /**
@@ -133,54 +279,130 @@ public class ConfigurationImpl implements Configuration {
    */
   @Override
   public void clear() {
-    selections.clear();
+    Arrays.fill(selections, null);
+    filledCategories = 0;
+    selectedCount = 0;
+    selection = Bits.EMPTY;
+    conflicts = 0;
+    unmetRequirements = 0;
+    totalPrice = 0;
+    modifications++;
   }
 
-  @Override
+  /**
+   * Met les compteurs à jour pour un gestionnaire donné. Entre deux appels,
+   * ils sont maintenus pour la version des règles suivie ; ils ne sont
+   * recalculés entièrement que si le gestionnaire a publié une autre version
+   * depuis.
+   * 
+   * @param manager le gestionnaire de compatibilité
+   */
+  private void track(CompatibilityManagerImpl manager) {
+    RuleSnapshot rules = manager.getRules();
+    if (trackedRules == rules && trackedIndex == manager.getPartTypeIndex()) {
+      return;
+    }
+    trackedIndex = manager.getPartTypeIndex();
+    trackedRules = rules;
+    selection = Bits.EMPTY;
+    conflicts = 0;
+    unmetRequirements = 0;
+    for (PartType part : selections) {
+      if (part != null) {
+        trackPart(part);
+      }
+    }
+  }
+
+  /**
+   * Ajoute une pièce à la sélection suivie et met à jour les compteurs.
+   * Les incompatibilités étant symétriques, chaque conflit avec une pièce
+   * déjà sélectionnée est compté dans les deux sens.
+   * 
+   * @param part la pièce ajoutée
+   */
+  private void trackPart(PartType part) {
+    int ordinal = trackedIndex.ordinalOf(part);
+    // Une pièce absente de l'index n'est concernée par aucune règle
+    if (ordinal < 0) {
+      return;
+    }
+    long[] incompatibilities = trackedRules.getIncompatibilityBits(ordinal);
+    conflicts += 2 * Bits.cardinalityAnd(incompatibilities, selection);
+    selection = Bits.set(selection, ordinal);
+    if (Bits.get(incompatibilities, ordinal)) {
+      conflicts++;
+    }
+    unmetRequirements += Bits.cardinalityAndNot(trackedRules.getRequirementBits(ordinal), selection);
+    unmetRequirements -= Bits.cardinalityAnd(trackedRules.getRequiredByBits(ordinal), selection)
+        - (Bits.get(trackedRules.getRequiredByBits(ordinal), ordinal) ? 1 : 0);
+  }
+
+  /**
+   * Retire une pièce de la sélection suivie et met à jour les compteurs.
+   * 
+   * @param part la pièce retirée
+   */
+  private void untrackPart(PartType part) {
+    int ordinal = trackedIndex.ordinalOf(part);
+    if (ordinal < 0) {
+      return;
+    }
+    long[] incompatibilities = trackedRules.getIncompatibilityBits(ordinal);
+    unmetRequirements -= Bits.cardinalityAndNot(trackedRules.getRequirementBits(ordinal), selection);
+    if (Bits.get(incompatibilities, ordinal)) {
+      conflicts--;
+    }
+    Bits.clear(selection, ordinal);
+    conflicts -= 2 * Bits.cardinalityAnd(incompatibilities, selection);
+    unmetRequirements += Bits.cardinalityAnd(trackedRules.getRequiredByBits(ordinal), selection);
+  }
 
   /**
    * Génère une description HTML de la configuration actuelle.
    * 
+   * <p>
+   * La description d'une configuration valide et complète ne dépend que des
+   * sélections : elle est conservée jusqu'à la prochaine modification de la
+   * sélection. La validité est vérifiée à chaque appel, les règles pouvant
+   * changer entre-temps.
+   * 
    * @return une chaîne HTML décrivant la configuration si elle est valide et
    *         complète,
    *         ou un message d'erreur si la configuration n'est pas valide ou
    *         incomplète
    */
+  @Override
   public String getHtmlDescription() {
     if (!isValid() || !isComplete()) {
       return "<p style='color: red'>La configuration n'est pas valide ou est incomplète.</p>";
     }
-
-    StringBuilder html = new StringBuilder();
-    html.append("<div class='configuration'>");
-    html.append("<h3>Configuration de la voiture</h3>");
-    html.append("<ul>");
-
-    // Trier les catégories pour une présentation cohérente
-    List<Category> categories = new ArrayList<>(configurator.getCategories());
-    Collections.sort(categories, Comparator.comparing(Category::getName));
-
-    for (Category category : categories) {
-      PartType part = getSelectionForCategory(category);
-      html.append(String.format("<li><strong>%s:</strong> %s<br>Prix: %d €</li>",
-          category.getName(),
-          part.getName(),
-          part.getPrice()));
+    if (cachedHtml == null || cachedHtmlModification != modifications) {
+      cachedHtml = renderHtml();
+      cachedHtmlModification = modifications;
     }
-    html.append("<li>Prix total: " + getTotalPrice() + " €</li>");
-    html.append("</ul>");
-    html.append("</div>");
+    return cachedHtml;
+  }
 
+  /**
+   * Produit la description HTML d'une configuration complète.
+   * 
+   * @return la description HTML
+   */
+  private String renderHtml() {
+    StringBuilder html = new StringBuilder(128 + 64 * selectedCount);
+    new HtmlRenderer(html).visit(this);
     return html.toString();
   }
 
   /**
-   * Retourne le prix total de la configuration.
+   * Retourne le prix total de la configuration, maintenu à chaque
+   * modification de la sélection.
    * 
    * @return le prix total de la configuration
    */
   @Override
   public int getTotalPrice() {
-    return getSelectedParts().stream().mapToInt(PartType::getPrice).sum();
+    return totalPrice;
   }
 }
@@ -1,9 +1,11 @@
 package fr.istic.bodin_bodier.cartaylor.impl;
 
 import fr.istic.bodin_bodier.cartaylor.api.*;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
 import fr.istic.bodin_bodier.cartaylor.api.Catalog;
 
 /**
@@ -15,6 +17,12 @@ import fr.istic.bodin_bodier.cartaylor.api.Catalog;
  * Cette classe initialise le catalogue de pièces et gère les
  * interactions avec le gestionnaire de compatibilité.
  * 
+ * <p>
+ * Un même configurateur peut servir plusieurs sessions : chaque appel à
+ * {@link #newConfiguration()} crée une configuration légère qui partage le
+ * catalogue, les règles et l'index des catégories à remplir, qui y occupent
+ * les premiers ordinaux.
+ * 
  * @see Configurator
  */
 public class ConfiguratorImpl implements Configurator {
@@ -22,6 +30,10 @@ public class ConfiguratorImpl implements Configurator {
   private final CompatibilityManager compatibilityManager;
   private final Configuration configuration;
   private final Visitor description;
+  /** Index des catégories, partagé par toutes les configurations */
+  private final CategoryIndex categoryIndex;
+  /** Nombre de catégories à remplir, d'ordinaux 0 à requiredCategories - 1 */
+  private final int requiredCategories;
 
   /**
    * Constructeur de la classe ConfiguratorImpl.
@@ -30,7 +42,8 @@ public class ConfiguratorImpl implements Configurator {
    * @throws RuntimeException si le fichier de ressources ne peut pas être chargé
    */
   public ConfiguratorImpl(String resourcePath) {
-    this.catalogue = new CatalogImpl();
+    CatalogImpl catalogImpl = new CatalogImpl();
+    this.catalogue = catalogImpl;
     this.description = new PrintDescriptionVisitor(System.out);
     try {
       // Charger le catalogue depuis les ressources
@@ -44,8 +57,70 @@ public class ConfiguratorImpl implements Configurator {
       throw new RuntimeException("Erreur lors du chargement du catalogue", e);
     }
 
-    this.compatibilityManager = new CompatibilityManagerImpl();
-    this.configuration = new ConfigurationImpl(this);
+    CompatibilityManagerImpl manager = new CompatibilityManagerImpl(catalogImpl.getPartTypeIndex());
+    manager.addRules(catalogImpl.getCompatibilityRules());
+    this.compatibilityManager = manager;
+    this.categoryIndex = categoryIndexOf(catalogue);
+    this.requiredCategories = catalogue.getCategories().size();
+    this.configuration = newConfiguration();
+  }
+
+  /**
+   * Constructeur à partir d'un catalogue déjà chargé et d'un gestionnaire de
+   * compatibilité.
+   * 
+   * @param catalogue            le catalogue chargé
+   * @param compatibilityManager le gestionnaire de compatibilité
+   * @throws IllegalArgumentException si un des paramètres est null
+   */
+  public ConfiguratorImpl(Catalog catalogue, CompatibilityManager compatibilityManager) {
+    if (catalogue == null || compatibilityManager == null) {
+      throw new IllegalArgumentException("Les paramètres ne peuvent pas être null");
+    }
+    this.catalogue = catalogue;
+    this.description = new PrintDescriptionVisitor(System.out);
+    this.compatibilityManager = compatibilityManager;
+    this.categoryIndex = categoryIndexOf(catalogue);
+    this.requiredCategories = catalogue.getCategories().size();
+    this.configuration = newConfiguration();
+  }
+
+  /**
+   * Retourne un index dans lequel les catégories du catalogue occupent les
+   * premiers ordinaux : celui du catalogue s'il convient, un nouvel index
+   * sinon.
+   * 
+   * @param catalogue le catalogue
+   * @return l'index des catégories
+   */
+  private static CategoryIndex categoryIndexOf(Catalog catalogue) {
+    Set<Category> categories = catalogue.getCategories();
+    if (catalogue instanceof CatalogImpl) {
+      CategoryIndex index = ((CatalogImpl) catalogue).getCategoryIndex();
+      boolean leading = true;
+      for (Category category : categories) {
+        int ordinal = index.ordinalOf(category);
+        leading &= ordinal >= 0 && ordinal < categories.size();
+      }
+      if (leading) {
+        return index;
+      }
+    }
+    return new CategoryIndex(categories);
+  }
+
+  /**
+   * Crée un configurateur à partir d'un instantané binaire du catalogue, sans
+   * analyse JSON.
+   * 
+   * @param snapshotPath le fichier instantané produit par
+   *                     {@link CatalogSnapshot#write}
+   * @return le configurateur
+   * @throws IOException si l'instantané ne peut pas être relu
+   */
+  public static ConfiguratorImpl fromSnapshot(Path snapshotPath) throws IOException {
+    CatalogSnapshot snapshot = CatalogSnapshot.load(snapshotPath);
+    return new ConfiguratorImpl(snapshot.getCatalog(), snapshot.getCompatibilityManager());
   }
 
   /**
@@ -72,7 +147,7 @@ public class ConfiguratorImpl implements Configurator {
    * Retourne les variantes de types de pièces pour une catégorie donnée.
    * 
    * @param category la catégorie pour laquelle obtenir les variantes
-   * @return un ensemble de types de pièces pour la catégorie
+   * @return une vue non modifiable des types de pièces de la catégorie
    * @throws IllegalArgumentException si la catégorie est null
    */
   @Override
@@ -80,9 +155,19 @@ public class ConfiguratorImpl implements Configurator {
     if (category == null) {
       throw new IllegalArgumentException("La catégorie ne peut pas être null");
     }
-    return catalogue.getPartTypes().stream()
-        .filter(partType -> partType.getCategory().equals(category))
-        .collect(Collectors.toSet());
+    return catalogue.getPartTypesForCategory(category);
+  }
+
+  /**
+   * Recherche un type de pièce du catalogue par son nom.
+   * 
+   * @param name le nom du type de pièce
+   * @return le type de pièce, ou Optional.empty() s'il n'existe pas
+   * @throws IllegalArgumentException si le nom est null
+   */
+  @Override
+  public Optional<PartType> findPartType(String name) {
+    return catalogue.findPartType(name);
   }
 
   /**
@@ -95,6 +180,17 @@ public class ConfiguratorImpl implements Configurator {
     return configuration;
   }
 
+  /**
+   * Crée une nouvelle configuration vide, qui partage le catalogue et les
+   * règles de ce configurateur.
+   * 
+   * @return une nouvelle configuration
+   */
+  @Override
+  public Configuration newConfiguration() {
+    return new ConfigurationImpl(this, categoryIndex, requiredCategories);
+  }
+
   /**
    * Retourne le gestionnaire de compatibilité utilisé pour vérifier
    * les règles de compatibilité entre les pièces.
@@ -5,7 +5,6 @@ import fr.istic.bodin_bodier.cartaylor.api.PartType;
 import java.util.logging.Logger;
 import java.util.logging.Level;
 import java.lang.reflect.Constructor;
-import java.util.Objects;
 import fr.istic.bodin_bodier.cartaylor.api.Visitor;
 
 /**
@@ -15,17 +14,30 @@ import fr.istic.bodin_bodier.cartaylor.api.Visitor;
  * <p>
  * Cette classe associe un nom unique à une catégorie et garantit
  * l'intégrité des données en vérifiant la validité des paramètres.
+ * 
+ * <p>
+ * Chaque type de pièce porte un identifiant stable (référence catalogue) : deux
+ * instances de même identifiant sont égales, même si leur prix diffère, de
+ * sorte qu'une mise à jour de prix ne rompt pas les règles enregistrées pour
+ * l'ancienne instance. Le code de hachage est calculé une fois à la
+ * construction.
  *
  * @see PartType
  */
 public class PartTypeImpl implements PartType {
+  private final String id;
+  private final int hash;
   private final String name;
   private final int price;
   private Class<? extends PartImpl> classRef;
   private final Category category;
+  /** Index ayant attribué l'ordinal mémorisé, voir {@link PartTypeIndex} */
+  volatile PartTypeIndex ordinalOwner;
+  int ordinal;
 
   /**
-   * Constructeur de la classe PartTypeImpl.
+   * Constructeur de la classe PartTypeImpl. L'identifiant est formé du nom de
+   * la catégorie et du nom de la pièce.
    * 
    * @param name     le nom du type de pièce
    * @param category la catégorie à laquelle appartient la pièce
@@ -33,6 +45,19 @@ public class PartTypeImpl implements PartType {
    *                                  catégorie est null
    */
   public PartTypeImpl(String name, Category category, Class<? extends PartImpl> classRef, int price) {
+    this(category == null ? null : defaultId(category, name), name, category, classRef, price);
+  }
+
+  /**
+   * Constructeur de la classe PartTypeImpl avec un identifiant explicite.
+   * 
+   * @param id       l'identifiant stable du type de pièce
+   * @param name     le nom du type de pièce
+   * @param category la catégorie à laquelle appartient la pièce
+   * @throws IllegalArgumentException si l'identifiant ou le nom est null ou
+   *                                  vide, ou si la catégorie est null
+   */
+  public PartTypeImpl(String id, String name, Category category, Class<? extends PartImpl> classRef, int price) {
     if (name == null || name.trim().isEmpty()) {
       throw new IllegalArgumentException("Le nom de la pièce ne peut pas être null ou vide");
     }
@@ -42,17 +67,43 @@ public class PartTypeImpl implements PartType {
     if (price < 0) {
       throw new IllegalArgumentException("Le prix ne peut pas être négatif");
     }
+    if (id == null || id.isEmpty()) {
+      throw new IllegalArgumentException("L'identifiant de la pièce ne peut pas être null ou vide");
+    }
+    this.id = id;
+    this.hash = id.hashCode();
     this.name = name;
     this.category = category;
     this.classRef = classRef;
     this.price = price;
   }
 
+  /**
+   * Retourne l'identifiant par défaut d'un type de pièce.
+   * 
+   * @param category la catégorie
+   * @param name     le nom du type de pièce
+   * @return l'identifiant « catégorie/nom »
+   */
+  static String defaultId(Category category, String name) {
+    return category.getName() + "/" + name;
+  }
+
   @Override
   public void accept(Visitor visitor) {
     visitor.visit(this);
   }
 
+  /**
+   * Retourne l'identifiant stable du type de pièce.
+   * 
+   * @return l'identifiant
+   */
+  @Override
+  public String getId() {
+    return this.id;
+  }
+
   /**
    * Retourne le nom du type de pièce.
    * 
@@ -75,8 +126,8 @@ public class PartTypeImpl implements PartType {
 
   /**
    * Compare ce type de pièce avec un autre objet pour vérifier l'égalité.
-   * Deux types de pièces sont considérés égaux s'ils ont le même nom et la même
-   * catégorie.
+   * Deux types de pièces sont considérés égaux s'ils sont identiques ou s'ils
+   * ont le même identifiant.
    * 
    * @param o l'objet à comparer
    * @return true si les types de pièces sont identiques, false sinon
@@ -85,22 +136,21 @@ public class PartTypeImpl implements PartType {
   public boolean equals(Object o) {
     if (this == o)
       return true;
-    if (o == null || getClass() != o.getClass())
+    if (!(o instanceof PartTypeImpl))
       return false;
     PartTypeImpl that = (PartTypeImpl) o;
-    return price == that.price &&
-        Objects.equals(name, that.name) &&
-        Objects.equals(category, that.category);
+    return hash == that.hash && id.equals(that.id);
   }
 
   /**
-   * Retourne le code de hachage de ce type de pièce.
+   * Retourne le code de hachage de ce type de pièce, calculé à partir de son
+   * identifiant.
    * 
    * @return le code de hachage de la pièce
    */
   @Override
   public int hashCode() {
-    return Objects.hash(name, category, price);
+    return hash;
   }
 
   /**
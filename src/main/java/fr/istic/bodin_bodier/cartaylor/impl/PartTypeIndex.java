@@ -0,0 +1,159 @@
+package fr.istic.bodin_bodier.cartaylor.impl;
+
+import fr.istic.bodin_bodier.cartaylor.api.PartType;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index attribuant à chaque type de pièce un ordinal dense (0, 1, 2, ...).
+ *
+ * <p>
+ * Les ordinaux permettent de représenter des ensembles de types de pièces
+ * sous forme d'ensembles de bits (voir {@link Bits}). Ils sont attribués dans
+ * l'ordre d'enregistrement, lors du chargement du catalogue, et ne changent
+ * plus ensuite.
+ *
+ * <p>
+ * Les types de pièces sont indexés par identifiant : une instance de même
+ * identifiant qu'un type enregistré, par exemple après une mise à jour de
+ * prix, reçoit le même ordinal et {@link #get(int)} retourne l'instance
+ * canonique. Seul le catalogue remplace l'instance canonique d'un ordinal,
+ * lorsqu'il recharge un type de pièce (voir {@link #replace(PartType)}).
+ * L'ordinal est en outre mémorisé dans l'instance canonique, qui est ainsi
+ * résolue sans calcul de hachage.
+ *
+ * <p>
+ * L'index peut être partagé entre threads : les lectures ne prennent aucun
+ * verrou, et un ordinal visible par {@link #ordinalOf(PartType)} est toujours
+ * résolu par {@link #get(int)}.
+ */
+public class PartTypeIndex {
+  private final Map<String, Integer> ordinals;
+  private volatile PartType[] partTypes;
+  private volatile int size;
+
+  public PartTypeIndex() {
+    this.ordinals = new ConcurrentHashMap<>();
+    this.partTypes = new PartType[16];
+    this.size = 0;
+  }
+
+  /**
+   * Enregistre un type de pièce s'il n'est pas déjà connu.
+   *
+   * @param partType le type de pièce
+   * @return l'ordinal du type de pièce
+   * @throws IllegalArgumentException si le type de pièce est null
+   */
+  public synchronized int register(PartType partType) {
+    if (partType == null) {
+      throw new IllegalArgumentException("Le type de pièce ne peut pas être null");
+    }
+    Integer known = ordinals.get(partType.getId());
+    if (known != null) {
+      return known;
+    }
+    int ordinal = size;
+    if (ordinal == partTypes.length) {
+      partTypes = Arrays.copyOf(partTypes, ordinal * 2);
+    }
+    partTypes[ordinal] = partType;
+    // La taille est publiée avant l'ordinal, pour que get() le résolve
+    size = ordinal + 1;
+    ordinals.put(partType.getId(), ordinal);
+    remember(partType, ordinal);
+    return ordinal;
+  }
+
+  /**
+   * Enregistre un type de pièce, ou remplace l'instance canonique de même
+   * identifiant en conservant son ordinal. Les anciennes instances restent
+   * résolues vers le même ordinal.
+   *
+   * @param partType le type de pièce
+   * @return l'ordinal du type de pièce
+   * @throws IllegalArgumentException si le type de pièce est null
+   */
+  synchronized int replace(PartType partType) {
+    int ordinal = register(partType);
+    if (partTypes[ordinal] != partType) {
+      // Copie publiée d'un bloc : les lecteurs voient l'ancienne ou la nouvelle
+      PartType[] copy = partTypes.clone();
+      copy[ordinal] = partType;
+      partTypes = copy;
+      remember(partType, ordinal);
+    }
+    return ordinal;
+  }
+
+  private void remember(PartType partType, int ordinal) {
+    if (partType instanceof PartTypeImpl && ((PartTypeImpl) partType).ordinalOwner == null) {
+      PartTypeImpl canonical = (PartTypeImpl) partType;
+      canonical.ordinal = ordinal;
+      // Publié après l'ordinal : un propriétaire visible garantit l'ordinal
+      canonical.ordinalOwner = this;
+    }
+  }
+
+  /**
+   * Retourne l'ordinal d'un type de pièce.
+   *
+   * @param partType le type de pièce
+   * @return l'ordinal, ou -1 si le type de pièce n'est pas enregistré
+   */
+  public int ordinalOf(PartType partType) {
+    if (partType instanceof PartTypeImpl && ((PartTypeImpl) partType).ordinalOwner == this) {
+      return ((PartTypeImpl) partType).ordinal;
+    }
+    return partType == null ? -1 : ordinalOf(partType.getId());
+  }
+
+  /**
+   * Retourne l'ordinal d'un type de pièce à partir de son identifiant.
+   *
+   * @param id l'identifiant du type de pièce
+   * @return l'ordinal, ou -1 si aucun type de pièce de cet identifiant n'est
+   *         enregistré
+   */
+  public int ordinalOf(String id) {
+    Integer ordinal = id == null ? null : ordinals.get(id);
+    return ordinal == null ? -1 : ordinal;
+  }
+
+  /**
+   * Retourne l'instance canonique d'un type de pièce, en l'enregistrant s'il
+   * n'est pas encore connu.
+   *
+   * @param partType le type de pièce
+   * @return l'instance enregistrée de même identifiant
+   * @throws IllegalArgumentException si le type de pièce est null
+   */
+  public PartType intern(PartType partType) {
+    return get(register(partType));
+  }
+
+  /**
+   * Retourne le type de pièce associé à un ordinal.
+   *
+   * @param ordinal l'ordinal
+   * @return le type de pièce correspondant
+   * @throws IndexOutOfBoundsException si l'ordinal n'est pas attribué
+   */
+  public PartType get(int ordinal) {
+    if (ordinal < 0 || ordinal >= size) {
+      throw new IndexOutOfBoundsException("Ordinal inconnu : " + ordinal);
+    }
+    return partTypes[ordinal];
+  }
+
+  /**
+   * Retourne le nombre de types de pièces enregistrés.
+   *
+   * @return le nombre d'ordinaux attribués
+   */
+  public int size() {
+    return size;
+  }
+}
@@ -0,0 +1,69 @@
+package fr.istic.bodin_bodier.cartaylor.impl;
+
+import fr.istic.bodin_bodier.cartaylor.api.PartType;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Ensemble non modifiable de types de pièces adossé à un ensemble de bits
+ * indexé par les ordinaux d'un {@link PartTypeIndex}.
+ *
+ * <p>
+ * Le tableau de bits n'est pas copié : l'appelant doit garantir qu'il ne sera
+ * plus modifié.
+ */
+class PartTypeSet extends AbstractSet<PartType> {
+  private final PartTypeIndex index;
+  private final long[] bits;
+  private final int size;
+
+  /**
+   * Constructeur de la classe PartTypeSet.
+   *
+   * @param index l'index des ordinaux
+   * @param bits  l'ensemble de bits (non copié)
+   */
+  PartTypeSet(PartTypeIndex index, long[] bits) {
+    this.index = index;
+    this.bits = bits;
+    this.size = Bits.cardinality(bits);
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    if (!(o instanceof PartType)) {
+      return false;
+    }
+    int ordinal = index.ordinalOf((PartType) o);
+    return ordinal >= 0 && Bits.get(bits, ordinal);
+  }
+
+  @Override
+  public Iterator<PartType> iterator() {
+    return new Iterator<PartType>() {
+      private int next = Bits.nextSetBit(bits, 0);
+
+      @Override
+      public boolean hasNext() {
+        return next >= 0;
+      }
+
+      @Override
+      public PartType next() {
+        if (next < 0) {
+          throw new NoSuchElementException();
+        }
+        PartType partType = index.get(next);
+        next = Bits.nextSetBit(bits, next + 1);
+        return partType;
+      }
+    };
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+}
@@ -0,0 +1,261 @@
+package fr.istic.bodin_bodier.cartaylor.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Filtre sur les propriétés des variantes d'une catégorie : conjonction de
+ * comparaisons {@code propriété opérateur valeur}, par exemple
+ * {@code power >= 110 AND fuelType = Diesel}.
+ *
+ * <p>
+ * Un filtre est immuable et indépendant de toute table : il est évalué
+ * colonne par colonne par {@link PropertyTable#select(PropertyFilter)}. Une
+ * variante qui ne porte pas une des propriétés comparées n'est jamais
+ * retenue, quel que soit l'opérateur.
+ */
+public final class PropertyFilter {
+  /** Une comparaison : propriété, opérateur, valeur */
+  private static final Pattern TERM =
+      Pattern.compile("\\s*([\\p{L}_][\\p{L}\\p{N}_.-]*)\\s*(>=|<=|!=|=|<|>)\\s*(.*?)\\s*");
+  private static final Pattern AND = Pattern.compile("\\s+AND\\b\\s*", Pattern.CASE_INSENSITIVE);
+
+  /**
+   * Opérateurs de comparaison. Seules l'égalité et la différence s'appliquent
+   * aux propriétés non numériques.
+   */
+  public enum Operator {
+    EQUAL("="),
+    NOT_EQUAL("!="),
+    LESS("<"),
+    LESS_OR_EQUAL("<="),
+    GREATER(">"),
+    GREATER_OR_EQUAL(">=");
+
+    private final String symbol;
+
+    Operator(String symbol) {
+      this.symbol = symbol;
+    }
+
+    /**
+     * Retourne le symbole de l'opérateur.
+     *
+     * @return le symbole, tel qu'accepté par {@link PropertyFilter#parse}
+     */
+    public String getSymbol() {
+      return symbol;
+    }
+
+    /**
+     * Indique si l'opérateur ne s'applique qu'aux propriétés numériques.
+     *
+     * @return true pour les opérateurs d'ordre
+     */
+    boolean isOrdering() {
+      return this != EQUAL && this != NOT_EQUAL;
+    }
+
+    /**
+     * Applique l'opérateur au résultat d'une comparaison.
+     *
+     * @param comparison le signe de {@code valeur - opérande}
+     * @return true si la comparaison satisfait l'opérateur
+     */
+    boolean test(int comparison) {
+      switch (this) {
+        case EQUAL:
+          return comparison == 0;
+        case NOT_EQUAL:
+          return comparison != 0;
+        case LESS:
+          return comparison < 0;
+        case LESS_OR_EQUAL:
+          return comparison <= 0;
+        case GREATER:
+          return comparison > 0;
+        default:
+          return comparison >= 0;
+      }
+    }
+
+    private static Operator of(String symbol) {
+      for (Operator operator : values()) {
+        if (operator.symbol.equals(symbol)) {
+          return operator;
+        }
+      }
+      throw new IllegalArgumentException("Opérateur inconnu : " + symbol);
+    }
+  }
+
+  private final String[] names;
+  private final Operator[] operators;
+  private final String[] operands;
+
+  private PropertyFilter(String[] names, Operator[] operators, String[] operands) {
+    this.names = names;
+    this.operators = operators;
+    this.operands = operands;
+  }
+
+  /**
+   * Crée un filtre réduit à une comparaison.
+   *
+   * @param name     le nom de la propriété
+   * @param operator l'opérateur
+   * @param value    la valeur comparée
+   * @return le filtre
+   * @throws IllegalArgumentException si un des paramètres est null, ou si le
+   *                                  nom est vide
+   */
+  public static PropertyFilter of(String name, Operator operator, String value) {
+    if (name == null || operator == null || value == null) {
+      throw new IllegalArgumentException("Les paramètres ne peuvent pas être null");
+    }
+    if (name.trim().isEmpty()) {
+      throw new IllegalArgumentException("Le nom de la propriété ne peut pas être vide");
+    }
+    return new PropertyFilter(new String[] { name }, new Operator[] { operator }, new String[] { value });
+  }
+
+  /**
+   * Crée un filtre d'égalité.
+   *
+   * @param name  le nom de la propriété
+   * @param value la valeur attendue
+   * @return le filtre {@code name = value}
+   * @throws IllegalArgumentException si un des paramètres est null
+   */
+  public static PropertyFilter equalTo(String name, String value) {
+    return of(name, Operator.EQUAL, value);
+  }
+
+  /**
+   * Crée un filtre de borne inférieure sur une propriété numérique.
+   *
+   * @param name  le nom de la propriété
+   * @param value la borne, incluse
+   * @return le filtre {@code name >= value}
+   * @throws IllegalArgumentException si le nom est null
+   */
+  public static PropertyFilter atLeast(String name, int value) {
+    return of(name, Operator.GREATER_OR_EQUAL, Integer.toString(value));
+  }
+
+  /**
+   * Crée un filtre de borne supérieure sur une propriété numérique.
+   *
+   * @param name  le nom de la propriété
+   * @param value la borne, incluse
+   * @return le filtre {@code name <= value}
+   * @throws IllegalArgumentException si le nom est null
+   */
+  public static PropertyFilter atMost(String name, int value) {
+    return of(name, Operator.LESS_OR_EQUAL, Integer.toString(value));
+  }
+
+  /**
+   * Analyse une conjonction de comparaisons séparées par {@code AND}, par
+   * exemple {@code power >= 110 AND fuelType = Diesel}. Une valeur peut être
+   * entourée de guillemets simples ou doubles.
+   *
+   * @param expression l'expression
+   * @return le filtre
+   * @throws IllegalArgumentException si l'expression est null ou mal formée
+   */
+  public static PropertyFilter parse(String expression) {
+    if (expression == null) {
+      throw new IllegalArgumentException("L'expression ne peut pas être null");
+    }
+    List<PropertyFilter> terms = new ArrayList<>();
+    for (String term : AND.split(expression.trim(), -1)) {
+      Matcher matcher = TERM.matcher(term);
+      if (!matcher.matches() || matcher.group(3).isEmpty()) {
+        throw new IllegalArgumentException("Comparaison invalide : « " + term.trim() + " »");
+      }
+      terms.add(of(matcher.group(1), Operator.of(matcher.group(2)), unquote(matcher.group(3))));
+    }
+    PropertyFilter filter = terms.get(0);
+    for (int i = 1; i < terms.size(); i++) {
+      filter = filter.and(terms.get(i));
+    }
+    return filter;
+  }
+
+  private static String unquote(String value) {
+    if (value.length() >= 2 && (value.charAt(0) == '"' || value.charAt(0) == '\'')
+        && value.charAt(value.length() - 1) == value.charAt(0)) {
+      return value.substring(1, value.length() - 1);
+    }
+    return value;
+  }
+
+  /**
+   * Retourne la conjonction de ce filtre et d'un autre.
+   *
+   * @param other l'autre filtre
+   * @return un nouveau filtre retenant les variantes retenues par les deux
+   * @throws IllegalArgumentException si l'autre filtre est null
+   */
+  public PropertyFilter and(PropertyFilter other) {
+    if (other == null) {
+      throw new IllegalArgumentException("Le filtre ne peut pas être null");
+    }
+    int n = names.length;
+    String[] allNames = Arrays.copyOf(names, n + other.names.length);
+    Operator[] allOperators = Arrays.copyOf(operators, n + other.operators.length);
+    String[] allOperands = Arrays.copyOf(operands, n + other.operands.length);
+    System.arraycopy(other.names, 0, allNames, n, other.names.length);
+    System.arraycopy(other.operators, 0, allOperators, n, other.operators.length);
+    System.arraycopy(other.operands, 0, allOperands, n, other.operands.length);
+    return new PropertyFilter(allNames, allOperators, allOperands);
+  }
+
+  /** Nombre de comparaisons */
+  int size() {
+    return names.length;
+  }
+
+  String name(int i) {
+    return names[i];
+  }
+
+  Operator operator(int i) {
+    return operators[i];
+  }
+
+  String operand(int i) {
+    return operands[i];
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (!(o instanceof PropertyFilter)) {
+      return false;
+    }
+    PropertyFilter that = (PropertyFilter) o;
+    return Arrays.equals(names, that.names) && Arrays.equals(operators, that.operators)
+        && Arrays.equals(operands, that.operands);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * (31 * Arrays.hashCode(names) + Arrays.hashCode(operators)) + Arrays.hashCode(operands);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < names.length; i++) {
+      if (i > 0) {
+        builder.append(" AND ");
+      }
+      builder.append(names[i]).append(' ').append(operators[i].symbol).append(' ').append(operands[i]);
+    }
+    return builder.toString();
+  }
+}
@@ -0,0 +1,487 @@
+package fr.istic.bodin_bodier.cartaylor.impl;
+
+import fr.istic.bodin_bodier.cartaylor.api.Category;
+import fr.istic.bodin_bodier.cartaylor.api.PartType;
+import fr.istic.bodin_bodier.cartaylor.api.PropertyManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Propriétés des variantes d'une catégorie, rangées par colonne.
+ *
+ * <p>
+ * Chaque variante occupe une ligne, dans l'ordre de chargement du catalogue,
+ * et chaque propriété une colonne typée : une colonne entière pour les
+ * propriétés dont toutes les valeurs sont des entiers, une colonne énumérée
+ * sinon. Une colonne énumérée range ses valeurs distinctes dans un
+ * dictionnaire et ne stocke qu'un code entier par ligne ; les booléens et les
+ * décimaux y sont rangés sous leur forme textuelle.
+ *
+ * <p>
+ * Un {@link PropertyFilter} est évalué colonne par colonne sur toutes les
+ * lignes à la fois : chaque comparaison produit un mot de 64 lignes par
+ * parcours du tableau de la colonne, et les comparaisons successives sont
+ * combinées par intersection (voir {@link Bits}). Une égalité sur une colonne
+ * énumérée est résolue une seule fois dans le dictionnaire, puis ne compare
+ * que des codes.
+ *
+ * <p>
+ * Les tables sont remplies par {@link CatalogImpl} au chargement et ne sont
+ * plus modifiées ensuite ; elles ne sont pas sûres vis-à-vis des threads
+ * pendant le chargement.
+ */
+public class PropertyTable {
+  private final Category category;
+  private final List<PartType> partTypes;
+  private final List<PartType> partTypesView;
+  /** Ligne de chaque variante */
+  private final Map<PartType, Integer> rows;
+  private String[] descriptions;
+  /** Colonnes par nom de propriété, dans l'ordre de première apparition */
+  private final Map<String, Column> columns;
+  private final Set<String> propertyNamesView;
+
+  /**
+   * Constructeur de la classe PropertyTable.
+   *
+   * @param category la catégorie des variantes
+   * @throws IllegalArgumentException si la catégorie est null
+   */
+  public PropertyTable(Category category) {
+    if (category == null) {
+      throw new IllegalArgumentException("La catégorie ne peut pas être null");
+    }
+    this.category = category;
+    this.partTypes = new ArrayList<>();
+    this.partTypesView = Collections.unmodifiableList(partTypes);
+    this.rows = new HashMap<>();
+    this.descriptions = new String[8];
+    this.columns = new LinkedHashMap<>();
+    this.propertyNamesView = Collections.unmodifiableSet(columns.keySet());
+  }
+
+  /**
+   * Ajoute une variante, ou remplace sa description et ses propriétés si
+   * elle est déjà présente.
+   *
+   * @param partType    la variante
+   * @param description la description, ou null
+   * @param properties  les valeurs des propriétés : Integer pour les entiers,
+   *                    chaîne sinon ; une valeur null est absente
+   * @return la ligne de la variante
+   * @throws IllegalArgumentException si la variante est null
+   */
+  int put(PartType partType, String description, Map<String, ?> properties) {
+    if (partType == null) {
+      throw new IllegalArgumentException("La pièce ne peut pas être null");
+    }
+    Integer known = rows.get(partType);
+    int row;
+    if (known == null) {
+      row = partTypes.size();
+      if (row == descriptions.length) {
+        descriptions = Arrays.copyOf(descriptions, row * 2);
+      }
+      partTypes.add(partType);
+      rows.put(partType, row);
+    } else {
+      row = known;
+      partTypes.set(row, partType);
+      for (Column column : columns.values()) {
+        column.clear(row);
+      }
+    }
+    descriptions[row] = description;
+    for (Map.Entry<String, ?> entry : properties.entrySet()) {
+      Object value = entry.getValue();
+      if (value == null) {
+        continue;
+      }
+      Column column = columns.get(entry.getKey());
+      if (column == null) {
+        column = value instanceof Integer ? new IntColumn() : new EnumColumn();
+        columns.put(entry.getKey(), column);
+      } else if (column instanceof IntColumn && !(value instanceof Integer)) {
+        // Une valeur non entière rend la colonne énumérée
+        column = ((IntColumn) column).toEnum(partTypes.size());
+        columns.put(entry.getKey(), column);
+      }
+      column.set(row, value);
+    }
+    return row;
+  }
+
+  /**
+   * Retourne la catégorie des variantes.
+   *
+   * @return la catégorie
+   */
+  public Category getCategory() {
+    return category;
+  }
+
+  /**
+   * Retourne le nombre de variantes.
+   *
+   * @return le nombre de lignes
+   */
+  public int size() {
+    return partTypes.size();
+  }
+
+  /**
+   * Retourne les variantes dans l'ordre des lignes.
+   *
+   * @return la liste non modifiable des variantes
+   */
+  public List<PartType> getPartTypes() {
+    return partTypesView;
+  }
+
+  /**
+   * Retourne la ligne d'une variante.
+   *
+   * @param partType la variante
+   * @return la ligne, ou -1 si la variante n'est pas dans la table
+   */
+  public int rowOf(PartType partType) {
+    Integer row = partType == null ? null : rows.get(partType);
+    return row == null ? -1 : row;
+  }
+
+  /**
+   * Retourne les noms des propriétés portées par au moins une variante.
+   *
+   * @return un ensemble non modifiable des noms
+   */
+  public Set<String> getPropertyNames() {
+    return propertyNamesView;
+  }
+
+  /**
+   * Indique si une propriété est rangée dans une colonne entière.
+   *
+   * @param propertyName le nom de la propriété
+   * @return true si toutes les valeurs de la propriété sont entières
+   */
+  public boolean isNumeric(String propertyName) {
+    return columns.get(propertyName) instanceof IntColumn;
+  }
+
+  /**
+   * Retourne les valeurs distinctes d'une propriété énumérée. Comme pour
+   * {@link PropertyManager#getAvailablePropertyValues(String)}, une propriété
+   * numérique ou inconnue n'a pas de valeurs énumérées.
+   *
+   * @param propertyName le nom de la propriété
+   * @return un ensemble non modifiable des valeurs, dans l'ordre du
+   *         dictionnaire
+   */
+  public Set<String> getAvailablePropertyValues(String propertyName) {
+    Column column = columns.get(propertyName);
+    return column instanceof EnumColumn ? ((EnumColumn) column).dictionaryView : Collections.emptySet();
+  }
+
+  /**
+   * Retourne la description d'une variante.
+   *
+   * @param partType la variante
+   * @return la description, ou Optional.empty() si la variante n'en a pas
+   */
+  public Optional<String> getDescription(PartType partType) {
+    int row = rowOf(partType);
+    return row < 0 ? Optional.empty() : Optional.ofNullable(descriptions[row]);
+  }
+
+  /**
+   * Retourne la valeur d'une propriété d'une variante.
+   *
+   * @param partType     la variante
+   * @param propertyName le nom de la propriété
+   * @return la valeur sous forme textuelle, ou Optional.empty() si la variante
+   *         ne porte pas la propriété
+   */
+  public Optional<String> getProperty(PartType partType, String propertyName) {
+    return get(rowOf(partType), propertyName);
+  }
+
+  private Optional<String> get(int row, String propertyName) {
+    Column column = columns.get(propertyName);
+    return row < 0 || column == null ? Optional.empty() : Optional.ofNullable(column.get(row));
+  }
+
+  /**
+   * Retourne les propriétés d'une variante sous la forme d'un gestionnaire de
+   * propriétés en lecture seule.
+   *
+   * @param partType la variante
+   * @return le gestionnaire ; sans propriété si la variante n'est pas dans la
+   *         table
+   */
+  public PropertyManager getPropertyManager(PartType partType) {
+    return new Row(rowOf(partType));
+  }
+
+  /**
+   * Évalue un filtre sur toutes les variantes.
+   *
+   * @param filter le filtre
+   * @return l'ensemble des lignes retenues, un bit par ligne
+   * @throws IllegalArgumentException si le filtre est null, s'il applique un
+   *                                  opérateur d'ordre à une propriété non
+   *                                  numérique ou s'il compare une propriété
+   *                                  numérique à une valeur non entière
+   */
+  public long[] select(PropertyFilter filter) {
+    if (filter == null) {
+      throw new IllegalArgumentException("Le filtre ne peut pas être null");
+    }
+    int size = partTypes.size();
+    long[] selected = new long[Bits.wordCount(size)];
+    Arrays.fill(selected, -1L);
+    if (size % Long.SIZE != 0) {
+      selected[selected.length - 1] = -1L >>> (Long.SIZE - size % Long.SIZE);
+    }
+    for (int i = 0; i < filter.size(); i++) {
+      Column column = columns.get(filter.name(i));
+      if (column == null) {
+        Arrays.fill(selected, 0L);
+      } else {
+        column.restrict(filter.name(i), filter.operator(i), filter.operand(i), selected, size);
+      }
+    }
+    return selected;
+  }
+
+  /**
+   * Retourne les variantes retenues par un filtre.
+   *
+   * @param filter le filtre
+   * @return les variantes retenues, dans l'ordre des lignes
+   * @throws IllegalArgumentException dans les cas de {@link #select}
+   */
+  public List<PartType> filter(PropertyFilter filter) {
+    long[] selected = select(filter);
+    List<PartType> result = new ArrayList<>(Bits.cardinality(selected));
+    for (int row = Bits.nextSetBit(selected, 0); row >= 0; row = Bits.nextSetBit(selected, row + 1)) {
+      result.add(partTypes.get(row));
+    }
+    return result;
+  }
+
+  /**
+   * Retourne les variantes retenues par une expression de filtre, par exemple
+   * {@code power >= 110 AND fuelType = Diesel}.
+   *
+   * @param expression l'expression, voir {@link PropertyFilter#parse(String)}
+   * @return les variantes retenues, dans l'ordre des lignes
+   * @throws IllegalArgumentException si l'expression est mal formée, ou dans
+   *                                  les cas de {@link #select}
+   */
+  public List<PartType> filter(String expression) {
+    return filter(PropertyFilter.parse(expression));
+  }
+
+  @Override
+  public String toString() {
+    return "PropertyTable[" + category.getName() + ", " + size() + " variantes, " + columns.keySet() + "]";
+  }
+
+  /**
+   * Colonne d'une propriété.
+   */
+  private abstract static class Column {
+    abstract void set(int row, Object value);
+
+    abstract void clear(int row);
+
+    /** Valeur textuelle d'une ligne, ou null si elle est absente */
+    abstract String get(int row);
+
+    /** Retire de selected les lignes ne satisfaisant pas la comparaison */
+    abstract void restrict(String name, PropertyFilter.Operator operator, String operand, long[] selected,
+        int size);
+  }
+
+  /**
+   * Colonne de valeurs entières, avec un bit de présence par ligne.
+   */
+  private static final class IntColumn extends Column {
+    private int[] values = new int[8];
+    private long[] present = Bits.EMPTY;
+
+    @Override
+    void set(int row, Object value) {
+      if (row >= values.length) {
+        values = Arrays.copyOf(values, Math.max(row + 1, values.length * 2));
+      }
+      values[row] = (Integer) value;
+      present = Bits.set(present, row);
+    }
+
+    @Override
+    void clear(int row) {
+      Bits.clear(present, row);
+    }
+
+    @Override
+    String get(int row) {
+      return Bits.get(present, row) ? Integer.toString(values[row]) : null;
+    }
+
+    /** Convertit la colonne en colonne énumérée des mêmes valeurs */
+    EnumColumn toEnum(int size) {
+      EnumColumn column = new EnumColumn();
+      for (int row = Bits.nextSetBit(present, 0); row >= 0 && row < size; row = Bits.nextSetBit(present, row + 1)) {
+        column.set(row, Integer.toString(values[row]));
+      }
+      return column;
+    }
+
+    @Override
+    void restrict(String name, PropertyFilter.Operator operator, String operand, long[] selected, int size) {
+      int bound;
+      try {
+        bound = Integer.parseInt(operand.trim());
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Valeur entière attendue pour " + name + " : " + operand);
+      }
+      for (int w = 0; w < selected.length; w++) {
+        long word = selected[w];
+        if (word == 0) {
+          continue;
+        }
+        long matches = 0;
+        int base = w << 6;
+        int end = Math.min(Long.SIZE, Math.min(size, values.length) - base);
+        for (int i = 0; i < end; i++) {
+          if (operator.test(Integer.compare(values[base + i], bound))) {
+            matches |= 1L << i;
+          }
+        }
+        selected[w] = word & matches & (w < present.length ? present[w] : 0);
+      }
+    }
+  }
+
+  /**
+   * Colonne de valeurs énumérées : dictionnaire des valeurs distinctes et
+   * code de chaque ligne, -1 si la valeur est absente.
+   */
+  private static final class EnumColumn extends Column {
+    private final Map<String, Integer> dictionary = new LinkedHashMap<>();
+    private final Set<String> dictionaryView = Collections.unmodifiableSet(dictionary.keySet());
+    private final List<String> values = new ArrayList<>();
+    private int[] codes = new int[0];
+
+    @Override
+    void set(int row, Object value) {
+      String text = value.toString();
+      Integer code = dictionary.get(text);
+      if (code == null) {
+        code = values.size();
+        dictionary.put(text, code);
+        values.add(text);
+      }
+      if (row >= codes.length) {
+        int length = codes.length;
+        codes = Arrays.copyOf(codes, Math.max(row + 1, length * 2));
+        Arrays.fill(codes, length, codes.length, -1);
+      }
+      codes[row] = code;
+    }
+
+    @Override
+    void clear(int row) {
+      if (row < codes.length) {
+        codes[row] = -1;
+      }
+    }
+
+    @Override
+    String get(int row) {
+      return row < codes.length && codes[row] >= 0 ? values.get(codes[row]) : null;
+    }
+
+    @Override
+    void restrict(String name, PropertyFilter.Operator operator, String operand, long[] selected, int size) {
+      if (operator.isOrdering()) {
+        throw new IllegalArgumentException("La propriété " + name + " n'est pas numérique");
+      }
+      Integer known = dictionary.get(operand);
+      // Une valeur absente du dictionnaire ne correspond à aucune ligne
+      int code = known == null ? -2 : known;
+      boolean equal = operator == PropertyFilter.Operator.EQUAL;
+      for (int w = 0; w < selected.length; w++) {
+        long word = selected[w];
+        if (word == 0) {
+          continue;
+        }
+        long matches = 0;
+        int base = w << 6;
+        int end = Math.min(Long.SIZE, Math.min(size, codes.length) - base);
+        for (int i = 0; i < end; i++) {
+          int c = codes[base + i];
+          if (c >= 0 && (c == code) == equal) {
+            matches |= 1L << i;
+          }
+        }
+        selected[w] = word & matches;
+      }
+    }
+  }
+
+  /**
+   * Propriétés d'une ligne, en lecture seule.
+   */
+  private final class Row implements PropertyManager {
+    private final int row;
+
+    Row(int row) {
+      this.row = row;
+    }
+
+    @Override
+    public Set<String> getPropertyNames() {
+      if (row < 0) {
+        return Collections.emptySet();
+      }
+      Set<String> names = new LinkedHashSet<>();
+      for (Map.Entry<String, Column> entry : columns.entrySet()) {
+        if (entry.getValue().get(row) != null) {
+          names.add(entry.getKey());
+        }
+      }
+      return Collections.unmodifiableSet(names);
+    }
+
+    @Override
+    public Set<String> getAvailablePropertyValues(String propertyName) {
+      return row < 0 ? Collections.emptySet() : PropertyTable.this.getAvailablePropertyValues(propertyName);
+    }
+
+    @Override
+    public Optional<String> getProperty(String propertyName) {
+      return get(row, propertyName);
+    }
+
+    /**
+     * Les propriétés du catalogue ne sont pas modifiables.
+     *
+     * @throws IllegalArgumentException toujours
+     */
+    @Override
+    public void setProperty(String propertyName, String propertyValue) {
+      throw new IllegalArgumentException("La propriété " + propertyName + " du catalogue n'est pas modifiable");
+    }
+  }
+}
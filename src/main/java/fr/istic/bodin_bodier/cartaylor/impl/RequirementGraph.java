@@ -0,0 +1,155 @@
+package fr.istic.bodin_bodier.cartaylor.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Décomposition en composantes fortement connexes du graphe des exigences
+ * d'une version des règles.
+ *
+ * <p>
+ * Les composantes sont calculées par l'algorithme de Tarjan, en version
+ * itérative pour ne pas dépendre de la profondeur de la pile d'appels. Elles
+ * sont numérotées dans l'ordre topologique inverse : une composante ne
+ * requiert que des composantes de numéro inférieur ou égal.
+ */
+public final class RequirementGraph {
+  private final int[] componentOf;
+  private final List<long[]> components;
+  private final long[] cyclic;
+
+  /**
+   * Constructeur de la classe RequirementGraph.
+   *
+   * @param rules la version des règles à analyser
+   * @param size  le nombre d'ordinaux à considérer
+   * @throws IllegalArgumentException si les règles sont null
+   */
+  public RequirementGraph(RuleSnapshot rules, int size) {
+    if (rules == null) {
+      throw new IllegalArgumentException("Les règles ne peuvent pas être null");
+    }
+    long[][] requirements = rules.requirementRows();
+    this.componentOf = new int[size];
+    this.components = new ArrayList<>();
+    this.cyclic = new long[Bits.wordCount(size)];
+
+    int[] lowLink = new int[size];
+    int[] order = new int[size];
+    boolean[] onStack = new boolean[size];
+    int[] stack = new int[size];
+    int stackSize = 0;
+    // Pile d'appels simulée : nœud courant et prochain successeur à examiner
+    int[] callNode = new int[size];
+    int[] callNext = new int[size];
+    int next = 1;
+
+    for (int root = 0; root < size; root++) {
+      if (order[root] != 0) {
+        continue;
+      }
+      int depth = 0;
+      callNode[0] = root;
+      callNext[0] = 0;
+      order[root] = lowLink[root] = next++;
+      stack[stackSize++] = root;
+      onStack[root] = true;
+      while (depth >= 0) {
+        int node = callNode[depth];
+        long[] targets = RuleSnapshot.row(requirements, node);
+        int t = Bits.nextSetBit(targets, callNext[depth]);
+        if (t >= size) {
+          t = -1;
+        }
+        if (t >= 0) {
+          callNext[depth] = t + 1;
+          if (order[t] == 0) {
+            order[t] = lowLink[t] = next++;
+            stack[stackSize++] = t;
+            onStack[t] = true;
+            depth++;
+            callNode[depth] = t;
+            callNext[depth] = 0;
+          } else if (onStack[t]) {
+            lowLink[node] = Math.min(lowLink[node], order[t]);
+          }
+          continue;
+        }
+        if (lowLink[node] == order[node]) {
+          int id = components.size();
+          long[] members = new long[Bits.wordCount(size)];
+          int member;
+          do {
+            member = stack[--stackSize];
+            onStack[member] = false;
+            componentOf[member] = id;
+            members[member >>> 6] |= 1L << member;
+          } while (member != node);
+          components.add(members);
+          if (Bits.cardinality(members) > 1 || Bits.get(targets, node)) {
+            cyclic[id >>> 6] |= 1L << id;
+          }
+        }
+        depth--;
+        if (depth >= 0) {
+          int parent = callNode[depth];
+          lowLink[parent] = Math.min(lowLink[parent], lowLink[node]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Retourne le nombre de composantes.
+   *
+   * @return le nombre de composantes
+   */
+  public int componentCount() {
+    return components.size();
+  }
+
+  /**
+   * Retourne le numéro de la composante d'un ordinal.
+   *
+   * @param ordinal l'ordinal du type de pièce
+   * @return le numéro de sa composante
+   */
+  public int componentOf(int ordinal) {
+    return componentOf[ordinal];
+  }
+
+  /**
+   * Retourne les ordinaux d'une composante. Le tableau retourné ne doit pas
+   * être modifié.
+   *
+   * @param component le numéro de la composante
+   * @return l'ensemble de bits de ses membres
+   */
+  public long[] members(int component) {
+    return components.get(component);
+  }
+
+  /**
+   * Indique si une composante forme un cycle d'exigences : elle compte
+   * plusieurs pièces, ou une pièce qui se requiert elle-même.
+   *
+   * @param component le numéro de la composante
+   * @return true si la composante est un cycle
+   */
+  public boolean isCyclic(int component) {
+    return Bits.get(cyclic, component);
+  }
+
+  /**
+   * Retourne les membres de toutes les composantes formant un cycle.
+   *
+   * @return la liste des cycles, chacun sous forme d'ensemble de bits
+   */
+  public List<long[]> cycles() {
+    List<long[]> cycles = new ArrayList<>();
+    for (int c = Bits.nextSetBit(cyclic, 0); c >= 0; c = Bits.nextSetBit(cyclic, c + 1)) {
+      cycles.add(components.get(c));
+    }
+    return cycles;
+  }
+}
@@ -0,0 +1,333 @@
+package fr.istic.bodin_bodier.cartaylor.impl;
+
+import fr.istic.bodin_bodier.cartaylor.api.Category;
+import fr.istic.bodin_bodier.cartaylor.api.PartType;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Analyse hors ligne de la cohérence des règles d'un
+ * {@link CompatibilityManagerImpl}.
+ *
+ * <p>
+ * Les règles sont vues comme un graphe : les exigences sont des arcs orientés,
+ * les incompatibilités des arêtes. Le graphe des exigences est réduit à ses
+ * composantes fortement connexes (voir {@link RequirementGraph}), dont les
+ * fermetures sont calculées une seule fois chacune, dans l'ordre topologique,
+ * par réunion d'ensembles de bits. Toutes les vérifications se ramènent
+ * ensuite à des intersections mot à mot.
+ *
+ * <p>
+ * L'analyse détecte :
+ * <ul>
+ * <li>les pièces mortes, qui ne peuvent figurer dans aucune configuration
+ * valide : la pièce et sa fermeture d'exigences contiennent deux pièces
+ * incompatibles, ou deux pièces d'une même catégorie ;</li>
+ * <li>les exigences conflictuelles, dont la cible requiert, directement ou
+ * non, une pièce incompatible avec la référence ;</li>
+ * <li>les exigences internes à une catégorie, que
+ * {@link ConfigurationImpl#selectPart(PartType)} rend mutuellement
+ * exclusives ;</li>
+ * <li>les règles redondantes : exigences déjà impliquées par une autre
+ * exigence de la même pièce, incompatibilités entre pièces d'une même
+ * catégorie ou déjà impliquées par une exigence. Toutes les règles signalées
+ * peuvent être retirées ensemble sans changer les configurations
+ * valides.</li>
+ * </ul>
+ */
+public class RuleAnalyzer {
+  private final CompatibilityManagerImpl manager;
+
+  /**
+   * Constructeur de la classe RuleAnalyzer.
+   *
+   * @param manager le gestionnaire de compatibilité à analyser
+   * @throws IllegalArgumentException si le gestionnaire est null
+   */
+  public RuleAnalyzer(CompatibilityManagerImpl manager) {
+    if (manager == null) {
+      throw new IllegalArgumentException("Le gestionnaire ne peut pas être null");
+    }
+    this.manager = manager;
+  }
+
+  /**
+   * Analyse la dernière version publiée des règles.
+   *
+   * @return le rapport d'analyse
+   */
+  public Report analyze() {
+    RuleSnapshot rules = manager.getRules();
+    PartTypeIndex index = manager.getPartTypeIndex();
+    int size = index.size();
+    int[] categoryOf = categories(index, size);
+    RequirementGraph graph = new RequirementGraph(rules, size);
+
+    // Fermetures des composantes, membres compris : les composantes requises
+    // ont toujours un numéro inférieur et sont donc déjà calculées
+    int count = graph.componentCount();
+    long[][] reach = new long[count][];
+    long[] deadComponents = new long[Bits.wordCount(count)];
+    Contradictions contradictions = new Contradictions(rules, categoryOf);
+    for (int c = 0; c < count; c++) {
+      long[] members = graph.members(c);
+      long[] closure = members.clone();
+      boolean dead = false;
+      for (int m = Bits.nextSetBit(members, 0); m >= 0; m = Bits.nextSetBit(members, m + 1)) {
+        long[] targets = rules.getRequirementBits(m);
+        for (int t = Bits.nextSetBit(targets, 0); t >= 0 && t < size; t = Bits.nextSetBit(targets, t + 1)) {
+          int d = graph.componentOf(t);
+          if (d != c) {
+            or(closure, reach[d]);
+            dead |= Bits.get(deadComponents, d);
+          }
+        }
+      }
+      reach[c] = closure;
+      if (dead || contradictions.test(closure)) {
+        deadComponents[c >>> 6] |= 1L << c;
+      }
+    }
+
+    long[] deadParts = new long[Bits.wordCount(size)];
+    Map<PartType, Set<PartType>> conflicting = new LinkedHashMap<>();
+    Map<PartType, Set<PartType>> sameCategory = new LinkedHashMap<>();
+    Map<PartType, Set<PartType>> redundantRequirements = new LinkedHashMap<>();
+    Map<PartType, Set<PartType>> redundantIncompatibilities = new LinkedHashMap<>();
+    for (int ref = 0; ref < size; ref++) {
+      int component = graph.componentOf(ref);
+      if (Bits.get(deadComponents, component)) {
+        deadParts[ref >>> 6] |= 1L << ref;
+      }
+      long[] incompatibilities = rules.getIncompatibilityBits(ref);
+      long[] targets = rules.getRequirementBits(ref);
+      long[] conflictBits = Bits.EMPTY;
+      long[] sameCategoryBits = Bits.EMPTY;
+      long[] redundantBits = Bits.EMPTY;
+      for (int t = Bits.nextSetBit(targets, 0); t >= 0 && t < size; t = Bits.nextSetBit(targets, t + 1)) {
+        if (t != ref && categoryOf[t] == categoryOf[ref]) {
+          sameCategoryBits = Bits.set(sameCategoryBits, t);
+        }
+        if (Bits.intersects(incompatibilities, reach[graph.componentOf(t)])) {
+          conflictBits = Bits.set(conflictBits, t);
+        }
+        if (isImpliedRequirement(graph, reach, ref, targets, t, size)) {
+          redundantBits = Bits.set(redundantBits, t);
+        }
+      }
+      // Chaque incompatibilité est examinée une fois, depuis le plus petit ordinal
+      long[] implied = Bits.EMPTY;
+      for (int b = Bits.nextSetBit(incompatibilities, ref); b >= 0 && b < size;
+          b = Bits.nextSetBit(incompatibilities, b + 1)) {
+        if (categoryOf[b] == categoryOf[ref] && b != ref
+            || impliesIncompatibility(graph, reach, ref, rules.getIncompatibilityBits(b))
+            || impliesIncompatibility(graph, reach, b, incompatibilities)) {
+          implied = Bits.set(implied, b);
+        }
+      }
+      PartType reference = index.get(ref);
+      put(conflicting, reference, index, conflictBits);
+      put(sameCategory, reference, index, sameCategoryBits);
+      put(redundantRequirements, reference, index, redundantBits);
+      put(redundantIncompatibilities, reference, index, implied);
+    }
+    return new Report(rules.getVersion(), new PartTypeSet(index, deadParts), conflicting, sameCategory,
+        redundantRequirements, redundantIncompatibilities);
+  }
+
+  /**
+   * Attribue un numéro à chaque catégorie et retourne celui de chaque pièce.
+   */
+  private static int[] categories(PartTypeIndex index, int size) {
+    Map<Category, Integer> ids = new HashMap<>();
+    int[] categoryOf = new int[size];
+    for (int o = 0; o < size; o++) {
+      categoryOf[o] = ids.computeIfAbsent(index.get(o).getCategory(), category -> ids.size());
+    }
+    return categoryOf;
+  }
+
+  /**
+   * Indique si l'exigence d'une cible est impliquée par une autre exigence
+   * directe de la même pièce. Seules les cibles hors de la composante de la
+   * référence peuvent justifier une exigence, sans quoi deux exigences d'un
+   * même cycle se justifieraient mutuellement ; entre cibles d'une même
+   * composante, seule celle de plus petit ordinal est conservée.
+   */
+  private static boolean isImpliedRequirement(RequirementGraph graph, long[][] reach, int ref, long[] targets,
+      int t, int size) {
+    int cr = graph.componentOf(ref);
+    int ct = graph.componentOf(t);
+    for (int u = Bits.nextSetBit(targets, 0); u >= 0 && u < size; u = Bits.nextSetBit(targets, u + 1)) {
+      int cu = graph.componentOf(u);
+      if (u != t && cu != cr && Bits.get(reach[cu], t) && (cu != ct || u < t)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Indique si une pièce requiert, hors de sa propre composante, une pièce
+   * incompatible avec l'autre extrémité de l'incompatibilité. Se limiter aux
+   * composantes inférieures garantit qu'aucune incompatibilité n'est
+   * justifiée, même indirectement, par elle-même.
+   */
+  private static boolean impliesIncompatibility(RequirementGraph graph, long[][] reach, int part,
+      long[] otherIncompatibilities) {
+    int component = graph.componentOf(part);
+    long[] closure = reach[component];
+    long[] members = graph.members(component);
+    int words = Math.min(closure.length, otherIncompatibilities.length);
+    for (int w = 0; w < words; w++) {
+      if ((closure[w] & ~members[w] & otherIncompatibilities[w]) != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static void or(long[] target, long[] source) {
+    for (int w = 0; w < source.length; w++) {
+      target[w] |= source[w];
+    }
+  }
+
+  private static void put(Map<PartType, Set<PartType>> findings, PartType reference, PartTypeIndex index,
+      long[] bits) {
+    if (!Bits.isEmpty(bits)) {
+      findings.put(reference, new PartTypeSet(index, bits));
+    }
+  }
+
+  /**
+   * Recherche d'une contradiction dans une fermeture : deux pièces
+   * incompatibles, ou deux pièces d'une même catégorie. Les catégories déjà
+   * vues sont marquées par un jeton propre à chaque appel, sans réinitialiser
+   * le tableau.
+   */
+  private static final class Contradictions {
+    private final RuleSnapshot rules;
+    private final int[] categoryOf;
+    private final int[] seen;
+    private int token;
+
+    Contradictions(RuleSnapshot rules, int[] categoryOf) {
+      this.rules = rules;
+      this.categoryOf = categoryOf;
+      this.seen = new int[categoryOf.length];
+      Arrays.fill(seen, -1);
+    }
+
+    boolean test(long[] closure) {
+      token++;
+      for (int p = Bits.nextSetBit(closure, 0); p >= 0; p = Bits.nextSetBit(closure, p + 1)) {
+        if (Bits.intersects(rules.getIncompatibilityBits(p), closure) || seen[categoryOf[p]] == token) {
+          return true;
+        }
+        seen[categoryOf[p]] = token;
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Rapport d'analyse d'une version des règles. Les constats par pièce sont
+   * donnés dans l'ordre des ordinaux ; chaque incompatibilité redondante
+   * n'apparaît qu'une fois, sous la pièce de plus petit ordinal.
+   */
+  public static final class Report {
+    private final long version;
+    private final Set<PartType> deadParts;
+    private final Map<PartType, Set<PartType>> conflictingRequirements;
+    private final Map<PartType, Set<PartType>> sameCategoryRequirements;
+    private final Map<PartType, Set<PartType>> redundantRequirements;
+    private final Map<PartType, Set<PartType>> redundantIncompatibilities;
+
+    Report(long version, Set<PartType> deadParts, Map<PartType, Set<PartType>> conflictingRequirements,
+        Map<PartType, Set<PartType>> sameCategoryRequirements, Map<PartType, Set<PartType>> redundantRequirements,
+        Map<PartType, Set<PartType>> redundantIncompatibilities) {
+      this.version = version;
+      this.deadParts = deadParts;
+      this.conflictingRequirements = Collections.unmodifiableMap(conflictingRequirements);
+      this.sameCategoryRequirements = Collections.unmodifiableMap(sameCategoryRequirements);
+      this.redundantRequirements = Collections.unmodifiableMap(redundantRequirements);
+      this.redundantIncompatibilities = Collections.unmodifiableMap(redundantIncompatibilities);
+    }
+
+    /**
+     * Retourne la version des règles analysée.
+     *
+     * @return le numéro de version
+     */
+    public long getVersion() {
+      return version;
+    }
+
+    /**
+     * Retourne les pièces qui ne peuvent figurer dans aucune configuration
+     * valide.
+     *
+     * @return un ensemble non modifiable des pièces mortes
+     */
+    public Set<PartType> getDeadParts() {
+      return deadParts;
+    }
+
+    /**
+     * Retourne, par pièce, les exigences dont la fermeture contient une pièce
+     * incompatible avec elle.
+     *
+     * @return une table non modifiable des exigences conflictuelles
+     */
+    public Map<PartType, Set<PartType>> getConflictingRequirements() {
+      return conflictingRequirements;
+    }
+
+    /**
+     * Retourne, par pièce, les exigences visant une autre pièce de sa
+     * catégorie.
+     *
+     * @return une table non modifiable des exigences internes à une catégorie
+     */
+    public Map<PartType, Set<PartType>> getSameCategoryRequirements() {
+      return sameCategoryRequirements;
+    }
+
+    /**
+     * Retourne, par pièce, les exigences déjà impliquées par ses autres
+     * exigences.
+     *
+     * @return une table non modifiable des exigences redondantes
+     */
+    public Map<PartType, Set<PartType>> getRedundantRequirements() {
+      return redundantRequirements;
+    }
+
+    /**
+     * Retourne, par pièce, les incompatibilités déjà impliquées par les
+     * catégories ou par les exigences.
+     *
+     * @return une table non modifiable des incompatibilités redondantes
+     */
+    public Map<PartType, Set<PartType>> getRedundantIncompatibilities() {
+      return redundantIncompatibilities;
+    }
+
+    /**
+     * Indique si les règles ne comportent aucune erreur : ni pièce morte, ni
+     * exigence conflictuelle ou interne à une catégorie. Les redondances ne
+     * sont pas des erreurs.
+     *
+     * @return true si les règles sont cohérentes
+     */
+    public boolean isConsistent() {
+      return deadParts.isEmpty() && conflictingRequirements.isEmpty() && sameCategoryRequirements.isEmpty();
+    }
+  }
+}
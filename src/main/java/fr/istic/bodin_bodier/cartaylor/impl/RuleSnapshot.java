@@ -0,0 +1,320 @@
+package fr.istic.bodin_bodier.cartaylor.impl;
+
+import fr.istic.bodin_bodier.cartaylor.api.PartType;
+import fr.istic.bodin_bodier.cartaylor.api.ValidationResult;
+import fr.istic.bodin_bodier.cartaylor.api.Violation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Version immuable des règles de compatibilité compilées d'un
+ * {@link CompatibilityManagerImpl}.
+ *
+ * <p>
+ * Une instance n'est jamais modifiée après sa publication : elle peut être lue
+ * sans verrou par un nombre quelconque de threads, et deux lectures faites sur
+ * la même instance sont toujours cohérentes entre elles. Chaque modification
+ * des règles publie une nouvelle instance, de version supérieure.
+ *
+ * <p>
+ * Seul le cache des fermetures transitives d'exigences est rempli après la
+ * publication, à la demande ; il est repris par la version suivante pour
+ * toutes les pièces dont les exigences n'ont pu changer.
+ */
+public final class RuleSnapshot {
+
+  /** Version vide initiale */
+  static final RuleSnapshot EMPTY = new RuleSnapshot(0, new long[0][], new long[0][], new long[0][]);
+
+  private final long version;
+  private final long[][] incompatibilities;
+  private final long[][] requirements;
+  private final long[][] requiredBy;
+  /** Fermetures transitives des exigences, calculées à la demande */
+  private final AtomicReferenceArray<long[]> closures;
+
+  /**
+   * Constructeur de la classe RuleSnapshot. Les tableaux sont repris sans
+   * copie et ne doivent plus être modifiés.
+   *
+   * @param version           le numéro de version
+   * @param incompatibilities les incompatibilités par ordinal (null si aucune)
+   * @param requirements      les exigences par ordinal (null si aucune)
+   * @param requiredBy        les exigences inverses par ordinal (null si
+   *                          aucune)
+   */
+  RuleSnapshot(long version, long[][] incompatibilities, long[][] requirements, long[][] requiredBy) {
+    this(version, incompatibilities, requirements, requiredBy, new AtomicReferenceArray<>(incompatibilities.length));
+  }
+
+  /**
+   * Constructeur reprenant des fermetures d'exigences déjà calculées.
+   *
+   * @param version           le numéro de version
+   * @param incompatibilities les incompatibilités par ordinal (null si aucune)
+   * @param requirements      les exigences par ordinal (null si aucune)
+   * @param requiredBy        les exigences inverses par ordinal (null si
+   *                          aucune)
+   * @param closures          les fermetures connues (null si non calculées)
+   */
+  RuleSnapshot(long version, long[][] incompatibilities, long[][] requirements, long[][] requiredBy,
+      AtomicReferenceArray<long[]> closures) {
+    this.version = version;
+    this.incompatibilities = incompatibilities;
+    this.requirements = requirements;
+    this.requiredBy = requiredBy;
+    this.closures = closures;
+  }
+
+  /**
+   * Retourne le numéro de version de ces règles.
+   *
+   * @return le numéro de version
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Retourne le nombre d'ordinaux couverts par ces règles. Les ordinaux
+   * au-delà n'ont aucune règle.
+   *
+   * @return la capacité des lignes de règles
+   */
+  public int capacity() {
+    return incompatibilities.length;
+  }
+
+  /**
+   * Retourne les incompatibilités d'un ordinal sous forme d'ensemble de bits.
+   * Le tableau retourné ne doit pas être modifié.
+   *
+   * @param ordinal l'ordinal du type de pièce
+   * @return l'ensemble de bits des pièces incompatibles
+   */
+  public long[] getIncompatibilityBits(int ordinal) {
+    return row(incompatibilities, ordinal);
+  }
+
+  /**
+   * Retourne les exigences d'un ordinal sous forme d'ensemble de bits.
+   * Le tableau retourné ne doit pas être modifié.
+   *
+   * @param ordinal l'ordinal du type de pièce
+   * @return l'ensemble de bits des pièces requises
+   */
+  public long[] getRequirementBits(int ordinal) {
+    return row(requirements, ordinal);
+  }
+
+  /**
+   * Retourne les pièces qui requièrent un ordinal, sous forme d'ensemble de
+   * bits. Le tableau retourné ne doit pas être modifié.
+   *
+   * @param ordinal l'ordinal du type de pièce
+   * @return l'ensemble de bits des pièces requérant cet ordinal
+   */
+  public long[] getRequiredByBits(int ordinal) {
+    return row(requiredBy, ordinal);
+  }
+
+  /**
+   * Retourne la fermeture transitive des exigences d'un ordinal : toutes les
+   * pièces requises directement ou par l'intermédiaire d'autres pièces. Elle
+   * ne contient l'ordinal lui-même que s'il appartient à un cycle
+   * d'exigences. Le résultat est mis en cache ; le tableau retourné ne doit
+   * pas être modifié.
+   *
+   * @param ordinal l'ordinal du type de pièce
+   * @return l'ensemble de bits des pièces requises transitivement
+   */
+  public long[] getRequirementClosureBits(int ordinal) {
+    if (ordinal < 0 || ordinal >= closures.length()) {
+      return Bits.EMPTY;
+    }
+    long[] closure = closures.get(ordinal);
+    if (closure == null) {
+      closure = computeClosure(ordinal);
+      closures.set(ordinal, closure);
+    }
+    return closure;
+  }
+
+  /**
+   * Calcule une fermeture par parcours des exigences. Les fermetures déjà en
+   * cache sont réunies en bloc, sans parcourir leurs pièces.
+   */
+  private long[] computeClosure(int ordinal) {
+    long[] closure = new long[Bits.wordCount(closures.length())];
+    int[] stack = new int[16];
+    int size = 0;
+    long[] direct = row(requirements, ordinal);
+    for (int t = Bits.nextSetBit(direct, 0); t >= 0; t = Bits.nextSetBit(direct, t + 1)) {
+      closure[t >>> 6] |= 1L << t;
+      stack = push(stack, size++, t);
+    }
+    while (size > 0) {
+      int r = stack[--size];
+      long[] known = r < closures.length() ? closures.get(r) : Bits.EMPTY;
+      if (known != null) {
+        for (int w = 0; w < known.length; w++) {
+          closure[w] |= known[w];
+        }
+        continue;
+      }
+      long[] next = row(requirements, r);
+      for (int t = Bits.nextSetBit(next, 0); t >= 0; t = Bits.nextSetBit(next, t + 1)) {
+        if (!Bits.get(closure, t)) {
+          closure[t >>> 6] |= 1L << t;
+          stack = push(stack, size++, t);
+        }
+      }
+    }
+    return Bits.isEmpty(closure) ? Bits.EMPTY : closure;
+  }
+
+  private static int[] push(int[] stack, int size, int value) {
+    if (size == stack.length) {
+      stack = Arrays.copyOf(stack, size * 2);
+    }
+    stack[size] = value;
+    return stack;
+  }
+
+  /**
+   * Prépare le cache des fermetures d'une nouvelle version : les fermetures
+   * des pièces modifiées et de toutes celles qui les requièrent,
+   * directement ou non, sont invalidées ; les autres sont reprises.
+   *
+   * @param capacity   la capacité de la nouvelle version
+   * @param touched    les ordinaux dont les exigences directes ont changé
+   * @param requiredBy les exigences inverses de la nouvelle version
+   * @return le cache de la nouvelle version
+   */
+  AtomicReferenceArray<long[]> carryClosures(int capacity, long[] touched, long[][] requiredBy) {
+    // Les pièces atteignant une pièce modifiée sont les mêmes avant et après la modification
+    long[] invalid = touched.clone();
+    int[] stack = new int[16];
+    int size = 0;
+    for (int t = Bits.nextSetBit(touched, 0); t >= 0; t = Bits.nextSetBit(touched, t + 1)) {
+      stack = push(stack, size++, t);
+    }
+    while (size > 0) {
+      long[] parents = row(requiredBy, stack[--size]);
+      for (int p = Bits.nextSetBit(parents, 0); p >= 0; p = Bits.nextSetBit(parents, p + 1)) {
+        if (!Bits.get(invalid, p)) {
+          invalid = Bits.set(invalid, p);
+          stack = push(stack, size++, p);
+        }
+      }
+    }
+    AtomicReferenceArray<long[]> carried = new AtomicReferenceArray<>(capacity);
+    int kept = Math.min(capacity, closures.length());
+    for (int o = 0; o < kept; o++) {
+      long[] closure = closures.get(o);
+      if (closure != null && !Bits.get(invalid, o)) {
+        carried.set(o, closure);
+      }
+    }
+    return carried;
+  }
+
+  /**
+   * Vérifie qu'une sélection, donnée sous forme d'ensemble de bits d'ordinaux,
+   * ne contient aucune incompatibilité et satisfait toutes ses exigences.
+   *
+   * @param selection l'ensemble de bits des pièces sélectionnées
+   * @return true si la sélection est valide, false sinon
+   */
+  public boolean isValidSelection(long[] selection) {
+    for (int o = Bits.nextSetBit(selection, 0); o >= 0; o = Bits.nextSetBit(selection, o + 1)) {
+      if (Bits.intersects(row(incompatibilities, o), selection)
+          || !Bits.containsAll(selection, row(requirements, o))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Valide une sélection en un seul parcours et liste toutes les règles
+   * violées. Une incompatibilité n'est rapportée qu'une fois, depuis la pièce
+   * de plus petit ordinal.
+   *
+   * @param selection l'ensemble de bits des pièces sélectionnées
+   * @param index     l'index permettant de retrouver les pièces des ordinaux
+   * @return le verdict de validation
+   */
+  public ValidationResult validate(long[] selection, PartTypeIndex index) {
+    List<Violation> violations = null;
+    for (int o = Bits.nextSetBit(selection, 0); o >= 0; o = Bits.nextSetBit(selection, o + 1)) {
+      long[] incompatible = row(incompatibilities, o);
+      long[] required = row(requirements, o);
+      // Les incompatibilités symétriques ne sont parcourues qu'à partir de o
+      for (int w = o >>> 6; w < incompatible.length && w < selection.length; w++) {
+        long word = incompatible[w] & selection[w];
+        if (w == o >>> 6) {
+          word &= -1L << o;
+        }
+        for (; word != 0; word &= word - 1) {
+          int t = (w << 6) + Long.numberOfTrailingZeros(word);
+          violations = add(violations, Violation.Kind.INCOMPATIBILITY, index.get(o), index.get(t));
+        }
+      }
+      for (int w = 0; w < required.length; w++) {
+        long word = required[w] & ~(w < selection.length ? selection[w] : 0L);
+        for (; word != 0; word &= word - 1) {
+          int t = (w << 6) + Long.numberOfTrailingZeros(word);
+          violations = add(violations, Violation.Kind.REQUIREMENT, index.get(o), index.get(t));
+        }
+      }
+    }
+    return violations == null ? ValidationResultImpl.VALID : new ValidationResultImpl(violations);
+  }
+
+  private static List<Violation> add(List<Violation> violations, Violation.Kind kind, PartType source,
+      PartType target) {
+    List<Violation> list = violations == null ? new ArrayList<>() : violations;
+    list.add(new ViolationImpl(kind, source, target));
+    return list;
+  }
+
+  /**
+   * Retourne les lignes d'incompatibilités, pour la construction d'une
+   * nouvelle version.
+   */
+  long[][] incompatibilityRows() {
+    return incompatibilities;
+  }
+
+  /**
+   * Retourne les lignes d'exigences, pour la construction d'une nouvelle
+   * version.
+   */
+  long[][] requirementRows() {
+    return requirements;
+  }
+
+  /**
+   * Retourne les lignes d'exigences inverses, pour la construction d'une
+   * nouvelle version.
+   */
+  long[][] requiredByRows() {
+    return requiredBy;
+  }
+
+  /**
+   * Retourne la ligne de règles d'un ordinal, ou l'ensemble vide.
+   *
+   * @param rows    les lignes de règles
+   * @param ordinal l'ordinal
+   * @return la ligne de bits, jamais null
+   */
+  static long[] row(long[][] rows, int ordinal) {
+    long[] bits = ordinal < rows.length ? rows[ordinal] : null;
+    return bits == null ? Bits.EMPTY : bits;
+  }
+}
@@ -0,0 +1,101 @@
+package fr.istic.bodin_bodier.cartaylor.impl;
+
+import fr.istic.bodin_bodier.cartaylor.api.CompatibilityChecker;
+import fr.istic.bodin_bodier.cartaylor.api.PartType;
+import fr.istic.bodin_bodier.cartaylor.api.ValidationResult;
+import fr.istic.bodin_bodier.cartaylor.api.Violation;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Implémentation immuable de l'interface ValidationResult.
+ * 
+ * @see ValidationResult
+ */
+public class ValidationResultImpl implements ValidationResult {
+
+  /** Verdict partagé des sélections valides */
+  public static final ValidationResult VALID = new ValidationResultImpl(List.of());
+
+  private final List<Violation> violations;
+
+  /**
+   * Constructeur de la classe ValidationResultImpl.
+   * 
+   * @param violations les règles violées
+   * @throws IllegalArgumentException si la liste est null
+   */
+  public ValidationResultImpl(List<Violation> violations) {
+    if (violations == null) {
+      throw new IllegalArgumentException("Les violations ne peuvent pas être null");
+    }
+    this.violations = List.copyOf(violations);
+  }
+
+  /**
+   * Retourne le verdict correspondant à une liste de violations.
+   * 
+   * @param violations les règles violées
+   * @return le verdict partagé si la liste est vide, un nouveau verdict sinon
+   */
+  public static ValidationResult of(List<Violation> violations) {
+    return violations.isEmpty() ? VALID : new ValidationResultImpl(violations);
+  }
+
+  /**
+   * Valide une sélection à l'aide des seules méthodes de
+   * {@link CompatibilityChecker}, pour les vérificateurs ne reposant pas sur
+   * des ensembles de bits.
+   * 
+   * @param checker       le vérificateur de compatibilité
+   * @param selectedParts les pièces sélectionnées
+   * @return le verdict de validation
+   */
+  static ValidationResult of(CompatibilityChecker checker, Set<PartType> selectedParts) {
+    List<Violation> violations = new ArrayList<>();
+    Set<PartType> reported = new HashSet<>();
+    for (PartType part : selectedParts) {
+      for (PartType incompatible : checker.getIncompatibilities(part)) {
+        // Une incompatibilité symétrique n'est rapportée qu'une fois
+        if (selectedParts.contains(incompatible) && !reported.contains(incompatible)) {
+          violations.add(new ViolationImpl(Violation.Kind.INCOMPATIBILITY, part, incompatible));
+        }
+      }
+      reported.add(part);
+      for (PartType required : checker.getRequirements(part)) {
+        if (!selectedParts.contains(required)) {
+          violations.add(new ViolationImpl(Violation.Kind.REQUIREMENT, part, required));
+        }
+      }
+    }
+    return of(violations);
+  }
+
+  @Override
+  public boolean isValid() {
+    return violations.isEmpty();
+  }
+
+  @Override
+  public List<Violation> getViolations() {
+    return violations;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof ValidationResultImpl && violations.equals(((ValidationResultImpl) o).violations);
+  }
+
+  @Override
+  public int hashCode() {
+    return violations.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return isValid() ? "Configuration valide" : "Règles violées : " + violations;
+  }
+}
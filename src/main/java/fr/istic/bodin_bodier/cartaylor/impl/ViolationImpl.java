@@ -0,0 +1,72 @@
+package fr.istic.bodin_bodier.cartaylor.impl;
+
+import fr.istic.bodin_bodier.cartaylor.api.PartType;
+import fr.istic.bodin_bodier.cartaylor.api.Violation;
+
+import java.util.Objects;
+
+/**
+ * Implémentation immuable de l'interface Violation.
+ * 
+ * @see Violation
+ */
+public class ViolationImpl implements Violation {
+  private final Kind kind;
+  private final PartType source;
+  private final PartType target;
+
+  /**
+   * Constructeur de la classe ViolationImpl.
+   * 
+   * @param kind   la nature de la règle violée
+   * @param source la pièce de référence de la règle
+   * @param target la pièce cible de la règle
+   * @throws IllegalArgumentException si un des paramètres est null
+   */
+  public ViolationImpl(Kind kind, PartType source, PartType target) {
+    if (kind == null || source == null || target == null) {
+      throw new IllegalArgumentException("Les paramètres ne peuvent pas être null");
+    }
+    this.kind = kind;
+    this.source = source;
+    this.target = target;
+  }
+
+  @Override
+  public Kind getKind() {
+    return kind;
+  }
+
+  @Override
+  public PartType getSource() {
+    return source;
+  }
+
+  @Override
+  public PartType getTarget() {
+    return target;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof ViolationImpl)) {
+      return false;
+    }
+    ViolationImpl other = (ViolationImpl) o;
+    return kind == other.kind && source.equals(other.source) && target.equals(other.target);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(kind, source, target);
+  }
+
+  @Override
+  public String toString() {
+    String relation = kind == Kind.INCOMPATIBILITY ? " incompatible avec " : " requiert ";
+    return source.getName() + relation + target.getName();
+  }
+}
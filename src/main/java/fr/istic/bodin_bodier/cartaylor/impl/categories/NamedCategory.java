@@ -0,0 +1,20 @@
+package fr.istic.bodin_bodier.cartaylor.impl.categories;
+
+import fr.istic.bodin_bodier.cartaylor.impl.AbstractCategory;
+
+/**
+ * Classe représentant une catégorie déclarée par le catalogue, sans
+ * propriété propre.
+ */
+public class NamedCategory extends AbstractCategory {
+
+  /**
+   * Constructeur d'une catégorie déclarée.
+   * 
+   * @param name le nom de la catégorie
+   * @throws IllegalArgumentException si le nom est null ou vide
+   */
+  public NamedCategory(String name) {
+    super(name);
+  }
+}
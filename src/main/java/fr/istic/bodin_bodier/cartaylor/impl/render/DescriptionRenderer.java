@@ -0,0 +1,168 @@
+package fr.istic.bodin_bodier.cartaylor.impl.render;
+
+import fr.istic.bodin_bodier.cartaylor.api.Configuration;
+import fr.istic.bodin_bodier.cartaylor.api.Element;
+import fr.istic.bodin_bodier.cartaylor.api.Part;
+import fr.istic.bodin_bodier.cartaylor.api.PartType;
+import fr.istic.bodin_bodier.cartaylor.api.Visitor;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Visiteur produisant la description d'éléments du configurateur directement
+ * dans une destination, sans construire le document en mémoire.
+ *
+ * <p>
+ * La destination est un {@link Appendable} (par exemple un
+ * {@link StringBuilder} ou un {@link java.io.Writer}), ou un
+ * {@link WritableByteChannel} recevant le document encodé en UTF-8. Le
+ * balisage statique est pré-encodé une fois pour toutes (voir
+ * {@link Fragment}) ; les noms et les nombres sont écrits caractère par
+ * caractère, sans chaîne intermédiaire.
+ *
+ * <p>
+ * Un même moteur de rendu peut décrire successivement de nombreux éléments.
+ * Les écritures vers un canal sont mises en tampon : {@link #flush()} doit
+ * être appelé à la fin, ou chaque élément rendu avec {@link #render(Element)}.
+ * Les erreurs d'écriture sont signalées par une
+ * {@link UncheckedIOException}. Un moteur de rendu n'est pas sûr vis-à-vis
+ * des threads.
+ */
+public abstract class DescriptionRenderer implements Visitor, Flushable {
+  private final Sink sink;
+
+  /**
+   * Constructeur écrivant dans un {@link Appendable}.
+   *
+   * @param out la destination
+   * @throws IllegalArgumentException si la destination est null
+   */
+  DescriptionRenderer(Appendable out) {
+    if (out == null) {
+      throw new IllegalArgumentException("La destination ne peut pas être null");
+    }
+    this.sink = new Sink.AppendableSink(out);
+  }
+
+  /**
+   * Constructeur écrivant en UTF-8 dans un canal.
+   *
+   * @param channel la destination
+   * @throws IllegalArgumentException si la destination est null
+   */
+  DescriptionRenderer(WritableByteChannel channel) {
+    if (channel == null) {
+      throw new IllegalArgumentException("La destination ne peut pas être null");
+    }
+    this.sink = new Sink.ChannelSink(channel);
+  }
+
+  /**
+   * Décrit un élément puis vide le tampon de la destination.
+   *
+   * @param element l'élément à décrire
+   * @throws IllegalArgumentException si l'élément est null
+   * @throws UncheckedIOException     en cas d'erreur d'écriture
+   */
+  public void render(Element element) {
+    if (element == null) {
+      throw new IllegalArgumentException("L'élément ne peut pas être null");
+    }
+    element.accept(this);
+    flush();
+  }
+
+  /**
+   * Vide le tampon de la destination.
+   *
+   * @throws UncheckedIOException en cas d'erreur d'écriture
+   */
+  @Override
+  public void flush() {
+    try {
+      sink.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Retourne le remplacement d'un caractère à échapper, ou null si le
+   * caractère peut être écrit tel quel.
+   *
+   * @param c le caractère
+   * @return le fragment de remplacement, ou null
+   */
+  abstract Fragment escape(char c);
+
+  void write(Fragment fragment) {
+    try {
+      sink.write(fragment);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  void write(long value) {
+    try {
+      sink.write(value);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Écrit un texte en échappant ses caractères spéciaux. Les suites de
+   * caractères sans échappement sont écrites d'un bloc.
+   *
+   * @param text le texte
+   */
+  void writeEscaped(CharSequence text) {
+    try {
+      int start = 0;
+      int length = text.length();
+      for (int i = 0; i < length; i++) {
+        Fragment replacement = escape(text.charAt(i));
+        if (replacement != null) {
+          sink.write(text, start, i);
+          sink.write(replacement);
+          start = i + 1;
+        }
+      }
+      sink.write(text, start, length);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Retourne les pièces sélectionnées d'une configuration, triées par nom de
+   * catégorie pour une présentation cohérente.
+   *
+   * @param configuration la configuration
+   * @return les pièces triées
+   */
+  static List<PartType> sortedSelection(Configuration configuration) {
+    List<PartType> parts = new ArrayList<>(configuration.getSelectedParts());
+    parts.sort(Comparator.comparing(part -> part.getCategory().getName()));
+    return parts;
+  }
+
+  /**
+   * Retourne les noms des propriétés d'une pièce, triés.
+   *
+   * @param part la pièce
+   * @return les noms triés
+   */
+  static List<String> sortedPropertyNames(Part part) {
+    List<String> names = new ArrayList<>(part.getPropertyNames());
+    names.sort(null);
+    return names;
+  }
+}
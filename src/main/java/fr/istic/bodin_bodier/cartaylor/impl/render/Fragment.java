@@ -0,0 +1,47 @@
+package fr.istic.bodin_bodier.cartaylor.impl.render;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fragment statique d'un rendu, conservé à la fois sous forme de texte et
+ * pré-encodé en UTF-8, afin d'être écrit sans conversion quelle que soit la
+ * destination.
+ */
+final class Fragment {
+  private final String text;
+  private final byte[] utf8;
+
+  private Fragment(String text) {
+    this.text = text;
+    this.utf8 = text.getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Crée un fragment.
+   *
+   * @param text le texte du fragment
+   * @return le fragment
+   */
+  static Fragment of(String text) {
+    return new Fragment(text);
+  }
+
+  /**
+   * Retourne le texte du fragment.
+   *
+   * @return le texte
+   */
+  String text() {
+    return text;
+  }
+
+  /**
+   * Retourne l'encodage UTF-8 du fragment. Le tableau ne doit pas être
+   * modifié.
+   *
+   * @return les octets du fragment
+   */
+  byte[] utf8() {
+    return utf8;
+  }
+}
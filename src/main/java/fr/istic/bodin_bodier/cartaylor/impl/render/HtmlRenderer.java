@@ -0,0 +1,127 @@
+package fr.istic.bodin_bodier.cartaylor.impl.render;
+
+import fr.istic.bodin_bodier.cartaylor.api.Category;
+import fr.istic.bodin_bodier.cartaylor.api.Configuration;
+import fr.istic.bodin_bodier.cartaylor.api.Part;
+import fr.istic.bodin_bodier.cartaylor.api.PartType;
+
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Rendu HTML des éléments du configurateur. Une configuration est décrite
+ * comme par {@link Configuration#getHtmlDescription()} ; les noms sont
+ * échappés.
+ */
+public class HtmlRenderer extends DescriptionRenderer {
+  private static final Fragment INVALID = Fragment.of(
+      "<p style='color: red'>La configuration n'est pas valide ou est incomplète.</p>");
+  private static final Fragment CONFIGURATION_START = Fragment.of(
+      "<div class='configuration'><h3>Configuration de la voiture</h3><ul>");
+  private static final Fragment CONFIGURATION_END = Fragment.of("</ul></div>");
+  private static final Fragment TOTAL_START = Fragment.of("<li>Prix total: ");
+  private static final Fragment ITEM_START = Fragment.of("<li><strong>");
+  private static final Fragment ITEM_NAME = Fragment.of(":</strong> ");
+  private static final Fragment ITEM_PRICE = Fragment.of("<br>Prix: ");
+  private static final Fragment PRICE_END = Fragment.of(" €");
+  private static final Fragment ITEM_END = Fragment.of("</li>");
+  private static final Fragment PROPERTY_START = Fragment.of("<br>");
+  private static final Fragment PROPERTY_VALUE = Fragment.of(": ");
+  private static final Fragment CATEGORY_START = Fragment.of("<span class='category'>");
+  private static final Fragment CATEGORY_END = Fragment.of("</span>");
+
+  private static final Fragment LT = Fragment.of("&lt;");
+  private static final Fragment GT = Fragment.of("&gt;");
+  private static final Fragment AMP = Fragment.of("&amp;");
+  private static final Fragment QUOT = Fragment.of("&quot;");
+  private static final Fragment APOS = Fragment.of("&#39;");
+
+  /**
+   * Constructeur écrivant dans un {@link Appendable}.
+   *
+   * @param out la destination
+   * @throws IllegalArgumentException si la destination est null
+   */
+  public HtmlRenderer(Appendable out) {
+    super(out);
+  }
+
+  /**
+   * Constructeur écrivant en UTF-8 dans un canal.
+   *
+   * @param channel la destination
+   * @throws IllegalArgumentException si la destination est null
+   */
+  public HtmlRenderer(WritableByteChannel channel) {
+    super(channel);
+  }
+
+  @Override
+  public void visit(Configuration configuration) {
+    if (!configuration.isValid() || !configuration.isComplete()) {
+      write(INVALID);
+      return;
+    }
+    write(CONFIGURATION_START);
+    for (PartType partType : sortedSelection(configuration)) {
+      partType.accept(this);
+    }
+    write(TOTAL_START);
+    write(configuration.getTotalPrice());
+    write(PRICE_END);
+    write(ITEM_END);
+    write(CONFIGURATION_END);
+  }
+
+  @Override
+  public void visit(PartType partType) {
+    writeItem(partType);
+    write(ITEM_END);
+  }
+
+  @Override
+  public void visit(Category category) {
+    write(CATEGORY_START);
+    writeEscaped(category.getName());
+    write(CATEGORY_END);
+  }
+
+  @Override
+  public void visit(Part part) {
+    writeItem(part.getType());
+    for (String name : sortedPropertyNames(part)) {
+      write(PROPERTY_START);
+      writeEscaped(name);
+      write(PROPERTY_VALUE);
+      writeEscaped(part.getProperty(name).orElse(""));
+    }
+    write(ITEM_END);
+  }
+
+  private void writeItem(PartType partType) {
+    write(ITEM_START);
+    writeEscaped(partType.getCategory().getName());
+    write(ITEM_NAME);
+    writeEscaped(partType.getName());
+    write(ITEM_PRICE);
+    write(partType.getPrice());
+    write(PRICE_END);
+  }
+
+  @Override
+  Fragment escape(char c) {
+    switch (c) {
+      case '<':
+        return LT;
+      case '>':
+        return GT;
+      case '&':
+        return AMP;
+      case '"':
+        return QUOT;
+      case '\'':
+        return APOS;
+      default:
+        return null;
+    }
+  }
+}
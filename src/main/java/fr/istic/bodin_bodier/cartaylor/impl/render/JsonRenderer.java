@@ -0,0 +1,142 @@
+package fr.istic.bodin_bodier.cartaylor.impl.render;
+
+import fr.istic.bodin_bodier.cartaylor.api.Category;
+import fr.istic.bodin_bodier.cartaylor.api.Configuration;
+import fr.istic.bodin_bodier.cartaylor.api.Part;
+import fr.istic.bodin_bodier.cartaylor.api.PartType;
+
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+/**
+ * Rendu JSON compact des éléments du configurateur. Une configuration est
+ * décrite par son état, ses pièces triées par catégorie et son prix total :
+ *
+ * <pre>
+ * {"valid":true,"complete":true,"parts":[{"category":"Engine","name":"V8","price":10000}],"totalPrice":10000}
+ * </pre>
+ */
+public class JsonRenderer extends DescriptionRenderer {
+  private static final Fragment VALID = Fragment.of("{\"valid\":");
+  private static final Fragment COMPLETE = Fragment.of(",\"complete\":");
+  private static final Fragment PARTS = Fragment.of(",\"parts\":[");
+  private static final Fragment TOTAL_PRICE = Fragment.of("],\"totalPrice\":");
+  private static final Fragment CATEGORY = Fragment.of("{\"category\":\"");
+  private static final Fragment NAME = Fragment.of("\",\"name\":\"");
+  private static final Fragment PRICE = Fragment.of("\",\"price\":");
+  private static final Fragment PROPERTIES = Fragment.of(",\"properties\":{");
+  private static final Fragment CATEGORY_NAME = Fragment.of("{\"name\":\"");
+  private static final Fragment KEY_START = Fragment.of("\"");
+  private static final Fragment KEY_END = Fragment.of("\":\"");
+  private static final Fragment STRING_END = Fragment.of("\"");
+  private static final Fragment STRING_END_OBJECT = Fragment.of("\"}");
+  private static final Fragment COMMA = Fragment.of(",");
+  private static final Fragment OBJECT_END = Fragment.of("}");
+  private static final Fragment TRUE = Fragment.of("true");
+  private static final Fragment FALSE = Fragment.of("false");
+
+  private static final Fragment QUOTE = Fragment.of("\\\"");
+  private static final Fragment BACKSLASH = Fragment.of("\\\\");
+  /** Échappements des caractères de contrôle, pré-calculés */
+  private static final Fragment[] CONTROLS = new Fragment[0x20];
+
+  static {
+    for (char c = 0; c < CONTROLS.length; c++) {
+      CONTROLS[c] = Fragment.of(String.format("\\u%04x", (int) c));
+    }
+    CONTROLS['\n'] = Fragment.of("\\n");
+    CONTROLS['\r'] = Fragment.of("\\r");
+    CONTROLS['\t'] = Fragment.of("\\t");
+  }
+
+  /**
+   * Constructeur écrivant dans un {@link Appendable}.
+   *
+   * @param out la destination
+   * @throws IllegalArgumentException si la destination est null
+   */
+  public JsonRenderer(Appendable out) {
+    super(out);
+  }
+
+  /**
+   * Constructeur écrivant en UTF-8 dans un canal.
+   *
+   * @param channel la destination
+   * @throws IllegalArgumentException si la destination est null
+   */
+  public JsonRenderer(WritableByteChannel channel) {
+    super(channel);
+  }
+
+  @Override
+  public void visit(Configuration configuration) {
+    write(VALID);
+    write(configuration.isValid() ? TRUE : FALSE);
+    write(COMPLETE);
+    write(configuration.isComplete() ? TRUE : FALSE);
+    write(PARTS);
+    List<PartType> parts = sortedSelection(configuration);
+    for (int i = 0; i < parts.size(); i++) {
+      if (i > 0) {
+        write(COMMA);
+      }
+      parts.get(i).accept(this);
+    }
+    write(TOTAL_PRICE);
+    write(configuration.getTotalPrice());
+    write(OBJECT_END);
+  }
+
+  @Override
+  public void visit(PartType partType) {
+    writePartType(partType);
+    write(OBJECT_END);
+  }
+
+  @Override
+  public void visit(Category category) {
+    write(CATEGORY_NAME);
+    writeEscaped(category.getName());
+    write(STRING_END_OBJECT);
+  }
+
+  @Override
+  public void visit(Part part) {
+    writePartType(part.getType());
+    write(PROPERTIES);
+    List<String> names = sortedPropertyNames(part);
+    for (int i = 0; i < names.size(); i++) {
+      if (i > 0) {
+        write(COMMA);
+      }
+      write(KEY_START);
+      writeEscaped(names.get(i));
+      write(KEY_END);
+      writeEscaped(part.getProperty(names.get(i)).orElse(""));
+      write(STRING_END);
+    }
+    write(OBJECT_END);
+    write(OBJECT_END);
+  }
+
+  private void writePartType(PartType partType) {
+    write(CATEGORY);
+    writeEscaped(partType.getCategory().getName());
+    write(NAME);
+    writeEscaped(partType.getName());
+    write(PRICE);
+    write(partType.getPrice());
+  }
+
+  @Override
+  Fragment escape(char c) {
+    if (c < CONTROLS.length) {
+      return CONTROLS[c];
+    }
+    if (c == '"') {
+      return QUOTE;
+    }
+    return c == '\\' ? BACKSLASH : null;
+  }
+}
@@ -0,0 +1,186 @@
+package fr.istic.bodin_bodier.cartaylor.impl.render;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Destination d'un rendu. Les nombres et les textes dynamiques y sont écrits
+ * sans construire de chaîne intermédiaire.
+ */
+abstract class Sink implements Flushable {
+
+  /**
+   * Écrit un fragment statique.
+   *
+   * @param fragment le fragment
+   * @throws IOException en cas d'erreur d'écriture
+   */
+  abstract void write(Fragment fragment) throws IOException;
+
+  /**
+   * Écrit une partie d'un texte.
+   *
+   * @param text  le texte
+   * @param start l'indice du premier caractère
+   * @param end   l'indice suivant le dernier caractère
+   * @throws IOException en cas d'erreur d'écriture
+   */
+  abstract void write(CharSequence text, int start, int end) throws IOException;
+
+  /**
+   * Écrit un caractère ASCII.
+   *
+   * @param c le caractère
+   * @throws IOException en cas d'erreur d'écriture
+   */
+  abstract void writeAscii(char c) throws IOException;
+
+  /**
+   * Écrit un entier en décimal.
+   *
+   * @param value l'entier
+   * @throws IOException en cas d'erreur d'écriture
+   */
+  void write(long value) throws IOException {
+    if (value == Long.MIN_VALUE) {
+      write("-9223372036854775808", 0, 20);
+      return;
+    }
+    if (value < 0) {
+      writeAscii('-');
+      value = -value;
+    }
+    long divisor = 1;
+    while (divisor <= value / 10) {
+      divisor *= 10;
+    }
+    for (; divisor > 0; divisor /= 10) {
+      writeAscii((char) ('0' + value / divisor % 10));
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+  }
+
+  /**
+   * Destination écrivant dans un {@link Appendable}.
+   */
+  static final class AppendableSink extends Sink {
+    private final Appendable out;
+
+    AppendableSink(Appendable out) {
+      this.out = out;
+    }
+
+    @Override
+    void write(Fragment fragment) throws IOException {
+      out.append(fragment.text());
+    }
+
+    @Override
+    void write(CharSequence text, int start, int end) throws IOException {
+      out.append(text, start, end);
+    }
+
+    @Override
+    void writeAscii(char c) throws IOException {
+      out.append(c);
+    }
+
+    @Override
+    void write(long value) throws IOException {
+      if (out instanceof StringBuilder) {
+        ((StringBuilder) out).append(value);
+      } else {
+        super.write(value);
+      }
+    }
+  }
+
+  /**
+   * Destination écrivant en UTF-8 dans un {@link WritableByteChannel}, à
+   * travers un tampon réutilisé. Les textes dynamiques sont encodés
+   * directement dans le tampon.
+   */
+  static final class ChannelSink extends Sink {
+    private static final int CAPACITY = 8192;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer;
+
+    ChannelSink(WritableByteChannel channel) {
+      this.channel = channel;
+      this.buffer = ByteBuffer.allocate(CAPACITY);
+    }
+
+    @Override
+    void write(Fragment fragment) throws IOException {
+      byte[] bytes = fragment.utf8();
+      if (bytes.length > buffer.remaining()) {
+        drain();
+        if (bytes.length > buffer.capacity()) {
+          writeFully(ByteBuffer.wrap(bytes));
+          return;
+        }
+      }
+      buffer.put(bytes);
+    }
+
+    @Override
+    void write(CharSequence text, int start, int end) throws IOException {
+      for (int i = start; i < end; i++) {
+        char c = text.charAt(i);
+        // Un caractère occupe au plus quatre octets
+        if (buffer.remaining() < 4) {
+          drain();
+        }
+        if (c < 0x80) {
+          buffer.put((byte) c);
+        } else if (c < 0x800) {
+          buffer.put((byte) (0xC0 | c >> 6));
+          buffer.put((byte) (0x80 | c & 0x3F));
+        } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(text.charAt(i + 1))) {
+          int code = Character.toCodePoint(c, text.charAt(++i));
+          buffer.put((byte) (0xF0 | code >> 18));
+          buffer.put((byte) (0x80 | code >> 12 & 0x3F));
+          buffer.put((byte) (0x80 | code >> 6 & 0x3F));
+          buffer.put((byte) (0x80 | code & 0x3F));
+        } else if (Character.isSurrogate(c)) {
+          buffer.put((byte) '?');
+        } else {
+          buffer.put((byte) (0xE0 | c >> 12));
+          buffer.put((byte) (0x80 | c >> 6 & 0x3F));
+          buffer.put((byte) (0x80 | c & 0x3F));
+        }
+      }
+    }
+
+    @Override
+    void writeAscii(char c) throws IOException {
+      if (!buffer.hasRemaining()) {
+        drain();
+      }
+      buffer.put((byte) c);
+    }
+
+    @Override
+    public void flush() throws IOException {
+      drain();
+    }
+
+    private void drain() throws IOException {
+      buffer.flip();
+      writeFully(buffer);
+      buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer bytes) throws IOException {
+      while (bytes.hasRemaining()) {
+        channel.write(bytes);
+      }
+    }
+  }
+}
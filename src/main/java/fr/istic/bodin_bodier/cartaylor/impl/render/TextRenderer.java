@@ -0,0 +1,96 @@
+package fr.istic.bodin_bodier.cartaylor.impl.render;
+
+import fr.istic.bodin_bodier.cartaylor.api.Category;
+import fr.istic.bodin_bodier.cartaylor.api.Configuration;
+import fr.istic.bodin_bodier.cartaylor.api.Part;
+import fr.istic.bodin_bodier.cartaylor.api.PartType;
+
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Rendu en texte brut des éléments du configurateur, une ligne par
+ * information, dans le format de
+ * {@link fr.istic.bodin_bodier.cartaylor.impl.PrintDescriptionVisitor}. Les
+ * lignes se terminent par '\n' ; les pièces d'une configuration sont triées
+ * par catégorie et suivies du prix total.
+ */
+public class TextRenderer extends DescriptionRenderer {
+  private static final Fragment CONFIGURATION = Fragment.of("Configuration: \n");
+  private static final Fragment TOTAL = Fragment.of("Total: ");
+  private static final Fragment CATEGORY = Fragment.of("Category: ");
+  private static final Fragment PART_TYPE = Fragment.of("PartType: ");
+  private static final Fragment PRICE = Fragment.of(", Price: ");
+  private static final Fragment PROPERTY = Fragment.of("  ");
+  private static final Fragment PROPERTY_VALUE = Fragment.of(": ");
+  private static final Fragment NEWLINE = Fragment.of("\n");
+  private static final Fragment SPACE = Fragment.of(" ");
+
+  /**
+   * Constructeur écrivant dans un {@link Appendable}.
+   *
+   * @param out la destination
+   * @throws IllegalArgumentException si la destination est null
+   */
+  public TextRenderer(Appendable out) {
+    super(out);
+  }
+
+  /**
+   * Constructeur écrivant en UTF-8 dans un canal.
+   *
+   * @param channel la destination
+   * @throws IllegalArgumentException si la destination est null
+   */
+  public TextRenderer(WritableByteChannel channel) {
+    super(channel);
+  }
+
+  @Override
+  public void visit(Configuration configuration) {
+    write(CONFIGURATION);
+    for (PartType partType : sortedSelection(configuration)) {
+      partType.accept(this);
+    }
+    write(TOTAL);
+    write(configuration.getTotalPrice());
+    write(NEWLINE);
+  }
+
+  @Override
+  public void visit(PartType partType) {
+    partType.getCategory().accept(this);
+    write(PART_TYPE);
+    writeEscaped(partType.getName());
+    write(PRICE);
+    write(partType.getPrice());
+    write(NEWLINE);
+  }
+
+  @Override
+  public void visit(Category category) {
+    write(CATEGORY);
+    writeEscaped(category.getName());
+    write(NEWLINE);
+  }
+
+  @Override
+  public void visit(Part part) {
+    part.getType().accept(this);
+    for (String name : sortedPropertyNames(part)) {
+      write(PROPERTY);
+      writeEscaped(name);
+      write(PROPERTY_VALUE);
+      writeEscaped(part.getProperty(name).orElse(""));
+      write(NEWLINE);
+    }
+  }
+
+  /**
+   * Les retours à la ligne d'un nom sont remplacés par des espaces, afin que
+   * chaque information tienne sur une ligne.
+   */
+  @Override
+  Fragment escape(char c) {
+    return c == '\n' || c == '\r' ? SPACE : null;
+  }
+}
@@ -0,0 +1,151 @@
+package fr.istic.bodin_bodier.cartaylor.impl.solver;
+
+import fr.istic.bodin_bodier.cartaylor.impl.Bits;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Recherche par séparation et évaluation de la solution de coût minimal d'un
+ * {@link ConstraintModel}, chaque variante ayant un coût propre.
+ *
+ * <p>
+ * Chaque nœud de l'arbre est rendu arc-consistant (voir {@link Propagator}),
+ * puis évalué par la somme, sur toutes les catégories, du coût minimal des
+ * variantes restantes. Un nœud dont cette borne ne peut pas améliorer la
+ * meilleure solution connue est coupé. Les variantes sont essayées par coût
+ * croissant, de sorte qu'une bonne solution est trouvée tôt et que l'essentiel
+ * de l'arbre est élagué ; cet ordre est calculé une fois pour toutes à la
+ * construction, et l'exploration d'un nœud n'alloue que les domaines fils.
+ *
+ * <p>
+ * Une échéance peut interrompre la recherche à tout moment : la meilleure
+ * solution trouvée est alors conservée, et aucune ne l'est si l'échéance
+ * survient avant la première.
+ */
+final class BranchAndBound {
+  private final ConstraintModel model;
+  private final long[] costs;
+  /** Variantes de chaque catégorie par coût croissant, aux indices du modèle */
+  private final int[] order;
+  private final long deadline;
+  private final boolean timed;
+  private int[] best;
+  private long bestCost;
+  private boolean interrupted;
+
+  /**
+   * Constructeur d'une recherche sans échéance.
+   *
+   * @param model le modèle
+   * @param costs le coût de chaque variante
+   */
+  BranchAndBound(ConstraintModel model, long[] costs) {
+    this(model, costs, 0, false);
+  }
+
+  /**
+   * Constructeur d'une recherche interrompue à une échéance.
+   *
+   * @param model    le modèle
+   * @param costs    le coût de chaque variante
+   * @param deadline l'échéance, au sens de {@link System#nanoTime()}
+   */
+  BranchAndBound(ConstraintModel model, long[] costs, long deadline) {
+    this(model, costs, deadline, true);
+  }
+
+  private BranchAndBound(ConstraintModel model, long[] costs, long deadline, boolean timed) {
+    this.model = model;
+    this.costs = costs;
+    this.order = new int[model.valueCount()];
+    for (int c = 0; c < model.categoryCount(); c++) {
+      Integer[] variants = new Integer[model.end(c) - model.start(c)];
+      for (int i = 0; i < variants.length; i++) {
+        variants[i] = model.start(c) + i;
+      }
+      Arrays.sort(variants, Comparator.comparingLong(v -> costs[v]));
+      for (int i = 0; i < variants.length; i++) {
+        order[model.start(c) + i] = variants[i];
+      }
+    }
+    this.deadline = deadline;
+    this.timed = timed;
+    this.bestCost = Long.MAX_VALUE;
+  }
+
+  /**
+   * Retourne la meilleure solution trouvée.
+   *
+   * @return l'indice de variante choisi pour chaque catégorie, ou null
+   */
+  int[] best() {
+    return best;
+  }
+
+  /**
+   * Retourne le coût de la meilleure solution trouvée.
+   *
+   * @return le coût, ou Long.MAX_VALUE si aucune solution n'est connue
+   */
+  long bestCost() {
+    return bestCost;
+  }
+
+  /**
+   * Indique si la recherche a été interrompue par l'échéance.
+   *
+   * @return true si la meilleure solution n'est pas prouvée optimale
+   */
+  boolean isInterrupted() {
+    return interrupted;
+  }
+
+  /**
+   * Explore un nœud arc-consistant.
+   *
+   * @param domain le domaine du nœud
+   */
+  void explore(long[] domain) {
+    if (interrupted || bound(domain) >= bestCost) {
+      return;
+    }
+    if (timed && System.nanoTime() - deadline >= 0) {
+      interrupted = true;
+      return;
+    }
+    int c = Propagator.chooseCategory(model, domain);
+    if (c < 0) {
+      best = Propagator.solution(model, domain);
+      bestCost = bound(domain);
+      return;
+    }
+    for (int i = model.start(c); i < model.end(c); i++) {
+      int v = order[i];
+      if (!Bits.get(domain, v)) {
+        continue;
+      }
+      long[] child = Propagator.assign(model, domain, v);
+      if (Propagator.propagate(model, child, c)) {
+        explore(child);
+      }
+    }
+  }
+
+  /**
+   * Borne inférieure du coût de toute solution du domaine : somme des coûts
+   * minimaux de chaque catégorie.
+   */
+  private long bound(long[] domain) {
+    long total = 0;
+    for (int c = 0; c < model.categoryCount(); c++) {
+      long min = Long.MAX_VALUE;
+      int end = model.end(c);
+      for (int v = Bits.nextSetBit(domain, model.start(c)); v >= 0 && v < end; v = Bits.nextSetBit(domain, v + 1)) {
+        min = Math.min(min, costs[v]);
+      }
+      total += min;
+    }
+    return total;
+  }
+}
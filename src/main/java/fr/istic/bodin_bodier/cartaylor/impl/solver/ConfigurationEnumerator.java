@@ -0,0 +1,324 @@
+package fr.istic.bodin_bodier.cartaylor.impl.solver;
+
+import fr.istic.bodin_bodier.cartaylor.api.Configuration;
+import fr.istic.bodin_bodier.cartaylor.api.Configurator;
+import fr.istic.bodin_bodier.cartaylor.impl.Bits;
+
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Énumération exhaustive des configurations valides et complètes d'un
+ * configurateur.
+ *
+ * <p>
+ * L'arbre de recherche affecte une catégorie par niveau, en choisissant
+ * toujours la catégorie ouverte ayant le moins de variantes, et maintient la
+ * consistance d'arc à chaque choix (voir {@link Propagator}) : toute branche
+ * ne pouvant mener à aucune solution est coupée dès qu'elle devient
+ * inconsistante, sans jamais parcourir le produit cartésien des variantes.
+ *
+ * <p>
+ * Les solutions sont produites paresseusement par un {@link Spliterator} dont
+ * la découpe partage les nœuds en attente de l'arbre : un flux parallèle
+ * répartit ainsi la recherche entre les travailleurs fork-join. Le
+ * dénombrement, qui ne construit aucune configuration, découpe l'arbre en
+ * tâches {@link RecursiveTask}. Il s'arrête dès qu'un nœud n'a plus que des
+ * variantes ouvertes deux à deux compatibles : ses solutions sont alors le
+ * produit des tailles des domaines, compté en {@link BigInteger} sans
+ * dépassement.
+ */
+public class ConfigurationEnumerator {
+  /** Profondeur jusqu'à laquelle le dénombrement crée des sous-tâches */
+  private static final int FORK_DEPTH = 6;
+
+  private final Configurator configurator;
+  private final ForkJoinPool pool;
+  private ConstraintModel model;
+
+  /**
+   * Constructeur utilisant le pool commun pour le dénombrement.
+   *
+   * @param configurator le configurateur
+   * @throws IllegalArgumentException si le configurateur est null
+   */
+  public ConfigurationEnumerator(Configurator configurator) {
+    this(configurator, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Constructeur de la classe ConfigurationEnumerator.
+   *
+   * @param configurator le configurateur
+   * @param pool         le pool utilisé pour le dénombrement
+   * @throws IllegalArgumentException si un des paramètres est null
+   */
+  public ConfigurationEnumerator(Configurator configurator, ForkJoinPool pool) {
+    if (configurator == null || pool == null) {
+      throw new IllegalArgumentException("Les paramètres ne peuvent pas être null");
+    }
+    this.configurator = configurator;
+    this.pool = pool;
+    this.model = ConstraintModel.compile(configurator);
+  }
+
+  /**
+   * Retourne un flux paresseux de toutes les configurations valides et
+   * complètes. Chaque configuration est une nouvelle session du
+   * configurateur.
+   *
+   * @return le flux des configurations, séquentiel par défaut
+   */
+  public Stream<Configuration> stream() {
+    return stream(null);
+  }
+
+  /**
+   * Retourne un flux paresseux des complétions valides d'une configuration
+   * partielle.
+   *
+   * @param partial la configuration partielle, ou null pour partir de zéro
+   * @return le flux des configurations, séquentiel par défaut
+   */
+  public Stream<Configuration> stream(Configuration partial) {
+    ConstraintModel current = model();
+    return StreamSupport.stream(new SolutionSpliterator(current, root(current, partial)), false)
+        .map(current::toConfiguration);
+  }
+
+  /**
+   * Retourne un flux paresseux des complétions valides d'une configuration
+   * partielle, limité à un nombre donné de configurations.
+   *
+   * @param partial la configuration partielle, ou null pour partir de zéro
+   * @param limit   le nombre maximal de configurations
+   * @return le flux des configurations
+   * @throws IllegalArgumentException si la limite est négative
+   */
+  public Stream<Configuration> stream(Configuration partial, long limit) {
+    if (limit < 0) {
+      throw new IllegalArgumentException("La limite ne peut pas être négative");
+    }
+    return stream(partial).limit(limit);
+  }
+
+  /**
+   * Compte les configurations valides et complètes.
+   *
+   * @return le nombre de configurations
+   */
+  public BigInteger count() {
+    return count(null);
+  }
+
+  /**
+   * Compte les complétions valides d'une configuration partielle, en
+   * parallèle sur le pool.
+   *
+   * @param partial la configuration partielle, ou null pour partir de zéro
+   * @return le nombre de complétions, sans limite de taille
+   */
+  public BigInteger count(Configuration partial) {
+    ConstraintModel current = model();
+    long[] root = root(current, partial);
+    return root == null ? BigInteger.ZERO : pool.invoke(new CountTask(current, root, 0));
+  }
+
+  /**
+   * Retourne le modèle courant, recompilé si les règles ont changé.
+   */
+  private synchronized ConstraintModel model() {
+    if (!model.isCurrent()) {
+      model = ConstraintModel.compile(configurator);
+    }
+    return model;
+  }
+
+  /**
+   * Retourne le domaine arc-consistant d'une configuration partielle, ou null
+   * s'il n'a aucune solution.
+   */
+  private static long[] root(ConstraintModel model, Configuration partial) {
+    long[] domain = partial == null ? model.newDomain() : model.domainOf(partial, -1);
+    return domain != null && Propagator.propagate(model, domain) ? domain : null;
+  }
+
+  /**
+   * Retourne les domaines fils d'un nœud qui restent arc-consistants, dans
+   * l'ordre des variantes.
+   */
+  private static List<long[]> children(ConstraintModel model, long[] domain, int c) {
+    List<long[]> children = new ArrayList<>();
+    int end = model.end(c);
+    for (int v = Bits.nextSetBit(domain, model.start(c)); v >= 0 && v < end; v = Bits.nextSetBit(domain, v + 1)) {
+      long[] child = Propagator.assign(model, domain, v);
+      if (Propagator.propagate(model, child, c)) {
+        children.add(child);
+      }
+    }
+    return children;
+  }
+
+  /**
+   * Parcours en profondeur des solutions à partir d'une pile de nœuds
+   * arc-consistants. La découpe cède la moitié la plus ancienne de la pile,
+   * formée des nœuds les moins profonds, donc des plus gros sous-arbres.
+   */
+  private static final class SolutionSpliterator implements Spliterator<int[]> {
+    private final ConstraintModel model;
+    private final Deque<long[]> pending;
+
+    SolutionSpliterator(ConstraintModel model, long[] root) {
+      this.model = model;
+      this.pending = new ArrayDeque<>();
+      if (root != null) {
+        pending.push(root);
+      }
+    }
+
+    private SolutionSpliterator(ConstraintModel model, Deque<long[]> pending) {
+      this.model = model;
+      this.pending = pending;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super int[]> action) {
+      while (!pending.isEmpty()) {
+        long[] domain = pending.pop();
+        int c = Propagator.chooseCategory(model, domain);
+        if (c < 0) {
+          action.accept(Propagator.solution(model, domain));
+          return true;
+        }
+        expand(domain, c);
+      }
+      return false;
+    }
+
+    @Override
+    public Spliterator<int[]> trySplit() {
+      // Un nœud unique est développé pour pouvoir être partagé
+      while (pending.size() == 1) {
+        long[] domain = pending.peek();
+        int c = Propagator.chooseCategory(model, domain);
+        if (c < 0) {
+          return null;
+        }
+        pending.pop();
+        expand(domain, c);
+      }
+      if (pending.size() < 2) {
+        return null;
+      }
+      Deque<long[]> shallow = new ArrayDeque<>();
+      for (int i = pending.size() / 2; i > 0; i--) {
+        shallow.addFirst(pending.removeLast());
+      }
+      return new SolutionSpliterator(model, shallow);
+    }
+
+    /**
+     * Empile les fils d'un nœud, le premier fils au sommet.
+     */
+    private void expand(long[] domain, int c) {
+      List<long[]> children = children(model, domain, c);
+      for (int i = children.size() - 1; i >= 0; i--) {
+        pending.push(children.get(i));
+      }
+    }
+
+    @Override
+    public long estimateSize() {
+      return pending.isEmpty() ? 0 : Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+      return NONNULL | IMMUTABLE;
+    }
+  }
+
+  /**
+   * Retourne le nombre de solutions d'un domaine arc-consistant dont les
+   * variantes des catégories ouvertes sont deux à deux compatibles : toute
+   * combinaison est alors valide, et le nombre est le produit des tailles des
+   * domaines. Retourne null si deux variantes ouvertes sont incompatibles.
+   */
+  private static BigInteger product(ConstraintModel model, long[] domain) {
+    long[] open = domain.clone();
+    BigInteger product = BigInteger.ONE;
+    for (int c = 0; c < model.categoryCount(); c++) {
+      int size = Bits.cardinalityRange(domain, model.start(c), model.end(c));
+      if (size == 1) {
+        Bits.clearRange(open, model.start(c), model.end(c));
+      } else {
+        product = product.multiply(BigInteger.valueOf(size));
+      }
+    }
+    for (int v = Bits.nextSetBit(open, 0); v >= 0; v = Bits.nextSetBit(open, v + 1)) {
+      long[] compatible = model.compatibleBits(v);
+      for (int i = 0; i < open.length; i++) {
+        if ((open[i] & ~(i < compatible.length ? compatible[i] : 0)) != 0) {
+          return null;
+        }
+      }
+    }
+    return product;
+  }
+
+  /**
+   * Dénombrement d'un sous-arbre : les premiers niveaux créent une sous-tâche
+   * par fils, les suivants sont parcourus séquentiellement.
+   */
+  private static final class CountTask extends RecursiveTask<BigInteger> {
+    private static final long serialVersionUID = 1L;
+
+    private final transient ConstraintModel model;
+    private final long[] domain;
+    private final int depth;
+
+    CountTask(ConstraintModel model, long[] domain, int depth) {
+      this.model = model;
+      this.domain = domain;
+      this.depth = depth;
+    }
+
+    @Override
+    protected BigInteger compute() {
+      int c = Propagator.chooseCategory(model, domain);
+      if (c < 0) {
+        return BigInteger.ONE;
+      }
+      BigInteger product = product(model, domain);
+      if (product != null) {
+        return product;
+      }
+      List<long[]> children = children(model, domain, c);
+      if (depth >= FORK_DEPTH) {
+        BigInteger count = BigInteger.ZERO;
+        for (long[] child : children) {
+          count = count.add(new CountTask(model, child, depth + 1).compute());
+        }
+        return count;
+      }
+      List<CountTask> tasks = new ArrayList<>();
+      for (long[] child : children) {
+        tasks.add(new CountTask(model, child, depth + 1));
+      }
+      BigInteger count = BigInteger.ZERO;
+      for (CountTask task : invokeAll(tasks)) {
+        count = count.add(task.join());
+      }
+      return count;
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package fr.istic.bodin_bodier.cartaylor.impl.solver;
+
+import fr.istic.bodin_bodier.cartaylor.api.Configuration;
+import fr.istic.bodin_bodier.cartaylor.api.Configurator;
+
+import java.util.Optional;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Tirage uniforme et reproductible de configurations valides et complètes.
+ *
+ * <p>
+ * Le tirage s'appuie sur le dénombrement du {@link DecisionDiagram} des
+ * règles : en partant de la racine, chaque variante est choisie avec une
+ * probabilité proportionnelle au nombre de configurations qu'elle permet
+ * encore d'obtenir. Chaque configuration valide et complète a donc exactement
+ * la même probabilité, sans rejet, et un tirage coûte une recherche par
+ * catégorie. Deux échantillonneurs de même graine produisent la même suite de
+ * configurations tant que les règles ne changent pas.
+ *
+ * <p>
+ * Le diagramme est reconstruit automatiquement lorsque les règles changent.
+ * Un échantillonneur n'est pas sûr vis-à-vis des threads.
+ */
+public class ConfigurationSampler {
+  private final DiagramCompiler compiler;
+  private final Random random;
+
+  /**
+   * Constructeur de la classe ConfigurationSampler.
+   *
+   * @param configurator le configurateur
+   * @param seed         la graine du générateur
+   * @throws IllegalArgumentException si le configurateur est null
+   */
+  public ConfigurationSampler(Configurator configurator, long seed) {
+    this(new DiagramCompiler(configurator), seed);
+  }
+
+  /**
+   * Constructeur partageant le diagramme d'un compilateur existant.
+   *
+   * @param compiler le compilateur des règles
+   * @param seed     la graine du générateur
+   * @throws IllegalArgumentException si le compilateur est null
+   */
+  public ConfigurationSampler(DiagramCompiler compiler, long seed) {
+    if (compiler == null) {
+      throw new IllegalArgumentException("Le compilateur ne peut pas être null");
+    }
+    this.compiler = compiler;
+    this.random = new Random(seed);
+  }
+
+  /**
+   * Tire une configuration valide et complète. Chaque configuration est une
+   * nouvelle session du configurateur.
+   *
+   * @return la configuration, ou Optional.empty() si aucune configuration
+   *         n'est valide
+   */
+  public Optional<Configuration> sample() {
+    DecisionDiagram diagram = compiler.getDiagram();
+    int[] solution = diagram.sample(random);
+    return solution == null ? Optional.empty() : Optional.of(diagram.getModel().toConfiguration(solution));
+  }
+
+  /**
+   * Retourne un flux de tirages indépendants.
+   *
+   * @param limit le nombre de tirages
+   * @return le flux des configurations, vide si aucune configuration n'est
+   *         valide
+   * @throws IllegalArgumentException si la limite est négative
+   */
+  public Stream<Configuration> stream(long limit) {
+    if (limit < 0) {
+      throw new IllegalArgumentException("La limite ne peut pas être négative");
+    }
+    return Stream.generate(this::sample)
+        .takeWhile(Optional::isPresent)
+        .map(Optional::get)
+        .limit(limit);
+  }
+}
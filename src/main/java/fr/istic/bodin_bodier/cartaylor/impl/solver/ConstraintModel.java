@@ -0,0 +1,446 @@
+package fr.istic.bodin_bodier.cartaylor.impl.solver;
+
+import fr.istic.bodin_bodier.cartaylor.api.Category;
+import fr.istic.bodin_bodier.cartaylor.api.CompatibilityChecker;
+import fr.istic.bodin_bodier.cartaylor.api.Configuration;
+import fr.istic.bodin_bodier.cartaylor.api.Configurator;
+import fr.istic.bodin_bodier.cartaylor.api.PartType;
+import fr.istic.bodin_bodier.cartaylor.impl.Bits;
+import fr.istic.bodin_bodier.cartaylor.impl.CompatibilityManagerImpl;
+import fr.istic.bodin_bodier.cartaylor.impl.PartTypeIndex;
+import fr.istic.bodin_bodier.cartaylor.impl.RuleSnapshot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Modèle de contraintes compilé à partir d'un configurateur.
+ *
+ * <p>
+ * Chaque catégorie est une variable dont le domaine est l'ensemble de ses
+ * variantes. Les variantes de toutes les catégories reçoivent des indices
+ * denses, contigus par catégorie (catégories triées par nom), de sorte qu'un
+ * domaine complet se représente par un seul ensemble de bits (voir
+ * {@link Bits}).
+ *
+ * <p>
+ * Les règles sont compilées en une relation binaire symétrique de
+ * compatibilité entre variantes de catégories différentes : deux variantes
+ * sont compatibles si elles ne sont pas incompatibles, et si aucune des deux
+ * n'exige une autre variante de la catégorie de l'autre. Les variantes qui ne
+ * peuvent figurer dans aucune configuration valide (incompatibles avec
+ * elles-mêmes, ou exigeant une pièce hors catalogue, une autre variante de
+ * leur catégorie ou deux variantes d'une même catégorie) sont marquées
+ * mortes.
+ *
+ * <p>
+ * Toutes les catégories du configurateur figurent dans le modèle, comme
+ * toutes sont exigées par {@link Configuration#isComplete()} : une catégorie
+ * sans aucune variante a un domaine vide, et aucune configuration n'est alors
+ * complétable. Un modèle est immuable et peut être partagé entre threads.
+ */
+public final class ConstraintModel {
+  private final Configurator configurator;
+  /** Version des règles compilée, ou null si le vérificateur n'en publie pas */
+  private final RuleSnapshot rules;
+
+  private final Category[] categories;
+  /** Premier indice de variante de chaque catégorie, suivi du nombre total */
+  private final int[] starts;
+  private final PartType[] values;
+  private final int[] categoryOf;
+  private final Map<Category, Integer> categoryIndex;
+  private final Map<PartType, Integer> valueIndex;
+
+  /** Compatibilité entre variantes, par variante */
+  private final long[][] compatible;
+  /** Exigences entre variantes, par variante */
+  private final long[][] requirements;
+  /** Variantes pouvant figurer dans une configuration valide */
+  private final long[] live;
+
+  private ConstraintModel(Configurator configurator, RuleSnapshot rules, List<Category> categories,
+      List<List<PartType>> variants) {
+    this.configurator = configurator;
+    this.rules = rules;
+    this.categories = categories.toArray(new Category[0]);
+    this.starts = new int[categories.size() + 1];
+    this.categoryIndex = new HashMap<>();
+    this.valueIndex = new HashMap<>();
+    List<PartType> all = new ArrayList<>();
+    List<Integer> owners = new ArrayList<>();
+    for (int c = 0; c < categories.size(); c++) {
+      starts[c] = all.size();
+      categoryIndex.put(categories.get(c), c);
+      for (PartType variant : variants.get(c)) {
+        valueIndex.put(variant, all.size());
+        all.add(variant);
+        owners.add(c);
+      }
+    }
+    starts[categories.size()] = all.size();
+    this.values = all.toArray(new PartType[0]);
+    this.categoryOf = owners.stream().mapToInt(Integer::intValue).toArray();
+
+    int n = values.length;
+    int words = Bits.wordCount(n);
+    this.compatible = new long[n][];
+    this.requirements = new long[n][];
+    this.live = new long[words];
+    for (int v = 0; v < n; v++) {
+      compatible[v] = new long[words];
+      Arrays.fill(compatible[v], -1L);
+      Bits.clearRange(compatible[v], n, words << 6);
+      requirements[v] = new long[words];
+      Bits.set(live, v);
+    }
+  }
+
+  /**
+   * Compile le modèle de contraintes d'un configurateur.
+   *
+   * @param configurator le configurateur
+   * @return le modèle compilé
+   * @throws IllegalArgumentException si le configurateur est null
+   */
+  public static ConstraintModel compile(Configurator configurator) {
+    if (configurator == null) {
+      throw new IllegalArgumentException("Le configurateur ne peut pas être null");
+    }
+    CompatibilityChecker checker = configurator.getCompatibilityChecker();
+    // Les règles sont lues avant les variantes pour ne jamais en manquer une
+    RuleSnapshot rules = checker instanceof CompatibilityManagerImpl
+        ? ((CompatibilityManagerImpl) checker).getRules()
+        : null;
+
+    List<Category> categories = new ArrayList<>(configurator.getCategories());
+    categories.sort(Comparator.comparing(Category::getName));
+    List<List<PartType>> variants = new ArrayList<>();
+    for (Category category : categories) {
+      variants.add(new ArrayList<>(configurator.getVariants(category)));
+    }
+
+    ConstraintModel model = new ConstraintModel(configurator, rules, categories, variants);
+    if (rules != null) {
+      model.readRules(((CompatibilityManagerImpl) checker).getPartTypeIndex(), rules);
+    } else {
+      model.readRules(checker);
+    }
+    model.compileRules();
+    return model;
+  }
+
+  /**
+   * Indique si le modèle reflète encore les règles du configurateur. Seuls
+   * les vérificateurs publiant des versions de règles permettent de détecter
+   * une modification ; pour les autres, le modèle est toujours considéré à
+   * jour.
+   *
+   * @return true si les règles n'ont pas changé depuis la compilation
+   */
+  public boolean isCurrent() {
+    CompatibilityChecker checker = configurator.getCompatibilityChecker();
+    if (checker instanceof CompatibilityManagerImpl) {
+      return ((CompatibilityManagerImpl) checker).getRules() == rules;
+    }
+    return rules == null;
+  }
+
+  /**
+   * Retourne le configurateur à partir duquel le modèle a été compilé.
+   *
+   * @return le configurateur
+   */
+  public Configurator getConfigurator() {
+    return configurator;
+  }
+
+  /**
+   * Retourne le nombre de catégories du modèle.
+   *
+   * @return le nombre de catégories, y compris celles sans variante
+   */
+  public int categoryCount() {
+    return categories.length;
+  }
+
+  /**
+   * Retourne le nombre total de variantes du modèle.
+   *
+   * @return le nombre de variantes
+   */
+  public int valueCount() {
+    return values.length;
+  }
+
+  /**
+   * Retourne une catégorie du modèle.
+   *
+   * @param c l'indice de la catégorie
+   * @return la catégorie
+   */
+  public Category category(int c) {
+    return categories[c];
+  }
+
+  /**
+   * Retourne l'indice d'une catégorie.
+   *
+   * @param category la catégorie
+   * @return son indice, ou -1 si elle n'appartient pas au modèle
+   */
+  public int indexOf(Category category) {
+    Integer c = categoryIndex.get(category);
+    return c == null ? -1 : c;
+  }
+
+  /**
+   * Retourne l'indice d'une variante.
+   *
+   * @param partType le type de pièce
+   * @return son indice, ou -1 s'il n'est pas une variante du modèle
+   */
+  public int indexOf(PartType partType) {
+    Integer v = valueIndex.get(partType);
+    return v == null ? -1 : v;
+  }
+
+  /**
+   * Retourne le premier indice de variante d'une catégorie.
+   *
+   * @param c l'indice de la catégorie
+   * @return le premier indice (inclus)
+   */
+  public int start(int c) {
+    return starts[c];
+  }
+
+  /**
+   * Retourne l'indice suivant la dernière variante d'une catégorie.
+   *
+   * @param c l'indice de la catégorie
+   * @return le dernier indice (exclu)
+   */
+  public int end(int c) {
+    return starts[c + 1];
+  }
+
+  /**
+   * Retourne le type de pièce d'une variante.
+   *
+   * @param v l'indice de la variante
+   * @return le type de pièce
+   */
+  public PartType partType(int v) {
+    return values[v];
+  }
+
+  /**
+   * Retourne la catégorie d'une variante.
+   *
+   * @param v l'indice de la variante
+   * @return l'indice de sa catégorie
+   */
+  public int categoryOf(int v) {
+    return categoryOf[v];
+  }
+
+  /**
+   * Retourne l'ensemble des variantes compatibles avec une variante. Le
+   * tableau retourné ne doit pas être modifié.
+   *
+   * @param v l'indice de la variante
+   * @return l'ensemble de bits des variantes compatibles
+   */
+  public long[] compatibleBits(int v) {
+    return compatible[v];
+  }
+
+  /**
+   * Retourne l'ensemble des variantes exigées par une variante. Le tableau
+   * retourné ne doit pas être modifié.
+   *
+   * @param v l'indice de la variante
+   * @return l'ensemble de bits des variantes exigées
+   */
+  public long[] requirementBits(int v) {
+    return requirements[v];
+  }
+
+  /**
+   * Indique si une variante peut figurer dans une configuration valide,
+   * indépendamment des autres catégories.
+   *
+   * @param v l'indice de la variante
+   * @return false si la variante est morte
+   */
+  public boolean isLive(int v) {
+    return Bits.get(live, v);
+  }
+
+  /**
+   * Retourne un nouveau domaine contenant toutes les variantes vivantes.
+   *
+   * @return un domaine modifiable
+   */
+  public long[] newDomain() {
+    return live.clone();
+  }
+
+  /**
+   * Construit le domaine correspondant à une configuration partielle : les
+   * catégories sélectionnées sont réduites à leur variante, les autres
+   * conservent toutes leurs variantes vivantes.
+   *
+   * @param configuration la configuration partielle
+   * @param relaxed       une catégorie dont la sélection est ignorée, ou -1
+   * @return le domaine, ou null si une sélection n'est pas une variante
+   *         vivante du modèle
+   */
+  public long[] domainOf(Configuration configuration, int relaxed) {
+    long[] domain = newDomain();
+    for (int c = 0; c < categories.length; c++) {
+      if (c == relaxed) {
+        continue;
+      }
+      PartType selected = configuration.getSelectionForCategory(categories[c]);
+      if (selected != null) {
+        int v = indexOf(selected);
+        if (v < 0 || categoryOf[v] != c || !isLive(v)) {
+          return null;
+        }
+        Bits.clearRange(domain, start(c), end(c));
+        Bits.set(domain, v);
+      }
+    }
+    return domain;
+  }
+
+  /**
+   * Construit une nouvelle configuration du configurateur à partir d'une
+   * solution.
+   *
+   * @param solution l'indice de variante choisi pour chaque catégorie
+   * @return la configuration correspondante
+   */
+  public Configuration toConfiguration(int[] solution) {
+    Configuration configuration = configurator.newConfiguration();
+    for (int v : solution) {
+      configuration.selectPart(values[v]);
+    }
+    return configuration;
+  }
+
+  /**
+   * Indique si une variante a au moins un support compatible dans le
+   * domaine d'une autre catégorie.
+   *
+   * @param v      l'indice de la variante
+   * @param domain le domaine courant
+   * @param c      l'indice de l'autre catégorie
+   * @return true si une variante de c compatible avec v est dans le domaine
+   */
+  public boolean isSupported(int v, long[] domain, int c) {
+    return Bits.intersectsRange(compatible[v], domain, starts[c], starts[c + 1]);
+  }
+
+  /**
+   * Lit les règles depuis une version publiée par un gestionnaire.
+   */
+  private void readRules(PartTypeIndex index, RuleSnapshot snapshot) {
+    int[] local = new int[index.size()];
+    Arrays.fill(local, -1);
+    for (int v = 0; v < values.length; v++) {
+      int ordinal = index.ordinalOf(values[v]);
+      if (ordinal >= 0 && ordinal < local.length) {
+        local[ordinal] = v;
+      }
+    }
+    for (int v = 0; v < values.length; v++) {
+      int ordinal = index.ordinalOf(values[v]);
+      if (ordinal < 0) {
+        continue;
+      }
+      long[] incompatible = snapshot.getIncompatibilityBits(ordinal);
+      for (int t = Bits.nextSetBit(incompatible, 0); t >= 0; t = Bits.nextSetBit(incompatible, t + 1)) {
+        if (t < local.length && local[t] >= 0) {
+          forbid(v, local[t]);
+        }
+      }
+      long[] required = snapshot.getRequirementBits(ordinal);
+      for (int t = Bits.nextSetBit(required, 0); t >= 0; t = Bits.nextSetBit(required, t + 1)) {
+        require(v, t < local.length ? local[t] : -1);
+      }
+    }
+  }
+
+  /**
+   * Lit les règles à travers les seules méthodes de
+   * {@link CompatibilityChecker}.
+   */
+  private void readRules(CompatibilityChecker checker) {
+    for (int v = 0; v < values.length; v++) {
+      for (PartType incompatible : checker.getIncompatibilities(values[v])) {
+        int t = indexOf(incompatible);
+        if (t >= 0) {
+          forbid(v, t);
+        }
+      }
+      for (PartType required : checker.getRequirements(values[v])) {
+        require(v, indexOf(required));
+      }
+    }
+  }
+
+  /**
+   * Interdit deux variantes ensemble. Une variante interdite avec elle-même
+   * est morte.
+   */
+  private void forbid(int v, int w) {
+    Bits.clear(compatible[v], w);
+    Bits.clear(compatible[w], v);
+    if (v == w) {
+      Bits.clear(live, v);
+    }
+  }
+
+  /**
+   * Enregistre une exigence ; une cible hors modèle (-1) rend la variante
+   * morte.
+   */
+  private void require(int v, int target) {
+    if (target < 0) {
+      Bits.clear(live, v);
+    } else {
+      Bits.set(requirements[v], target);
+    }
+  }
+
+  /**
+   * Traduit les exigences en interdictions : une variante exigeant w exclut
+   * toutes les autres variantes de la catégorie de w.
+   */
+  private void compileRules() {
+    for (int v = 0; v < values.length; v++) {
+      long[] required = requirements[v];
+      for (int w = Bits.nextSetBit(required, 0); w >= 0; w = Bits.nextSetBit(required, w + 1)) {
+        int c = categoryOf[w];
+        if (w == v) {
+          continue;
+        }
+        if (c == categoryOf[v] || Bits.cardinalityRange(required, starts[c], starts[c + 1]) > 1) {
+          Bits.clear(live, v);
+        }
+        for (int other = starts[c]; other < starts[c + 1]; other++) {
+          if (other != w) {
+            forbid(v, other);
+          }
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,321 @@
+package fr.istic.bodin_bodier.cartaylor.impl.solver;
+
+import fr.istic.bodin_bodier.cartaylor.api.Category;
+import fr.istic.bodin_bodier.cartaylor.api.Configuration;
+import fr.istic.bodin_bodier.cartaylor.api.PartType;
+import fr.istic.bodin_bodier.cartaylor.impl.Bits;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Diagramme de décision multivalué, ordonné et réduit, représentant
+ * l'ensemble des configurations valides et complètes d'un
+ * {@link ConstraintModel}.
+ *
+ * <p>
+ * Les nœuds sont rangés par niveau, un niveau par catégorie du modèle dans
+ * l'ordre des noms ; chaque arc d'un nœud du niveau {@code c} porte une
+ * variante de la catégorie {@code c}. Tout chemin de la racine au terminal
+ * correspond à exactement une configuration valide et complète, et deux nœuds
+ * d'un même niveau ont des arcs distincts. Les nœuds sont numérotés niveau par
+ * niveau, de sorte que les fils d'un nœud ont toujours un numéro supérieur au
+ * sien : chaque requête est un unique parcours des arcs, linéaire en la taille
+ * du diagramme.
+ *
+ * <p>
+ * Les diagrammes sont construits par {@link DiagramCompiler} et sont
+ * immuables.
+ */
+public final class DecisionDiagram {
+  private final ConstraintModel model;
+  /** Premier nœud de chaque niveau ; le terminal est le dernier nœud */
+  private final int[] levelStart;
+  /** Premier arc de chaque nœud */
+  private final int[] edgeStart;
+  private final int[] edgeValue;
+  private final int[] edgeChild;
+  /** Nombre de chemins de chaque nœud au terminal */
+  private final BigInteger[] counts;
+  /** Nombre de configurations contenant chaque variante */
+  private final BigInteger[] valueCounts;
+  /**
+   * Somme des comptes des fils de chaque nœud jusqu'à chaque arc inclus, si
+   * le nombre de configurations tient dans un long
+   */
+  private final long[] cumulative;
+
+  DecisionDiagram(ConstraintModel model, int[] levelStart, int[] edgeStart, int[] edgeValue, int[] edgeChild,
+      BigInteger[] counts) {
+    this.model = model;
+    this.levelStart = levelStart;
+    this.edgeStart = edgeStart;
+    this.edgeValue = edgeValue;
+    this.edgeChild = edgeChild;
+    this.counts = counts;
+    this.valueCounts = new BigInteger[model.valueCount()];
+    Arrays.fill(valueCounts, BigInteger.ZERO);
+    if (counts.length > 0) {
+      BigInteger[] above = above(null);
+      for (int node = 0; node < counts.length; node++) {
+        for (int e = edgeStart[node]; e < edgeStart[node + 1]; e++) {
+          valueCounts[edgeValue[e]] = valueCounts[edgeValue[e]].add(above[node].multiply(counts[edgeChild[e]]));
+        }
+      }
+    }
+    if (count().bitLength() < Long.SIZE) {
+      this.cumulative = new long[edgeValue.length];
+      for (int node = 0; node < counts.length; node++) {
+        long total = 0;
+        for (int e = edgeStart[node]; e < edgeStart[node + 1]; e++) {
+          total += counts[edgeChild[e]].longValue();
+          cumulative[e] = total;
+        }
+      }
+    } else {
+      this.cumulative = null;
+    }
+  }
+
+  /**
+   * Retourne le modèle à partir duquel le diagramme a été construit.
+   *
+   * @return le modèle de contraintes
+   */
+  public ConstraintModel getModel() {
+    return model;
+  }
+
+  /**
+   * Retourne le nombre de nœuds du diagramme, terminal compris.
+   *
+   * @return le nombre de nœuds, 0 si aucune configuration n'est valide
+   */
+  public int nodeCount() {
+    return counts.length;
+  }
+
+  /**
+   * Retourne le nombre d'arcs du diagramme.
+   *
+   * @return le nombre d'arcs
+   */
+  public int edgeCount() {
+    return edgeValue.length;
+  }
+
+  /**
+   * Retourne le nombre de configurations valides et complètes.
+   *
+   * @return le nombre de configurations
+   */
+  public BigInteger count() {
+    return counts.length == 0 ? BigInteger.ZERO : counts[0];
+  }
+
+  /**
+   * Retourne le nombre de configurations valides et complètes contenant une
+   * pièce.
+   *
+   * @param partType la pièce
+   * @return le nombre de configurations, 0 si la pièce est inconnue du modèle
+   * @throws IllegalArgumentException si la pièce est null
+   */
+  public BigInteger count(PartType partType) {
+    if (partType == null) {
+      throw new IllegalArgumentException("La pièce ne peut pas être null");
+    }
+    int v = model.indexOf(partType);
+    return v < 0 ? BigInteger.ZERO : valueCounts[v];
+  }
+
+  /**
+   * Retourne le nombre de configurations valides et complètes prolongeant une
+   * configuration partielle.
+   *
+   * @param configuration la configuration partielle
+   * @return le nombre de complétions valides
+   * @throws IllegalArgumentException si la configuration est null
+   */
+  public BigInteger count(Configuration configuration) {
+    long[] domain = domainOf(configuration, -1);
+    return domain == null || counts.length == 0 ? BigInteger.ZERO : below(domain)[0];
+  }
+
+  /**
+   * Indique si une configuration partielle peut encore être complétée en une
+   * configuration valide.
+   *
+   * @param configuration la configuration partielle
+   * @return true si au moins une complétion valide existe
+   * @throws IllegalArgumentException si la configuration est null
+   */
+  public boolean isExtendable(Configuration configuration) {
+    long[] domain = domainOf(configuration, -1);
+    if (domain == null || counts.length == 0) {
+      return false;
+    }
+    boolean[] reachable = new boolean[counts.length];
+    reachable[0] = true;
+    for (int node = 0; node < counts.length - 1; node++) {
+      if (reachable[node]) {
+        for (int e = edgeStart[node]; e < edgeStart[node + 1]; e++) {
+          if (Bits.get(domain, edgeValue[e])) {
+            reachable[edgeChild[e]] = true;
+          }
+        }
+      }
+    }
+    return reachable[counts.length - 1];
+  }
+
+  /**
+   * Retourne, pour chaque variante d'une catégorie, le nombre de
+   * configurations valides et complètes obtenues en la sélectionnant à la
+   * place de la sélection courante de cette catégorie, les autres sélections
+   * étant conservées.
+   *
+   * @param configuration la configuration partielle
+   * @param category      la catégorie
+   * @return le nombre de complétions de chaque variante, dans l'ordre du
+   *         modèle ; vide si la catégorie est inconnue du modèle
+   * @throws IllegalArgumentException si un des paramètres est null
+   */
+  public Map<PartType, BigInteger> countOptions(Configuration configuration, Category category) {
+    if (category == null) {
+      throw new IllegalArgumentException("La catégorie ne peut pas être null");
+    }
+    int c = model.indexOf(category);
+    if (c < 0) {
+      if (configuration == null) {
+        throw new IllegalArgumentException("La configuration ne peut pas être null");
+      }
+      return Collections.emptyMap();
+    }
+    long[] domain = domainOf(configuration, c);
+    BigInteger[] options = new BigInteger[model.end(c) - model.start(c)];
+    Arrays.fill(options, BigInteger.ZERO);
+    if (domain != null && counts.length > 0) {
+      BigInteger[] above = above(domain);
+      BigInteger[] below = below(domain);
+      for (int node = levelStart[c]; node < levelStart[c + 1]; node++) {
+        if (above[node].signum() == 0) {
+          continue;
+        }
+        for (int e = edgeStart[node]; e < edgeStart[node + 1]; e++) {
+          int i = edgeValue[e] - model.start(c);
+          options[i] = options[i].add(above[node].multiply(below[edgeChild[e]]));
+        }
+      }
+    }
+    Map<PartType, BigInteger> result = new LinkedHashMap<>();
+    for (int v = model.start(c); v < model.end(c); v++) {
+      result.put(model.partType(v), options[v - model.start(c)]);
+    }
+    return result;
+  }
+
+  /**
+   * Tire une configuration valide et complète uniformément au hasard : chaque
+   * arc est suivi avec une probabilité proportionnelle au nombre de
+   * configurations de son fils.
+   *
+   * @param random le générateur
+   * @return l'indice de variante choisi pour chaque catégorie, ou null si
+   *         aucune configuration n'est valide
+   */
+  int[] sample(Random random) {
+    if (counts.length == 0) {
+      return null;
+    }
+    int[] solution = new int[model.categoryCount()];
+    int node = 0;
+    for (int c = 0; c < solution.length; c++) {
+      int from = edgeStart[node];
+      int to = edgeStart[node + 1];
+      int e;
+      if (cumulative != null) {
+        long r = random.nextLong(cumulative[to - 1]);
+        // Les sommes sont strictement croissantes : premier arc dont la somme
+        // dépasse r
+        e = Arrays.binarySearch(cumulative, from, to, r);
+        e = e >= 0 ? e + 1 : -e - 1;
+      } else {
+        BigInteger r = uniform(counts[node], random);
+        for (e = from; r.compareTo(counts[edgeChild[e]]) >= 0; e++) {
+          r = r.subtract(counts[edgeChild[e]]);
+        }
+      }
+      solution[c] = edgeValue[e];
+      node = edgeChild[e];
+    }
+    return solution;
+  }
+
+  /**
+   * Entier uniforme dans [0, bound), par rejet.
+   */
+  private static BigInteger uniform(BigInteger bound, Random random) {
+    BigInteger r;
+    do {
+      r = new BigInteger(bound.bitLength(), random);
+    } while (r.compareTo(bound) >= 0);
+    return r;
+  }
+
+  private long[] domainOf(Configuration configuration, int relaxed) {
+    if (configuration == null) {
+      throw new IllegalArgumentException("La configuration ne peut pas être null");
+    }
+    return model.domainOf(configuration, relaxed);
+  }
+
+  /**
+   * Nombre de chemins de la racine à chaque nœud, restreints aux variantes du
+   * domaine (toutes si le domaine est null).
+   */
+  private BigInteger[] above(long[] domain) {
+    BigInteger[] above = new BigInteger[counts.length];
+    Arrays.fill(above, BigInteger.ZERO);
+    above[0] = BigInteger.ONE;
+    for (int node = 0; node < counts.length - 1; node++) {
+      if (above[node].signum() == 0) {
+        continue;
+      }
+      for (int e = edgeStart[node]; e < edgeStart[node + 1]; e++) {
+        if (domain == null || Bits.get(domain, edgeValue[e])) {
+          above[edgeChild[e]] = above[edgeChild[e]].add(above[node]);
+        }
+      }
+    }
+    return above;
+  }
+
+  /**
+   * Nombre de chemins de chaque nœud au terminal, restreints aux variantes du
+   * domaine.
+   */
+  private BigInteger[] below(long[] domain) {
+    BigInteger[] below = new BigInteger[counts.length];
+    below[counts.length - 1] = BigInteger.ONE;
+    for (int node = counts.length - 2; node >= 0; node--) {
+      BigInteger total = BigInteger.ZERO;
+      for (int e = edgeStart[node]; e < edgeStart[node + 1]; e++) {
+        if (Bits.get(domain, edgeValue[e])) {
+          total = total.add(below[edgeChild[e]]);
+        }
+      }
+      below[node] = total;
+    }
+    return below;
+  }
+
+  @Override
+  public String toString() {
+    return "DecisionDiagram[" + nodeCount() + " nœuds, " + edgeCount() + " arcs, " + count() + " configurations]";
+  }
+}
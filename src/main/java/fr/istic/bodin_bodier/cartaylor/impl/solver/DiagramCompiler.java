@@ -0,0 +1,323 @@
+package fr.istic.bodin_bodier.cartaylor.impl.solver;
+
+import fr.istic.bodin_bodier.cartaylor.api.Configurator;
+import fr.istic.bodin_bodier.cartaylor.impl.Bits;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compilation des règles d'un configurateur en {@link DecisionDiagram}.
+ *
+ * <p>
+ * Le diagramme est construit en profondeur, catégorie par catégorie. L'état
+ * d'un nœud du niveau {@code c} est l'ensemble des variantes des catégories
+ * suivantes encore compatibles avec les choix déjà faits : deux préfixes de
+ * même état ont les mêmes complétions et partagent donc le même sous-diagramme.
+ * Les sous-diagrammes sont mémorisés par état, et une table d'unicité par
+ * niveau fusionne les nœuds aux arcs identiques, ce qui rend le diagramme
+ * réduit.
+ *
+ * <p>
+ * Le sous-diagramme associé à un état du niveau {@code c} ne dépend que des
+ * règles entre catégories de rang au moins {@code c}. Lorsque le gestionnaire
+ * de compatibilité publie de nouvelles règles, seuls les niveaux allant jusqu'à la
+ * première des deux catégories d'une règle modifiée sont donc reconstruits ;
+ * les niveaux suivants sont réutilisés tels quels. Le compilateur est sûr
+ * vis-à-vis des threads.
+ */
+public class DiagramCompiler {
+  private final Configurator configurator;
+  private ConstraintModel model;
+  private DecisionDiagram diagram;
+  /** Sous-diagramme de chaque état, par niveau ; null si l'état est sans solution */
+  private final List<Map<StateKey, Node>> memo;
+  /** Table d'unicité des nœuds, par niveau */
+  private final List<Map<Node, Node>> unique;
+
+  /**
+   * Constructeur de la classe DiagramCompiler.
+   *
+   * @param configurator le configurateur dont les règles sont compilées
+   * @throws IllegalArgumentException si le configurateur est null
+   */
+  public DiagramCompiler(Configurator configurator) {
+    if (configurator == null) {
+      throw new IllegalArgumentException("Le configurateur ne peut pas être null");
+    }
+    this.configurator = configurator;
+    this.memo = new ArrayList<>();
+    this.unique = new ArrayList<>();
+    this.model = ConstraintModel.compile(configurator);
+    reset();
+    this.diagram = build();
+  }
+
+  /**
+   * Retourne le diagramme des règles courantes, reconstruit si elles ont
+   * changé.
+   *
+   * @return le diagramme de décision
+   */
+  public synchronized DecisionDiagram getDiagram() {
+    if (!model.isCurrent()) {
+      ConstraintModel next = ConstraintModel.compile(configurator);
+      int stale = lastStaleLevel(model, next);
+      model = next;
+      if (stale == Integer.MIN_VALUE) {
+        reset();
+      } else {
+        for (int c = 0; c <= stale && c < memo.size(); c++) {
+          memo.get(c).clear();
+          unique.get(c).clear();
+        }
+      }
+      diagram = build();
+    }
+    return diagram;
+  }
+
+  /**
+   * Vide les tables de tous les niveaux.
+   */
+  private void reset() {
+    memo.clear();
+    unique.clear();
+    for (int c = 0; c < model.categoryCount(); c++) {
+      memo.add(new HashMap<>());
+      unique.add(new HashMap<>());
+    }
+  }
+
+  /**
+   * Retourne le dernier niveau dont les sous-diagrammes peuvent avoir changé
+   * entre deux modèles : le plus grand, sur les paires de variantes dont la
+   * compatibilité a changé, du plus petit des deux rangs de catégorie.
+   * Retourne Integer.MIN_VALUE si les modèles n'ont pas les mêmes variantes,
+   * -1 si aucune compatibilité n'a changé.
+   */
+  private static int lastStaleLevel(ConstraintModel previous, ConstraintModel next) {
+    if (previous.valueCount() != next.valueCount() || previous.categoryCount() != next.categoryCount()) {
+      return Integer.MIN_VALUE;
+    }
+    for (int v = 0; v < next.valueCount(); v++) {
+      if (previous.partType(v) != next.partType(v) || previous.categoryOf(v) != next.categoryOf(v)) {
+        return Integer.MIN_VALUE;
+      }
+    }
+    int stale = -1;
+    for (int v = 0; v < next.valueCount(); v++) {
+      long[] before = previous.compatibleBits(v);
+      long[] after = next.compatibleBits(v);
+      for (int i = 0; i < Math.max(before.length, after.length); i++) {
+        long changed = (i < before.length ? before[i] : 0) ^ (i < after.length ? after[i] : 0);
+        for (; changed != 0; changed &= changed - 1) {
+          int w = (i << 6) + Long.numberOfTrailingZeros(changed);
+          stale = Math.max(stale, Math.min(next.categoryOf(v), next.categoryOf(w)));
+        }
+      }
+    }
+    return stale;
+  }
+
+  /**
+   * Construit le diagramme du modèle courant, puis retire des tables les
+   * nœuds qui n'y figurent plus.
+   */
+  private DecisionDiagram build() {
+    long[] domain = model.newDomain();
+    Node root = Propagator.propagate(model, domain) ? node(0, domain) : null;
+    if (root == null) {
+      return new DecisionDiagram(model, new int[model.categoryCount() + 2], new int[1], new int[0], new int[0],
+          new BigInteger[0]);
+    }
+
+    // Numérotation niveau par niveau
+    List<List<Node>> levels = new ArrayList<>();
+    Map<Node, Integer> ids = new IdentityHashMap<>();
+    Set<Node> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+    List<Node> level = List.of(root);
+    int edges = 0;
+    while (!level.isEmpty()) {
+      levels.add(level);
+      List<Node> next = new ArrayList<>();
+      for (Node node : level) {
+        ids.put(node, ids.size());
+        edges += node.values.length;
+        for (Node child : node.children) {
+          if (seen.add(child)) {
+            next.add(child);
+          }
+        }
+      }
+      level = next;
+    }
+
+    int[] levelStart = new int[model.categoryCount() + 2];
+    int[] edgeStart = new int[ids.size() + 1];
+    int[] edgeValue = new int[edges];
+    int[] edgeChild = new int[edges];
+    BigInteger[] counts = new BigInteger[ids.size()];
+    int id = 0;
+    int e = 0;
+    for (int c = 0; c < levels.size(); c++) {
+      levelStart[c] = id;
+      for (Node node : levels.get(c)) {
+        edgeStart[id] = e;
+        counts[id] = node.count;
+        for (int i = 0; i < node.values.length; i++) {
+          edgeValue[e] = node.values[i];
+          edgeChild[e] = ids.get(node.children[i]);
+          e++;
+        }
+        id++;
+      }
+    }
+    levelStart[levels.size()] = id;
+    edgeStart[id] = e;
+
+    for (int c = 0; c < memo.size(); c++) {
+      memo.get(c).values().removeIf(node -> node == null || !ids.containsKey(node));
+      unique.get(c).values().removeIf(node -> !ids.containsKey(node));
+    }
+    return new DecisionDiagram(model, levelStart, edgeStart, edgeValue, edgeChild, counts);
+  }
+
+  /**
+   * Retourne le sous-diagramme d'un état du niveau c.
+   *
+   * @param c     le niveau
+   * @param state les variantes encore possibles des catégories de rang au
+   *              moins c
+   * @return le nœud racine du sous-diagramme, ou null s'il est sans solution
+   */
+  private Node node(int c, long[] state) {
+    if (c == model.categoryCount()) {
+      return Node.TERMINAL;
+    }
+    StateKey key = new StateKey(state);
+    Map<StateKey, Node> known = memo.get(c);
+    if (known.containsKey(key)) {
+      return known.get(key);
+    }
+    int end = model.end(c);
+    int[] values = new int[end - model.start(c)];
+    Node[] children = new Node[values.length];
+    int n = 0;
+    for (int v = Bits.nextSetBit(state, model.start(c)); v >= 0 && v < end; v = Bits.nextSetBit(state, v + 1)) {
+      long[] next = restrict(state, model.compatibleBits(v), end);
+      if (next != null) {
+        Node child = node(c + 1, next);
+        if (child != null) {
+          values[n] = v;
+          children[n] = child;
+          n++;
+        }
+      }
+    }
+    Node result = null;
+    if (n > 0) {
+      Node candidate = new Node(Arrays.copyOf(values, n), Arrays.copyOf(children, n));
+      result = unique.get(c).computeIfAbsent(candidate, k -> k);
+    }
+    known.put(key, result);
+    return result;
+  }
+
+  /**
+   * Retourne l'état suivant le choix d'une variante : l'intersection de
+   * l'état et des variantes compatibles, restreinte aux catégories à partir
+   * de from. Retourne null si une de ces catégories n'a plus de variante.
+   */
+  private long[] restrict(long[] state, long[] compatible, int from) {
+    long[] next = new long[state.length];
+    for (int i = 0; i < Math.min(state.length, compatible.length); i++) {
+      next[i] = state[i] & compatible[i];
+    }
+    Bits.clearRange(next, 0, from);
+    for (int c = model.categoryOf(from - 1) + 1; c < model.categoryCount(); c++) {
+      if (Bits.cardinalityRange(next, model.start(c), model.end(c)) == 0) {
+        return null;
+      }
+    }
+    return next;
+  }
+
+  /**
+   * Nœud du diagramme en cours de construction : variantes des arcs et fils
+   * correspondants. L'égalité compare les variantes et l'identité des fils.
+   */
+  private static final class Node {
+    static final Node TERMINAL = new Node(new int[0], new Node[0]);
+
+    final int[] values;
+    final Node[] children;
+    final BigInteger count;
+    private final int hash;
+
+    Node(int[] values, Node[] children) {
+      this.values = values;
+      this.children = children;
+      BigInteger total = values.length == 0 ? BigInteger.ONE : BigInteger.ZERO;
+      int h = Arrays.hashCode(values);
+      for (Node child : children) {
+        total = total.add(child.count);
+        h = 31 * h + System.identityHashCode(child);
+      }
+      this.count = total;
+      this.hash = h;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Node)) {
+        return false;
+      }
+      Node that = (Node) o;
+      if (hash != that.hash || !Arrays.equals(values, that.values)) {
+        return false;
+      }
+      for (int i = 0; i < children.length; i++) {
+        if (children[i] != that.children[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  /**
+   * Clé de mémorisation d'un état.
+   */
+  private static final class StateKey {
+    private final long[] words;
+    private final int hash;
+
+    StateKey(long[] words) {
+      this.words = words;
+      this.hash = Arrays.hashCode(words);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof StateKey && hash == ((StateKey) o).hash && Arrays.equals(words, ((StateKey) o).words);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package fr.istic.bodin_bodier.cartaylor.impl.solver;
+
+import fr.istic.bodin_bodier.cartaylor.api.Configuration;
+import fr.istic.bodin_bodier.cartaylor.api.Configurator;
+
+import java.util.Optional;
+
+/**
+ * Recherche de la complétion valide la moins chère, ou la plus chère, d'une
+ * configuration partielle.
+ *
+ * <p>
+ * La recherche procède par séparation et évaluation (voir
+ * {@link BranchAndBound}) : chaque nœud est évalué par la somme, sur toutes
+ * les catégories, du prix minimal (ou maximal) des variantes restantes, et
+ * les variantes sont essayées de la plus avantageuse à la moins avantageuse.
+ *
+ * <p>
+ * Le modèle est recompilé automatiquement lorsque le gestionnaire de
+ * compatibilité publie de nouvelles règles. Un optimiseur peut être partagé
+ * entre threads.
+ */
+public class PriceOptimizer {
+  private final Configurator configurator;
+  private ConstraintModel model;
+
+  /**
+   * Constructeur de la classe PriceOptimizer.
+   *
+   * @param configurator le configurateur
+   * @throws IllegalArgumentException si le configurateur est null
+   */
+  public PriceOptimizer(Configurator configurator) {
+    if (configurator == null) {
+      throw new IllegalArgumentException("Le configurateur ne peut pas être null");
+    }
+    this.configurator = configurator;
+    this.model = ConstraintModel.compile(configurator);
+  }
+
+  /**
+   * Retourne la complétion valide la moins chère d'une configuration
+   * partielle.
+   *
+   * @param partial la configuration partielle, ou null pour partir de zéro
+   * @return une nouvelle configuration valide et complète de prix minimal, ou
+   *         Optional.empty() s'il n'en existe aucune
+   */
+  public Optional<Configuration> cheapestCompletion(Configuration partial) {
+    return optimize(partial, 1);
+  }
+
+  /**
+   * Retourne la complétion valide la plus chère d'une configuration
+   * partielle.
+   *
+   * @param partial la configuration partielle, ou null pour partir de zéro
+   * @return une nouvelle configuration valide et complète de prix maximal, ou
+   *         Optional.empty() s'il n'en existe aucune
+   */
+  public Optional<Configuration> mostExpensiveCompletion(Configuration partial) {
+    return optimize(partial, -1);
+  }
+
+  private Optional<Configuration> optimize(Configuration partial, int sign) {
+    ConstraintModel current = model();
+    long[] domain = partial == null ? current.newDomain() : current.domainOf(partial, -1);
+    if (domain == null || !Propagator.propagate(current, domain)) {
+      return Optional.empty();
+    }
+    // Les coûts sont les prix multipliés par le signe : les deux sens se
+    // ramènent à une minimisation
+    long[] costs = new long[current.valueCount()];
+    for (int v = 0; v < costs.length; v++) {
+      costs[v] = (long) sign * current.partType(v).getPrice();
+    }
+    BranchAndBound search = new BranchAndBound(current, costs);
+    search.explore(domain);
+    return search.best() == null ? Optional.empty() : Optional.of(current.toConfiguration(search.best()));
+  }
+
+  /**
+   * Retourne le modèle courant, recompilé si les règles ont changé.
+   */
+  private synchronized ConstraintModel model() {
+    if (!model.isCurrent()) {
+      model = ConstraintModel.compile(configurator);
+    }
+    return model;
+  }
+}
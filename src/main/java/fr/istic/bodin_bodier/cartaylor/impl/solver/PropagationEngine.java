@@ -0,0 +1,273 @@
+package fr.istic.bodin_bodier.cartaylor.impl.solver;
+
+import fr.istic.bodin_bodier.cartaylor.api.Category;
+import fr.istic.bodin_bodier.cartaylor.api.Configuration;
+import fr.istic.bodin_bodier.cartaylor.api.Configurator;
+import fr.istic.bodin_bodier.cartaylor.api.PartType;
+import fr.istic.bodin_bodier.cartaylor.impl.Bits;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Moteur de propagation indiquant, pour une configuration partielle, les
+ * variantes de chaque catégorie pouvant encore mener à une configuration
+ * valide et complète.
+ *
+ * <p>
+ * Le domaine de la configuration est d'abord rendu arc-consistant (voir
+ * {@link Propagator}), ce qui élimine l'essentiel des variantes impossibles.
+ * Chaque variante restante doit ensuite figurer dans au moins une solution
+ * complète : les solutions déjà trouvées sont conservées comme témoins et
+ * réutilisées d'un appel à l'autre, de sorte qu'après un
+ * {@code selectPart} seules les variantes sans témoin encore compatible
+ * déclenchent une recherche. Les derniers résultats sont en outre mis en
+ * cache par domaine.
+ *
+ * <p>
+ * Le modèle est recompilé automatiquement lorsque le gestionnaire de
+ * compatibilité publie de nouvelles règles. Un moteur est destiné à une
+ * session et n'est pas sûr vis-à-vis des threads.
+ */
+public class PropagationEngine {
+  private static final int MAX_WITNESSES = 64;
+  private static final int MAX_CACHED_DOMAINS = 128;
+
+  private final Configurator configurator;
+  private ConstraintModel model;
+  /** Solutions complètes déjà trouvées, les plus récentes en tête */
+  private final Deque<int[]> witnesses;
+  /** Domaines supportés, par domaine initial */
+  private final Map<DomainKey, long[]> cache;
+
+  /**
+   * Constructeur de la classe PropagationEngine.
+   *
+   * @param configurator le configurateur dont les règles sont propagées
+   * @throws IllegalArgumentException si le configurateur est null
+   */
+  public PropagationEngine(Configurator configurator) {
+    if (configurator == null) {
+      throw new IllegalArgumentException("Le configurateur ne peut pas être null");
+    }
+    this.configurator = configurator;
+    this.model = ConstraintModel.compile(configurator);
+    this.witnesses = new ArrayDeque<>();
+    this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<DomainKey, long[]> eldest) {
+        return size() > MAX_CACHED_DOMAINS;
+      }
+    };
+  }
+
+  /**
+   * Retourne le modèle de contraintes courant, recompilé si les règles ont
+   * changé.
+   *
+   * @return le modèle de contraintes
+   */
+  public ConstraintModel getModel() {
+    if (!model.isCurrent()) {
+      model = ConstraintModel.compile(configurator);
+      witnesses.clear();
+      cache.clear();
+    }
+    return model;
+  }
+
+  /**
+   * Retourne, pour chaque catégorie sans sélection, les variantes pouvant
+   * encore mener à une configuration valide et complète.
+   *
+   * @param configuration la configuration partielle
+   * @return les variantes possibles par catégorie ouverte, catégories triées
+   *         par nom
+   * @throws IllegalArgumentException si la configuration est null
+   */
+  public Map<Category, Set<PartType>> getCompatibleVariants(Configuration configuration) {
+    if (configuration == null) {
+      throw new IllegalArgumentException("La configuration ne peut pas être null");
+    }
+    ConstraintModel current = getModel();
+    long[] supported = supportedDomain(current, current.domainOf(configuration, -1));
+    List<Category> categories = new ArrayList<>(configurator.getCategories());
+    categories.sort(Comparator.comparing(Category::getName));
+    Map<Category, Set<PartType>> variants = new LinkedHashMap<>();
+    for (Category category : categories) {
+      if (configuration.getSelectionForCategory(category) == null) {
+        variants.put(category, toSet(current, supported, current.indexOf(category)));
+      }
+    }
+    return Collections.unmodifiableMap(variants);
+  }
+
+  /**
+   * Retourne les variantes d'une catégorie pouvant mener à une configuration
+   * valide et complète, compte tenu des sélections des autres catégories. La
+   * sélection éventuelle de la catégorie elle-même est ignorée, ce qui donne
+   * les variantes par lesquelles la remplacer.
+   *
+   * @param configuration la configuration partielle
+   * @param category      la catégorie
+   * @return les variantes possibles, dans l'ordre du catalogue
+   * @throws IllegalArgumentException si un des paramètres est null
+   */
+  public Set<PartType> getCompatibleVariants(Configuration configuration, Category category) {
+    if (configuration == null || category == null) {
+      throw new IllegalArgumentException("Les paramètres ne peuvent pas être null");
+    }
+    ConstraintModel current = getModel();
+    int c = current.indexOf(category);
+    if (c < 0) {
+      return Collections.emptySet();
+    }
+    return toSet(current, supportedDomain(current, current.domainOf(configuration, c)), c);
+  }
+
+  /**
+   * Indique si une configuration partielle peut encore être complétée en une
+   * configuration valide.
+   *
+   * @param configuration la configuration partielle
+   * @return true si au moins une complétion valide existe
+   * @throws IllegalArgumentException si la configuration est null
+   */
+  public boolean isCompletable(Configuration configuration) {
+    if (configuration == null) {
+      throw new IllegalArgumentException("La configuration ne peut pas être null");
+    }
+    ConstraintModel current = getModel();
+    long[] domain = current.domainOf(configuration, -1);
+    if (domain == null || !Propagator.propagate(current, domain)) {
+      return false;
+    }
+    for (int[] witness : witnesses) {
+      if (isConsistent(current, witness, domain)) {
+        return true;
+      }
+    }
+    int[] solution = Propagator.solve(current, domain);
+    if (solution != null) {
+      addWitness(solution);
+    }
+    return solution != null;
+  }
+
+  /**
+   * Calcule le sous-ensemble d'un domaine formé des variantes figurant dans
+   * au moins une solution.
+   *
+   * @param current le modèle
+   * @param initial le domaine initial, ou null s'il est vide
+   * @return le domaine supporté (à ne pas modifier)
+   */
+  private long[] supportedDomain(ConstraintModel current, long[] initial) {
+    int words = Bits.wordCount(current.valueCount());
+    if (initial == null) {
+      return new long[words];
+    }
+    DomainKey key = new DomainKey(initial);
+    long[] cached = cache.get(key);
+    if (cached != null) {
+      return cached;
+    }
+
+    long[] domain = initial.clone();
+    long[] supported = new long[words];
+    if (Propagator.propagate(current, domain)) {
+      for (int[] witness : witnesses) {
+        if (isConsistent(current, witness, domain)) {
+          mark(supported, witness);
+        }
+      }
+      for (int v = Bits.nextSetBit(domain, 0); v >= 0; v = Bits.nextSetBit(domain, v + 1)) {
+        if (Bits.get(supported, v)) {
+          continue;
+        }
+        int c = current.categoryOf(v);
+        long[] child = Propagator.assign(current, domain, v);
+        int[] solution = Propagator.propagate(current, child, c) ? Propagator.solve(current, child) : null;
+        if (solution != null) {
+          addWitness(solution);
+          mark(supported, solution);
+        } else {
+          Bits.clear(domain, v);
+          // Les variantes déjà supportées le restent : leurs témoins sont arc-consistants
+          if (!Propagator.propagate(current, domain, c)) {
+            Arrays.fill(supported, 0L);
+            break;
+          }
+        }
+      }
+    }
+    cache.put(key, supported);
+    return supported;
+  }
+
+  private void addWitness(int[] solution) {
+    if (witnesses.size() == MAX_WITNESSES) {
+      witnesses.removeLast();
+    }
+    witnesses.addFirst(solution);
+  }
+
+  private static boolean isConsistent(ConstraintModel current, int[] witness, long[] domain) {
+    for (int v : witness) {
+      if (!Bits.get(domain, v)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static void mark(long[] supported, int[] solution) {
+    for (int v : solution) {
+      supported[v >>> 6] |= 1L << v;
+    }
+  }
+
+  private static Set<PartType> toSet(ConstraintModel current, long[] domain, int c) {
+    if (c < 0) {
+      return Collections.emptySet();
+    }
+    Set<PartType> variants = new LinkedHashSet<>();
+    int end = current.end(c);
+    for (int v = Bits.nextSetBit(domain, current.start(c)); v >= 0 && v < end; v = Bits.nextSetBit(domain, v + 1)) {
+      variants.add(current.partType(v));
+    }
+    return Collections.unmodifiableSet(variants);
+  }
+
+  /**
+   * Clé de cache comparant les domaines par contenu.
+   */
+  private static final class DomainKey {
+    private final long[] bits;
+    private final int hash;
+
+    DomainKey(long[] bits) {
+      this.bits = bits.clone();
+      this.hash = Arrays.hashCode(bits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof DomainKey && Arrays.equals(bits, ((DomainKey) o).bits);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+}
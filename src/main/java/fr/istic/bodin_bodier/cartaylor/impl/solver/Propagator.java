@@ -0,0 +1,182 @@
+package fr.istic.bodin_bodier.cartaylor.impl.solver;
+
+import fr.istic.bodin_bodier.cartaylor.impl.Bits;
+
+/**
+ * Propagation et recherche sur les domaines d'un {@link ConstraintModel}.
+ *
+ * <p>
+ * Un domaine est un ensemble de bits sur les indices de variantes du modèle.
+ * La propagation maintient la consistance d'arc : une variante est retirée
+ * dès qu'une autre catégorie n'a plus aucune variante compatible avec elle.
+ * Toutes les contraintes étant binaires, un domaine arc-consistant dont
+ * chaque catégorie est réduite à une variante est une solution.
+ */
+final class Propagator {
+
+  private Propagator() {
+  }
+
+  /**
+   * Rend un domaine arc-consistant, en partant de toutes les catégories.
+   *
+   * @param model  le modèle
+   * @param domain le domaine, modifié en place
+   * @return false si une catégorie n'a plus aucune variante
+   */
+  static boolean propagate(ConstraintModel model, long[] domain) {
+    int k = model.categoryCount();
+    for (int c = 0; c < k; c++) {
+      if (Bits.cardinalityRange(domain, model.start(c), model.end(c)) == 0) {
+        return false;
+      }
+    }
+    int[] queue = new int[k];
+    boolean[] queued = new boolean[k];
+    for (int c = 0; c < k; c++) {
+      queue[c] = c;
+      queued[c] = true;
+    }
+    return propagate(model, domain, queue, queued, k);
+  }
+
+  /**
+   * Rend arc-consistant un domaine déjà arc-consistant dans lequel seule une
+   * catégorie a été réduite.
+   *
+   * @param model   le modèle
+   * @param domain  le domaine, modifié en place
+   * @param changed l'indice de la catégorie réduite
+   * @return false si une catégorie n'a plus aucune variante
+   */
+  static boolean propagate(ConstraintModel model, long[] domain, int changed) {
+    int k = model.categoryCount();
+    if (Bits.cardinalityRange(domain, model.start(changed), model.end(changed)) == 0) {
+      return false;
+    }
+    int[] queue = new int[k];
+    boolean[] queued = new boolean[k];
+    queue[0] = changed;
+    queued[changed] = true;
+    return propagate(model, domain, queue, queued, 1);
+  }
+
+  /**
+   * Boucle AC-3 : chaque catégorie réduite provoque la révision des variantes
+   * de toutes les autres catégories par rapport à elle. La file est
+   * circulaire, chaque catégorie y figurant au plus une fois.
+   */
+  private static boolean propagate(ConstraintModel model, long[] domain, int[] queue, boolean[] queued,
+      int size) {
+    int k = model.categoryCount();
+    int head = 0;
+    while (size > 0) {
+      int b = queue[head];
+      head = (head + 1) % k;
+      size--;
+      queued[b] = false;
+      for (int a = 0; a < k; a++) {
+        if (a == b) {
+          continue;
+        }
+        boolean revised = false;
+        int end = model.end(a);
+        for (int v = Bits.nextSetBit(domain, model.start(a)); v >= 0 && v < end; v = Bits.nextSetBit(domain, v + 1)) {
+          if (!model.isSupported(v, domain, b)) {
+            Bits.clear(domain, v);
+            revised = true;
+          }
+        }
+        if (revised) {
+          if (Bits.cardinalityRange(domain, model.start(a), end) == 0) {
+            return false;
+          }
+          if (!queued[a]) {
+            queue[(head + size) % k] = a;
+            queued[a] = true;
+            size++;
+          }
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Retourne une copie d'un domaine dans laquelle la catégorie d'une variante
+   * est réduite à cette variante.
+   *
+   * @param model  le modèle
+   * @param domain le domaine (non modifié)
+   * @param v      l'indice de la variante
+   * @return le domaine restreint
+   */
+  static long[] assign(ConstraintModel model, long[] domain, int v) {
+    long[] restricted = domain.clone();
+    int c = model.categoryOf(v);
+    Bits.clearRange(restricted, model.start(c), model.end(c));
+    Bits.set(restricted, v);
+    return restricted;
+  }
+
+  /**
+   * Retourne la catégorie non encore fixée ayant le moins de variantes.
+   *
+   * @param model  le modèle
+   * @param domain un domaine arc-consistant
+   * @return l'indice de la catégorie, ou -1 si toutes sont fixées
+   */
+  static int chooseCategory(ConstraintModel model, long[] domain) {
+    int best = -1;
+    int bestSize = Integer.MAX_VALUE;
+    for (int c = 0; c < model.categoryCount(); c++) {
+      int size = Bits.cardinalityRange(domain, model.start(c), model.end(c));
+      if (size > 1 && size < bestSize) {
+        best = c;
+        bestSize = size;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Extrait la solution d'un domaine dont toutes les catégories sont fixées.
+   *
+   * @param model  le modèle
+   * @param domain le domaine
+   * @return l'indice de variante choisi pour chaque catégorie
+   */
+  static int[] solution(ConstraintModel model, long[] domain) {
+    int[] solution = new int[model.categoryCount()];
+    for (int c = 0; c < solution.length; c++) {
+      solution[c] = Bits.nextSetBit(domain, model.start(c));
+    }
+    return solution;
+  }
+
+  /**
+   * Cherche une solution par retour arrière en maintenant la consistance
+   * d'arc à chaque choix.
+   *
+   * @param model  le modèle
+   * @param domain un domaine arc-consistant (non modifié)
+   * @return une solution, ou null s'il n'en existe pas
+   */
+  static int[] solve(ConstraintModel model, long[] domain) {
+    int c = chooseCategory(model, domain);
+    if (c < 0) {
+      return solution(model, domain);
+    }
+    int end = model.end(c);
+    for (int v = Bits.nextSetBit(domain, model.start(c)); v >= 0 && v < end; v = Bits.nextSetBit(domain, v + 1)) {
+      long[] child = assign(model, domain, v);
+      if (propagate(model, child, c)) {
+        int[] solution = solve(model, child);
+        if (solution != null) {
+          return solution;
+        }
+      }
+    }
+    return null;
+  }
+}
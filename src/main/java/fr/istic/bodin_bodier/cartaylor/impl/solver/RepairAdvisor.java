@@ -0,0 +1,296 @@
+package fr.istic.bodin_bodier.cartaylor.impl.solver;
+
+import fr.istic.bodin_bodier.cartaylor.api.Category;
+import fr.istic.bodin_bodier.cartaylor.api.Configuration;
+import fr.istic.bodin_bodier.cartaylor.api.Configurator;
+import fr.istic.bodin_bodier.cartaylor.api.PartType;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Suggestion de réparations minimales pour une configuration invalide ou
+ * incomplète.
+ *
+ * <p>
+ * Une réparation est la plus petite liste d'appels à
+ * {@link Configuration#selectPart(PartType)} et
+ * {@link Configuration#unselectPartType(Category)} menant à une configuration
+ * valide et complète. Par défaut, le nombre de modifications est minimisé, puis
+ * le prix des pièces ajoutées ; en mode pondéré par les prix, chaque
+ * modification coûte le prix de la pièce sélectionnée.
+ *
+ * <p>
+ * La recherche procède par séparation et évaluation sur le modèle de
+ * contraintes (voir {@link BranchAndBound}) : une variante conservée ne coûte
+ * rien, la sélection courante de chaque catégorie est donc essayée en premier
+ * et la première solution trouvée est déjà proche de la configuration. La
+ * recherche s'arrête à l'échéance configurée et retourne la meilleure
+ * réparation trouvée, marquée non optimale. Une échéance survenant avant la
+ * première solution est signalée par une {@link TimeoutException}, distincte
+ * de l'absence de réparation.
+ */
+public class RepairAdvisor {
+  /** Échéance par défaut de la recherche */
+  public static final Duration DEFAULT_DEADLINE = Duration.ofMillis(50);
+
+  /** Coût d'une modification en mode non pondéré, supérieur à tout prix */
+  private static final long CHANGE_COST = 1L << 32;
+
+  private final Configurator configurator;
+  private final Duration deadline;
+  private final boolean priceWeighted;
+  private ConstraintModel model;
+
+  /**
+   * Constructeur minimisant le nombre de modifications, avec l'échéance par
+   * défaut.
+   *
+   * @param configurator le configurateur
+   * @throws IllegalArgumentException si le configurateur est null
+   */
+  public RepairAdvisor(Configurator configurator) {
+    this(configurator, DEFAULT_DEADLINE, false);
+  }
+
+  /**
+   * Constructeur de la classe RepairAdvisor.
+   *
+   * @param configurator  le configurateur
+   * @param deadline      la durée maximale de recherche
+   * @param priceWeighted true pour pondérer chaque modification par le prix de
+   *                      la pièce sélectionnée
+   * @throws IllegalArgumentException si un des paramètres est null, ou si
+   *                                  l'échéance est négative
+   */
+  public RepairAdvisor(Configurator configurator, Duration deadline, boolean priceWeighted) {
+    if (configurator == null || deadline == null) {
+      throw new IllegalArgumentException("Les paramètres ne peuvent pas être null");
+    }
+    if (deadline.isNegative()) {
+      throw new IllegalArgumentException("L'échéance ne peut pas être négative");
+    }
+    this.configurator = configurator;
+    this.deadline = deadline;
+    this.priceWeighted = priceWeighted;
+    this.model = ConstraintModel.compile(configurator);
+  }
+
+  /**
+   * Propose une réparation de la configuration. La configuration n'est pas
+   * modifiée ; une configuration déjà valide et complète reçoit une
+   * réparation vide.
+   *
+   * @param configuration la configuration à réparer
+   * @return la réparation, ou Optional.empty() si aucune configuration
+   *         valide et complète n'existe
+   * @throws IllegalArgumentException si la configuration est null
+   * @throws TimeoutException         si l'échéance expire avant qu'une
+   *                                  réparation soit trouvée ; une échéance
+   *                                  plus longue peut alors aboutir
+   */
+  public Optional<Repair> suggest(Configuration configuration) throws TimeoutException {
+    if (configuration == null) {
+      throw new IllegalArgumentException("La configuration ne peut pas être null");
+    }
+    // L'échéance couvre aussi la recompilation et la propagation initiale
+    long end = System.nanoTime() + deadline.toNanos();
+    ConstraintModel current = model();
+    long[] domain = current.newDomain();
+    if (!Propagator.propagate(current, domain)) {
+      return Optional.empty();
+    }
+    int[] selected = new int[current.categoryCount()];
+    for (int c = 0; c < selected.length; c++) {
+      PartType part = configuration.getSelectionForCategory(current.category(c));
+      int v = part == null ? -1 : current.indexOf(part);
+      selected[c] = v >= 0 && current.categoryOf(v) == c ? v : -1;
+    }
+    long[] costs = new long[current.valueCount()];
+    for (int v = 0; v < costs.length; v++) {
+      if (selected[current.categoryOf(v)] != v) {
+        long price = current.partType(v).getPrice();
+        costs[v] = priceWeighted ? 1 + price : CHANGE_COST + price;
+      }
+    }
+    BranchAndBound search = new BranchAndBound(current, costs, end);
+    search.explore(domain);
+    if (search.best() == null) {
+      if (search.isInterrupted()) {
+        throw new TimeoutException("Échéance de " + deadline.toMillis() + " ms expirée avant la première réparation");
+      }
+      return Optional.empty();
+    }
+
+    List<Change> changes = new ArrayList<>();
+    // Les sélections hors des catégories du modèle empêchent toute validité
+    for (PartType part : configuration.getSelectedParts()) {
+      if (current.indexOf(part.getCategory()) < 0) {
+        changes.add(new Change(part.getCategory(), null));
+      }
+    }
+    for (int v : search.best()) {
+      if (selected[current.categoryOf(v)] != v) {
+        changes.add(new Change(current.category(current.categoryOf(v)), current.partType(v)));
+      }
+    }
+    return Optional.of(new Repair(changes, current.toConfiguration(search.best()), search.bestCost(),
+        !search.isInterrupted()));
+  }
+
+  /**
+   * Retourne le modèle courant, recompilé si les règles ont changé.
+   */
+  private synchronized ConstraintModel model() {
+    if (!model.isCurrent()) {
+      model = ConstraintModel.compile(configurator);
+    }
+    return model;
+  }
+
+  /**
+   * Modification élémentaire d'une configuration : sélection d'une pièce, ou
+   * désélection d'une catégorie.
+   */
+  public static final class Change {
+    private final Category category;
+    private final PartType partType;
+
+    Change(Category category, PartType partType) {
+      this.category = category;
+      this.partType = partType;
+    }
+
+    /**
+     * Retourne la catégorie modifiée.
+     *
+     * @return la catégorie
+     */
+    public Category getCategory() {
+      return category;
+    }
+
+    /**
+     * Retourne la pièce à sélectionner.
+     *
+     * @return la pièce, ou null pour désélectionner la catégorie
+     */
+    public PartType getPartType() {
+      return partType;
+    }
+
+    /**
+     * Applique la modification à une configuration.
+     *
+     * @param configuration la configuration à modifier
+     */
+    public void applyTo(Configuration configuration) {
+      if (partType == null) {
+        configuration.unselectPartType(category);
+      } else {
+        configuration.selectPart(partType);
+      }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Change)) {
+        return false;
+      }
+      Change that = (Change) o;
+      return category.equals(that.category) && Objects.equals(partType, that.partType);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(category, partType);
+    }
+
+    @Override
+    public String toString() {
+      return partType == null
+          ? "désélectionner " + category.getName()
+          : category.getName() + " : " + partType.getName();
+    }
+  }
+
+  /**
+   * Réparation proposée pour une configuration.
+   */
+  public static final class Repair {
+    private final List<Change> changes;
+    private final Configuration result;
+    private final long cost;
+    private final boolean optimal;
+
+    Repair(List<Change> changes, Configuration result, long cost, boolean optimal) {
+      this.changes = List.copyOf(changes);
+      this.result = result;
+      this.cost = cost;
+      this.optimal = optimal;
+    }
+
+    /**
+     * Retourne les modifications à appliquer, au plus une par catégorie.
+     *
+     * @return la liste non modifiable des modifications
+     */
+    public List<Change> getChanges() {
+      return changes;
+    }
+
+    /**
+     * Retourne une nouvelle configuration, valide et complète, obtenue en
+     * appliquant la réparation.
+     *
+     * @return la configuration réparée
+     */
+    public Configuration getResult() {
+      return result;
+    }
+
+    /**
+     * Retourne le coût de la réparation selon la pondération de la
+     * recherche.
+     *
+     * @return le coût
+     */
+    public long getCost() {
+      return cost;
+    }
+
+    /**
+     * Indique si la recherche a pu prouver que la réparation est minimale
+     * avant l'échéance.
+     *
+     * @return true si la réparation est optimale
+     */
+    public boolean isOptimal() {
+      return optimal;
+    }
+
+    /**
+     * Applique toutes les modifications à une configuration.
+     *
+     * @param configuration la configuration à réparer
+     * @throws IllegalArgumentException si la configuration est null
+     */
+    public void applyTo(Configuration configuration) {
+      if (configuration == null) {
+        throw new IllegalArgumentException("La configuration ne peut pas être null");
+      }
+      for (Change change : changes) {
+        change.applyTo(configuration);
+      }
+    }
+
+    @Override
+    public String toString() {
+      return changes.isEmpty() ? "Aucune modification" : "Modifications : " + changes;
+    }
+  }
+}
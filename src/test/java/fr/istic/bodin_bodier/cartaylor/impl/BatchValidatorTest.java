@@ -0,0 +1,123 @@
+package fr.istic.bodin_bodier.cartaylor.impl;
+
+import fr.istic.bodin_bodier.cartaylor.api.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Tests unitaires pour la classe BatchValidator.
+ *
+ * <p>
+ * Les sélections sont validées contre les règles du catalogue de test : V8
+ * est incompatible avec Manual, et V6 requiert Automatic.
+ */
+public class BatchValidatorTest {
+  private Configurator configurator;
+  private PartType v8;
+  private PartType v6;
+  private PartType manual;
+  private PartType automatic;
+
+  @BeforeEach
+  public void setUp() {
+    configurator = new ConfiguratorImpl("data/test-catalogue-rules.json");
+    v8 = configurator.findPartType("V8").orElseThrow();
+    v6 = configurator.findPartType("V6").orElseThrow();
+    manual = configurator.findPartType("Manual").orElseThrow();
+    automatic = configurator.findPartType("Automatic").orElseThrow();
+  }
+
+  /**
+   * Vérifie les verdicts et les règles violées d'une sélection.
+   */
+  @Test
+  public void testValidateReportsViolations() {
+    BatchValidator validator = new BatchValidator(configurator.getCompatibilityChecker());
+
+    assertTrue(validator.validate(List.of(v8, automatic)).isValid());
+    assertTrue(validator.validate(List.of()).getViolations().isEmpty());
+
+    ValidationResult result = validator.validate(List.of(v8, v6, manual));
+    assertFalse(result.isValid());
+    assertEquals(Set.of(
+        new ViolationImpl(Violation.Kind.INCOMPATIBILITY, v8, manual),
+        new ViolationImpl(Violation.Kind.REQUIREMENT, v6, automatic)),
+        Set.copyOf(result.getViolations()));
+    assertEquals(2, result.getViolations().size());
+
+    assertThrows(IllegalArgumentException.class, () -> validator.validate(null));
+    assertThrows(IllegalArgumentException.class, () -> new BatchValidator(null));
+  }
+
+  /**
+   * Vérifie que la validation en masse retourne un verdict par sélection,
+   * dans l'ordre du flux.
+   */
+  @Test
+  public void testValidateAllKeepsOrder() {
+    BatchValidator validator = new BatchValidator(configurator.getCompatibilityChecker(), new ForkJoinPool(4));
+    List<List<PartType>> selections = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      selections.add(i % 3 == 0 ? List.of(v8, manual) : List.of(v6, automatic));
+    }
+
+    List<ValidationResult> results = validator.validateAll(selections.stream());
+    assertEquals(selections.size(), results.size());
+    for (int i = 0; i < results.size(); i++) {
+      assertEquals(i % 3 != 0, results.get(i).isValid());
+    }
+  }
+
+  /**
+   * Vérifie la validation en flux, sans conservation des verdicts.
+   */
+  @Test
+  public void testValidateEach() {
+    BatchValidator validator = new BatchValidator(configurator.getCompatibilityChecker());
+    Map<Integer, ValidationResult> verdicts = new ConcurrentHashMap<>();
+    Stream<Collection<PartType>> selections = IntStream.range(0, 100)
+        .mapToObj(i -> i % 2 == 0 ? List.of(v6) : List.of(v6, automatic));
+    validator.validateEach(selections, (selection, verdict) -> verdicts.merge(selection.size(), verdict,
+        (a, b) -> a));
+
+    assertFalse(verdicts.get(1).isValid());
+    assertTrue(verdicts.get(2).isValid());
+  }
+
+  /**
+   * Vérifie que la validation fonctionne aussi avec un vérificateur autre que
+   * CompatibilityManagerImpl.
+   */
+  @Test
+  public void testValidateWithOtherChecker() {
+    CompatibilityChecker delegate = configurator.getCompatibilityChecker();
+    CompatibilityChecker checker = new CompatibilityChecker() {
+      @Override
+      public Set<PartType> getIncompatibilities(PartType reference) {
+        return delegate.getIncompatibilities(reference);
+      }
+
+      @Override
+      public Set<PartType> getRequirements(PartType reference) {
+        return delegate.getRequirements(reference);
+      }
+    };
+    BatchValidator validator = new BatchValidator(checker);
+
+    ValidationResult result = validator.validate(List.of(v8, manual));
+    assertEquals(1, result.getViolations().size());
+    assertEquals(Violation.Kind.INCOMPATIBILITY, result.getViolations().get(0).getKind());
+    assertTrue(validator.validateAll(Stream.of(List.of(v6, automatic))).get(0).isValid());
+  }
+}
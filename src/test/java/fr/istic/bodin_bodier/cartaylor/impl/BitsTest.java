@@ -0,0 +1,81 @@
+package fr.istic.bodin_bodier.cartaylor.impl;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour la classe Bits.
+ */
+public class BitsTest {
+
+  /**
+   * Vérifie le positionnement, la lecture et l'effacement de bits au-delà
+   * de la taille initiale du tableau.
+   */
+  @Test
+  public void testSetGetClear() {
+    long[] bits = Bits.set(Bits.EMPTY, 130);
+    assertTrue(Bits.get(bits, 130));
+    assertFalse(Bits.get(bits, 129));
+    assertFalse(Bits.get(bits, 5000));
+    assertEquals(0, Bits.EMPTY.length);
+
+    Bits.clear(bits, 130);
+    assertTrue(Bits.isEmpty(bits));
+  }
+
+  /**
+   * Vérifie les opérations ensemblistes entre tableaux de longueurs
+   * différentes.
+   */
+  @Test
+  public void testSetOperations() {
+    long[] a = Bits.set(Bits.set(Bits.EMPTY, 1), 70);
+    long[] b = Bits.set(Bits.EMPTY, 70);
+
+    assertTrue(Bits.intersects(a, b));
+    assertTrue(Bits.containsAll(a, b));
+    assertFalse(Bits.containsAll(b, a));
+    assertEquals(1, Bits.cardinalityAnd(a, b));
+    assertEquals(1, Bits.cardinalityAndNot(a, b));
+    assertEquals(2, Bits.cardinality(a));
+  }
+
+  /**
+   * Vérifie le parcours des bits positionnés.
+   */
+  @Test
+  public void testNextSetBit() {
+    long[] bits = Bits.set(Bits.set(Bits.set(Bits.EMPTY, 0), 63), 200);
+    assertEquals(0, Bits.nextSetBit(bits, 0));
+    assertEquals(63, Bits.nextSetBit(bits, 1));
+    assertEquals(200, Bits.nextSetBit(bits, 64));
+    assertEquals(-1, Bits.nextSetBit(bits, 201));
+    assertEquals(-1, Bits.nextSetBit(Bits.EMPTY, 0));
+  }
+
+  /**
+   * Vérifie les opérations restreintes à un intervalle d'indices, y compris
+   * à cheval sur plusieurs mots.
+   */
+  @Test
+  public void testRangeOperations() {
+    long[] bits = new long[3];
+    for (int i : new int[] { 3, 63, 64, 100, 130 }) {
+      Bits.set(bits, i);
+    }
+    assertEquals(3, Bits.cardinalityRange(bits, 63, 101));
+    assertEquals(0, Bits.cardinalityRange(bits, 4, 63));
+    assertEquals(5, Bits.cardinalityRange(bits, 0, 192));
+
+    long[] other = Bits.set(new long[3], 100);
+    assertTrue(Bits.intersectsRange(bits, other, 64, 101));
+    assertFalse(Bits.intersectsRange(bits, other, 101, 192));
+    assertFalse(Bits.intersectsRange(bits, other, 0, 100));
+
+    Bits.clearRange(bits, 63, 101);
+    assertEquals(2, Bits.cardinality(bits));
+    assertTrue(Bits.get(bits, 3));
+    assertTrue(Bits.get(bits, 130));
+  }
+}
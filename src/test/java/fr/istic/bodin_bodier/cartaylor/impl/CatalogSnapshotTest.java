@@ -0,0 +1,257 @@
+package fr.istic.bodin_bodier.cartaylor.impl;
+
+import fr.istic.bodin_bodier.cartaylor.api.Catalog;
+import fr.istic.bodin_bodier.cartaylor.api.Category;
+import fr.istic.bodin_bodier.cartaylor.api.PartType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+/**
+ * Tests unitaires pour la classe CatalogSnapshot.
+ *
+ * <p>
+ * Ces tests vérifient que l'écriture puis la relecture d'un instantané
+ * restituent le catalogue, les ordinaux et les règles de compatibilité.
+ */
+public class CatalogSnapshotTest {
+  private CatalogImpl catalog;
+  private CompatibilityManagerImpl manager;
+
+  @TempDir
+  Path tempDir;
+
+  /**
+   * Charge le catalogue de test et y ajoute quelques règles.
+   *
+   * @throws IOException
+   */
+  @BeforeEach
+  public void setUp() throws IOException {
+    catalog = new CatalogImpl();
+    try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("data/test-catalogue.json")) {
+      catalog.loadFromJSON(inputStream);
+    }
+    manager = new CompatibilityManagerImpl(catalog.getPartTypeIndex());
+    manager.addIncompatibilities(part("V8"), Set.of(part("Manual")));
+    manager.addRequirements(part("V6"), Set.of(part("Automatic")));
+  }
+
+  private PartType part(String name) {
+    return catalog.findPartType(name).orElseThrow();
+  }
+
+  /**
+   * Vérifie l'aller-retour complet d'un instantané.
+   *
+   * @throws IOException
+   */
+  @Test
+  public void testRoundTrip() throws IOException {
+    Path file = tempDir.resolve("catalogue.snapshot");
+    CatalogSnapshot.write(catalog, manager, file);
+
+    CatalogSnapshot snapshot = CatalogSnapshot.load(file);
+    Catalog loaded = snapshot.getCatalog();
+    CompatibilityManagerImpl loadedManager = snapshot.getCompatibilityManager();
+
+    assertEquals(catalog.getPartTypes(), loaded.getPartTypes());
+    assertEquals(4, loaded.getCategories().size());
+    for (Category category : catalog.getCategories()) {
+      assertEquals(catalog.getPartTypesForCategory(category),
+          loaded.getPartTypesForCategory(loaded.getCategory(category.getName())));
+    }
+    PartType v8 = loaded.findPartType("V8").orElseThrow();
+    assertEquals(catalog.getPartTypeIndex().ordinalOf(part("V8")),
+        snapshot.getCatalog().getPartTypeIndex().ordinalOf(v8));
+
+    assertEquals(Set.of(part("Manual")), loadedManager.getIncompatibilities(v8));
+    assertEquals(Set.of(part("V8")), loadedManager.getIncompatibilities(part("Manual")));
+    assertEquals(Set.of(part("Automatic")), loadedManager.getRequirements(part("V6")));
+    assertSame(snapshot.getCatalog().getPartTypeIndex(), loadedManager.getPartTypeIndex());
+
+    // Les exigences inverses sont reconstruites
+    int automatic = loadedManager.getPartTypeIndex().ordinalOf(part("Automatic"));
+    int v6 = loadedManager.getPartTypeIndex().ordinalOf(part("V6"));
+    assertTrue(Bits.get(loadedManager.getRequiredByBits(automatic), v6));
+  }
+
+  /**
+   * Vérifie la création d'un configurateur depuis un instantané.
+   *
+   * @throws IOException
+   */
+  @Test
+  public void testConfiguratorFromSnapshot() throws IOException {
+    Path file = tempDir.resolve("catalogue.snapshot");
+    CatalogSnapshot.write(catalog, manager, file);
+
+    ConfiguratorImpl configurator = ConfiguratorImpl.fromSnapshot(file);
+    configurator.getConfiguration().selectPart(part("V8"));
+    configurator.getConfiguration().selectPart(part("Manual"));
+    assertFalse(configurator.getConfiguration().isValid());
+    assertEquals(4, configurator.getPartTypes().size());
+  }
+
+  /**
+   * Vérifie l'aller-retour des catégories déclarées par le catalogue.
+   *
+   * @throws IOException
+   */
+  @Test
+  public void testDeclaredCategoriesRoundTrip() throws IOException {
+    CatalogImpl declared = new CatalogImpl();
+    declared.loadFromJSON(new ByteArrayInputStream(("{ \"categories\": [\"Wheels\", \"Engine\"],"
+        + " \"partTypes\": [{ \"id\": \"W-18\", \"name\": \"R18\", \"category\": \"Wheels\","
+        + " \"price\": 900 }] }").getBytes()));
+    Path file = tempDir.resolve("declared.snapshot");
+    CatalogSnapshot.write(declared, new CompatibilityManagerImpl(declared.getPartTypeIndex()), file);
+
+    CatalogImpl loaded = CatalogSnapshot.load(file).getCatalog();
+    assertEquals(2, loaded.getCategories().size());
+    assertEquals(0, loaded.getCategoryIndex().ordinalOf(loaded.getCategory("Wheels")));
+    PartType wheel = loaded.findPartType("R18").orElseThrow();
+    assertEquals("W-18", wheel.getId());
+    assertSame(loaded.getCategory("Wheels"), wheel.getCategory());
+  }
+
+  /**
+   * Vérifie l'aller-retour des descriptions et des propriétés, colonnes
+   * comprises.
+   *
+   * @throws IOException
+   */
+  @Test
+  public void testPropertiesRoundTrip() throws IOException {
+    CatalogImpl shipped = new CatalogImpl();
+    try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("data/catalogue.json")) {
+      shipped.loadFromJSON(inputStream);
+    }
+    // Une valeur non entière rend la colonne « gears » énumérée
+    shipped.loadFromJSON(new ByteArrayInputStream(("{ \"partTypes\": ["
+        + " { \"name\": \"TA6\", \"category\": \"Transmission\", \"price\": 1, \"properties\": { \"gears\": 6 } },"
+        + " { \"name\": \"TCVT\", \"category\": \"Transmission\", \"price\": 1, \"properties\": { \"gears\": \"CVT\" } }"
+        + " ] }").getBytes()));
+    Path file = tempDir.resolve("properties.snapshot");
+    CatalogSnapshot.write(shipped, new CompatibilityManagerImpl(shipped.getPartTypeIndex()), file);
+
+    CatalogImpl loaded = CatalogSnapshot.load(file).getCatalog();
+    for (Category category : shipped.getCategories()) {
+      PropertyTable expected = shipped.getProperties(category);
+      PropertyTable actual = loaded.getProperties(loaded.getCategory(category.getName()));
+      assertEquals(expected.getPartTypes(), actual.getPartTypes());
+      assertEquals(expected.getPropertyNames(), actual.getPropertyNames());
+      for (String property : expected.getPropertyNames()) {
+        assertEquals(expected.isNumeric(property), actual.isNumeric(property));
+        assertEquals(expected.getAvailablePropertyValues(property), actual.getAvailablePropertyValues(property));
+      }
+      for (PartType partType : expected.getPartTypes()) {
+        assertEquals(expected.getDescription(partType), actual.getDescription(partType));
+        for (String property : expected.getPropertyNames()) {
+          assertEquals(expected.getProperty(partType, property), actual.getProperty(partType, property));
+        }
+      }
+    }
+    Category engine = loaded.getCategory("Engine");
+    assertEquals(shipped.getProperties(shipped.getCategory("Engine")).filter("power >= 110 AND fuelType = Diesel"),
+        loaded.getProperties(engine).filter("power >= 110 AND fuelType = Diesel"));
+    assertFalse(loaded.getProperties(engine).filter("power >= 110").isEmpty());
+    assertFalse(loaded.getProperties(loaded.getCategory("Transmission")).isNumeric("gears"));
+  }
+
+  /**
+   * Vérifie qu'un fichier qui n'est pas un instantané est refusé.
+   *
+   * @throws IOException
+   */
+  @Test
+  public void testRejectsInvalidFiles() throws IOException {
+    Path notSnapshot = tempDir.resolve("invalid.snapshot");
+    Files.write(notSnapshot, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+    assertThrows(IOException.class, () -> CatalogSnapshot.load(notSnapshot));
+
+    Path file = tempDir.resolve("truncated.snapshot");
+    CatalogSnapshot.write(catalog, manager, file);
+    byte[] bytes = Files.readAllBytes(file);
+    Files.write(file, java.util.Arrays.copyOf(bytes, bytes.length / 2));
+    assertThrows(IOException.class, () -> CatalogSnapshot.load(file));
+  }
+
+  /**
+   * Vérifie qu'un instantané aux longueurs corrompues ou au contenu
+   * incohérent est refusé par une IOException.
+   *
+   * @throws IOException
+   */
+  @Test
+  public void testRejectsCorruptContent() throws IOException {
+    Path negative = tempDir.resolve("negative.snapshot");
+    Files.write(negative, snapshot(-1));
+    assertThrows(IOException.class, () -> CatalogSnapshot.load(negative));
+
+    Path oversized = tempDir.resolve("oversized.snapshot");
+    Files.write(oversized, snapshot(Integer.MAX_VALUE));
+    assertThrows(IOException.class, () -> CatalogSnapshot.load(oversized));
+
+    // Deux pièces d'identifiants différents portant le même nom
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeInt(CatalogSnapshot.MAGIC);
+      out.writeInt(CatalogSnapshot.FORMAT_VERSION);
+      out.writeInt(4);
+      for (String string : new String[] { "Engine", "SKU1", "SKU2", "V8" }) {
+        out.writeInt(string.length());
+        out.writeBytes(string);
+      }
+      out.writeInt(1);
+      out.writeInt(0);
+      out.writeInt(2);
+      for (int id = 1; id <= 2; id++) {
+        out.writeInt(id);
+        out.writeInt(3);
+        out.writeInt(0);
+        out.writeInt(100);
+        out.writeBoolean(true);
+        out.writeInt(-1);
+        out.writeInt(0);
+      }
+      out.writeInt(0);
+      out.writeInt(0);
+    }
+    Path homonyms = tempDir.resolve("homonyms.snapshot");
+    Files.write(homonyms, bytes.toByteArray());
+    IOException exception = assertThrows(IOException.class, () -> CatalogSnapshot.load(homonyms));
+    assertTrue(exception.getMessage().contains("V8"));
+  }
+
+  /** Début d'instantané annonçant un nombre de chaînes donné */
+  private static byte[] snapshot(int stringCount) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeInt(CatalogSnapshot.MAGIC);
+      out.writeInt(CatalogSnapshot.FORMAT_VERSION);
+      out.writeInt(stringCount);
+      out.writeInt(0);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Vérifie que le gestionnaire doit partager l'index du catalogue.
+   */
+  @Test
+  public void testWriteRequiresSharedIndex() {
+    assertThrows(IllegalArgumentException.class,
+        () -> CatalogSnapshot.write(catalog, new CompatibilityManagerImpl(), tempDir.resolve("x")));
+  }
+}
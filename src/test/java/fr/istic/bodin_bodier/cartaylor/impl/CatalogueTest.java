@@ -3,6 +3,8 @@ package fr.istic.bodin_bodier.cartaylor.impl;
 import fr.istic.bodin_bodier.cartaylor.api.Category;
 import fr.istic.bodin_bodier.cartaylor.api.PartType;
 import fr.istic.bodin_bodier.cartaylor.api.Catalog;
+import fr.istic.bodin_bodier.cartaylor.api.PropertyManager;
+import fr.istic.bodin_bodier.cartaylor.impl.categories.EngineCategory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
@@ -10,6 +12,11 @@ import static org.junit.jupiter.api.Assertions.*;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 /**
@@ -118,6 +125,36 @@ public class CatalogueTest {
     }
   }
 
+  /**
+   * Vérifie que les catégories déclarées par le fichier remplacent les
+   * catégories standard, dans l'ordre de déclaration.
+   * 
+   * @throws IOException
+   */
+  @Test
+  public void testDeclaredCategories() throws IOException {
+    String json = "{ \"categories\": [\"Wheels\", { \"name\": \"Engine\" }],"
+        + " \"partTypes\": [{ \"name\": \"R18\", \"category\": \"Wheels\", \"price\": 900 },"
+        + " { \"name\": \"V8\", \"category\": \"Engine\", \"price\": 10000 }] }";
+    CatalogImpl catalog = new CatalogImpl();
+    catalog.loadFromJSON(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+    List<String> names = new ArrayList<>();
+    catalog.getCategories().forEach(category -> names.add(category.getName()));
+    assertEquals(List.of("Wheels", "Engine"), names);
+    assertNull(catalog.getCategory("Transmission"));
+    assertEquals(0, catalog.getCategoryIndex().ordinalOf(catalog.getCategory("Wheels")));
+    assertEquals(1, catalog.getCategoryIndex().ordinalOf(catalog.getCategory("Engine")));
+    assertTrue(catalog.getCategory("Engine") instanceof EngineCategory);
+    assertEquals(1, catalog.getPartTypesForCategory(catalog.getCategory("Wheels")).size());
+
+    // Une déclaration après le chargement de pièces s'ajoute aux catégories
+    catalog.loadFromJSON(new ByteArrayInputStream("{ \"categories\": [\"Seats\"] }".getBytes()));
+    assertEquals(3, catalog.getCategories().size());
+    assertThrows(IOException.class, () -> catalog.loadFromJSON(
+        new ByteArrayInputStream("{ \"categories\": [{ \"label\": \"x\" }] }".getBytes())));
+  }
+
   /**
    * Vérifie que l'exception IllegalStateException est lancée lorsque la catégorie
    * n'existe pas.
@@ -131,4 +168,225 @@ public class CatalogueTest {
       catalogue.loadFromJSON(inputStream);
     }, "Une exception devrait être lancée pour une catégorie inexistante");
   }
-}
\ No newline at end of file
+
+  /**
+   * Vérifie que le chargement en flux ignore les champs inconnus, y compris
+   * imbriqués, et signale sa progression.
+   * 
+   * @throws IOException
+   */
+  @Test
+  public void testStreamingLoadReportsProgress() throws IOException {
+    StringBuilder json = new StringBuilder("{ \"version\": { \"major\": 1 }, \"partTypes\": [");
+    for (int i = 0; i < 3000; i++) {
+      if (i > 0) {
+        json.append(',');
+      }
+      json.append("{ \"name\": \"P").append(i)
+          .append("\", \"properties\": { \"power\": 100, \"tags\": [1, 2] }")
+          .append(", \"category\": \"Engine\", \"price\": ").append(i).append(" }");
+    }
+    json.append("] }");
+    byte[] bytes = json.toString().getBytes(StandardCharsets.UTF_8);
+
+    List<Integer> progress = new ArrayList<>();
+    List<Long> offsets = new ArrayList<>();
+    ((CatalogImpl) catalogue).loadFromJSON(new ByteArrayInputStream(bytes), (loaded, bytesRead) -> {
+      progress.add(loaded);
+      offsets.add(bytesRead);
+    });
+
+    assertEquals(3000, catalogue.getPartTypes().size());
+    assertEquals(List.of(1024, 2048, 3000), progress);
+    assertEquals(bytes.length, offsets.get(offsets.size() - 1));
+  }
+
+  /**
+   * Vérifie qu'un type de pièce sans prix est rejeté.
+   */
+  @Test
+  public void testLoadFromJSONWithMissingField() {
+    String json = "{ \"partTypes\": [{ \"name\": \"NoPrice\", \"category\": \"Engine\" }] }";
+    assertThrows(IOException.class, () -> {
+      catalogue.loadFromJSON(new ByteArrayInputStream(json.getBytes()));
+    });
+  }
+
+  /**
+   * Vérifie que l'index par catégorie est tenu à jour par les chargements
+   * successifs et qu'il n'expose que des vues non modifiables.
+   * 
+   * @throws IOException
+   */
+  @Test
+  public void testPartTypesForCategoryIndex() throws IOException {
+    Category engine = catalogue.getCategory("Engine");
+    Set<PartType> engines = catalogue.getPartTypesForCategory(engine);
+    assertTrue(engines.isEmpty());
+
+    String json = "{ \"partTypes\": [{ \"name\": \"V8\", \"category\": \"Engine\", \"price\": 100 },"
+        + " { \"name\": \"Manual\", \"category\": \"Transmission\", \"price\": 50 }] }";
+    catalogue.loadFromJSON(new ByteArrayInputStream(json.getBytes()));
+    assertEquals(1, engines.size());
+    assertEquals("V8", engines.iterator().next().getName());
+    assertSame(engines, catalogue.getPartTypesForCategory(engine));
+
+    String more = "{ \"partTypes\": [{ \"name\": \"V6\", \"category\": \"Engine\", \"price\": 80 }] }";
+    catalogue.loadFromJSON(new ByteArrayInputStream(more.getBytes()));
+    assertEquals(2, catalogue.getPartTypesForCategory(engine).size());
+    assertEquals(3, catalogue.getPartTypes().size());
+
+    assertThrows(UnsupportedOperationException.class, () -> engines.clear());
+    assertThrows(UnsupportedOperationException.class, () -> catalogue.getPartTypes().clear());
+    assertThrows(UnsupportedOperationException.class, () -> catalogue.getCategories().clear());
+  }
+
+  /**
+   * Vérifie la recherche de types de pièces par nom.
+   * 
+   * @throws IOException
+   */
+  @Test
+  public void testFindPartTypeAndResolveAll() throws IOException {
+    try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("data/test-catalogue.json")) {
+      catalogue.loadFromJSON(inputStream);
+    }
+    Optional<PartType> v8 = catalogue.findPartType("V8");
+    assertTrue(v8.isPresent());
+    assertEquals("V8", v8.get().getName());
+    assertEquals(catalogue.getCategory("Engine"), v8.get().getCategory());
+    assertFalse(catalogue.findPartType("V12").isPresent());
+    assertThrows(IllegalArgumentException.class, () -> catalogue.findPartType(null));
+
+    List<PartType> resolved = catalogue.resolveAll(Arrays.asList("Manual", "V8"));
+    assertEquals(List.of(catalogue.findPartType("Manual").get(), v8.get()), resolved);
+
+    IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+        () -> catalogue.resolveAll(Arrays.asList("V8", "V12", "W16")));
+    assertTrue(exception.getMessage().contains("V12"));
+    assertTrue(exception.getMessage().contains("W16"));
+  }
+
+  /**
+   * Vérifie qu'une règle référençant une pièce inconnue est rejetée.
+   */
+  @Test
+  public void testLoadRulesWithUnknownPart() {
+    String json = "{ \"partTypes\": [{ \"name\": \"V8\", \"category\": \"Engine\", \"price\": 1 }],"
+        + " \"requirements\": [{ \"reference\": \"V8\", \"targets\": [\"Turbo\"] }] }";
+    assertThrows(IllegalStateException.class, () -> {
+      catalogue.loadFromJSON(new ByteArrayInputStream(json.getBytes()));
+    });
+  }
+
+  /**
+   * Vérifie que la description et les propriétés sont rangées dans la table
+   * de la catégorie, typées et exposées en lecture seule.
+   * 
+   * @throws IOException
+   */
+  @Test
+  public void testLoadProperties() throws IOException {
+    try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("data/test-catalogue.json")) {
+      catalogue.loadFromJSON(inputStream);
+    }
+    CatalogImpl catalog = (CatalogImpl) catalogue;
+    PartType v8 = catalogue.findPartType("V8").orElseThrow();
+    PartType automatic = catalogue.findPartType("Automatic").orElseThrow();
+
+    PropertyTable engines = catalog.getProperties(catalogue.getCategory("Engine"));
+    assertEquals(Set.of("power", "fuelType"), engines.getPropertyNames());
+    assertTrue(engines.isNumeric("power"));
+    assertEquals(Optional.of("V8 Engine"), engines.getDescription(v8));
+    assertEquals(List.of(v8), engines.filter("power >= 300 AND fuelType = Gasoline"));
+
+    PropertyManager properties = catalog.getProperties(automatic);
+    assertEquals(Optional.of("7"), properties.getProperty("gears"));
+    assertEquals(Optional.of("true"), properties.getProperty("fourWheelDrive"));
+    assertEquals(Set.of("false", "true"), properties.getAvailablePropertyValues("fourWheelDrive"));
+    assertThrows(IllegalArgumentException.class, () -> properties.setProperty("gears", "8"));
+
+    assertTrue(catalog.getProperties(catalogue.getCategory("Exterior")).getPropertyNames().isEmpty());
+    assertThrows(IllegalArgumentException.class, () -> catalog.getProperties((Category) null));
+  }
+
+  /**
+   * Vérifie qu'un nom déjà porté par une pièce d'une autre catégorie est
+   * rejeté, alors qu'une pièce de même identifiant peut être rechargée.
+   * 
+   * @throws IOException
+   */
+  @Test
+  public void testDuplicateNameAcrossCategories() throws IOException {
+    String json = "{ \"partTypes\": [{ \"name\": \"Sport\", \"category\": \"Engine\", \"price\": 1 }] }";
+    catalogue.loadFromJSON(new ByteArrayInputStream(json.getBytes()));
+    catalogue.loadFromJSON(new ByteArrayInputStream(json.getBytes()));
+    assertEquals(1, catalogue.getPartTypes().size());
+
+    String homonym = "{ \"partTypes\": [{ \"name\": \"Sport\", \"category\": \"Interior\", \"price\": 2 }] }";
+    IOException exception = assertThrows(IOException.class,
+        () -> catalogue.loadFromJSON(new ByteArrayInputStream(homonym.getBytes())));
+    assertTrue(exception.getMessage().contains("Engine/Sport"));
+    assertEquals(catalogue.getCategory("Engine"), catalogue.findPartType("Sport").orElseThrow().getCategory());
+    assertTrue(catalogue.getPartTypesForCategory(catalogue.getCategory("Interior")).isEmpty());
+
+    CatalogImpl catalog = (CatalogImpl) catalogue;
+    assertThrows(IllegalArgumentException.class, () -> catalog.addPartType(
+        new PartTypeImpl("Sport", catalogue.getCategory("Exterior"), PartImpl.class, 3)));
+  }
+
+  /**
+   * Vérifie qu'un identifiant ne peut pas désigner deux pièces de noms
+   * différents.
+   * 
+   * @throws IOException
+   */
+  @Test
+  public void testDuplicateIdWithDifferentNames() throws IOException {
+    String json = "{ \"partTypes\": [{ \"id\": \"SKU1\", \"name\": \"V8\", \"category\": \"Engine\", \"price\": 10 },"
+        + " { \"id\": \"SKU1\", \"name\": \"V6\", \"category\": \"Engine\", \"price\": 10 }] }";
+    IOException exception = assertThrows(IOException.class,
+        () -> catalogue.loadFromJSON(new ByteArrayInputStream(json.getBytes())));
+    assertTrue(exception.getMessage().contains("SKU1"));
+    assertEquals(1, catalogue.getPartTypes().size());
+    assertEquals("V8", catalogue.findPartType("V8").orElseThrow().getName());
+    assertFalse(catalogue.findPartType("V6").isPresent());
+
+    CatalogImpl catalog = (CatalogImpl) catalogue;
+    assertThrows(IllegalArgumentException.class, () -> catalog.addPartType(
+        new PartTypeImpl("SKU1", "V6", catalogue.getCategory("Engine"), PartImpl.class, 10)));
+    assertThrows(IllegalArgumentException.class, () -> catalog.addPartType(
+        new PartTypeImpl("SKU1", "V8", catalogue.getCategory("Interior"), PartImpl.class, 10)));
+  }
+
+  /**
+   * Vérifie qu'un rechargement de même identifiant remplace l'instance dans
+   * tous les index du catalogue.
+   * 
+   * @throws IOException
+   */
+  @Test
+  public void testReloadReplacesPartTypeEverywhere() throws IOException {
+    String first = "{ \"partTypes\": [{ \"id\": \"SKU1\", \"name\": \"V8\", \"category\": \"Engine\", \"price\": 10 },"
+        + " { \"id\": \"SKU2\", \"name\": \"V6\", \"category\": \"Engine\", \"price\": 5 }] }";
+    String update = "{ \"partTypes\": [{ \"id\": \"SKU1\", \"name\": \"V8\", \"category\": \"Engine\", \"price\": 99,"
+        + " \"properties\": { \"power\": 300 } }] }";
+    catalogue.loadFromJSON(new ByteArrayInputStream(first.getBytes()));
+    CatalogImpl catalog = (CatalogImpl) catalogue;
+    int ordinal = catalog.getPartTypeIndex().ordinalOf("SKU1");
+    catalogue.loadFromJSON(new ByteArrayInputStream(update.getBytes()));
+
+    PartType updated = catalogue.findPartType("V8").orElseThrow();
+    assertEquals(99, updated.getPrice());
+    assertEquals(2, catalogue.getPartTypes().size());
+    assertTrue(catalogue.getPartTypes().stream().allMatch(p -> p == updated || p.getName().equals("V6")));
+    Category engine = catalogue.getCategory("Engine");
+    List<PartType> parts = new ArrayList<>(catalogue.getPartTypesForCategory(engine));
+    assertSame(updated, parts.get(0));
+    assertEquals("V6", parts.get(1).getName());
+    assertEquals(ordinal, catalog.getPartTypeIndex().ordinalOf(updated));
+    assertSame(updated, catalog.getPartTypeIndex().get(ordinal));
+    assertSame(updated, catalog.getProperties(engine).getPartTypes().get(0));
+    assertEquals(Optional.of("300"), catalog.getProperties(updated).getProperty("power"));
+  }
+}
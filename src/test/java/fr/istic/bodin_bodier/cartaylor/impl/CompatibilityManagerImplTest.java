@@ -8,8 +8,16 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Tests unitaires pour la classe CompatibilityManagerImpl.
@@ -79,6 +87,21 @@ public class CompatibilityManagerImplTest {
     assertTrue(compatibilityManager.getIncompatibilities(partC).contains(partA));
   }
 
+  /**
+   * Vérifie qu'une mise à jour de prix ne rompt pas les règles : la nouvelle
+   * instance, de même identifiant, est reconnue comme l'ancienne.
+   */
+  @Test
+  public void testRulesSurvivePriceUpdate() {
+    compatibilityManager.addIncompatibilities(partA, targetSet);
+    PartType repricedA = new PartTypeImpl("A", partA.getCategory(), PartImpl.class, 150);
+    PartType repricedC = new PartTypeImpl("C", partC.getCategory(), PartImpl.class, 350);
+    assertEquals(targetSet, compatibilityManager.getIncompatibilities(repricedA));
+    assertTrue(compatibilityManager.getIncompatibilities(repricedC).contains(partA));
+    // Les ensembles retournés contiennent les instances canoniques
+    assertSame(partA, compatibilityManager.getIncompatibilities(repricedC).iterator().next());
+  }
+
   /**
    * Vérifie que la suppression d'incompatibilités fonctionne correctement.
    * 
@@ -170,4 +193,250 @@ public class CompatibilityManagerImplTest {
       compatibilityManager.removeRequirement(null, partB);
     });
   }
-}
\ No newline at end of file
+
+  /**
+   * Vérifie la validation d'une sélection exprimée en ordinaux.
+   */
+  @Test
+  public void testIsValidSelection() {
+    compatibilityManager.addIncompatibilities(partA, Set.of(partB));
+    compatibilityManager.addRequirements(partA, Set.of(partC));
+    PartTypeIndex index = compatibilityManager.getPartTypeIndex();
+    int a = index.ordinalOf(partA);
+    int b = index.ordinalOf(partB);
+    int c = index.ordinalOf(partC);
+
+    long[] selection = Bits.set(Bits.set(Bits.EMPTY, a), c);
+    assertTrue(compatibilityManager.isValidSelection(selection));
+
+    assertFalse(compatibilityManager.isValidSelection(Bits.set(Bits.EMPTY, a)));
+    assertFalse(compatibilityManager.isValidSelection(Bits.set(selection.clone(), b)));
+    assertTrue(compatibilityManager.isValidSelection(Bits.EMPTY));
+  }
+
+  /**
+   * Vérifie que réajouter des règles existantes ne publie pas de nouvelle
+   * version.
+   */
+  @Test
+  public void testRedundantRulesKeepVersion() {
+    compatibilityManager.addIncompatibilities(partA, Set.of(partB));
+    compatibilityManager.addRequirements(partA, Set.of(partC));
+    RuleSnapshot before = compatibilityManager.getRules();
+
+    compatibilityManager.addIncompatibilities(partA, Set.of(partB));
+    compatibilityManager.addIncompatibilities(partB, Set.of(partA));
+    compatibilityManager.addRequirements(partA, Set.of(partC));
+    compatibilityManager.removeIncompatibility(partA, partC);
+    assertSame(before, compatibilityManager.getRules());
+
+    compatibilityManager.addIncompatibilities(partA, Set.of(partB, partC));
+    assertEquals(before.getVersion() + 1, compatibilityManager.getRules().getVersion());
+  }
+
+  /**
+   * Vérifie que les lectures des règles résolvent l'ordinal mémorisé dans
+   * l'instance canonique, ou l'identifiant d'une autre instance, sans calcul
+   * de hachage ni comparaison d'égalité des pièces.
+   */
+  @Test
+  public void testLookupsDoNotHash() {
+    AtomicInteger calls = new AtomicInteger();
+    class CountingPartType extends PartTypeImpl {
+      CountingPartType(String name, Category category) {
+        super(name, category, PartImpl.class, 1);
+      }
+
+      @Override
+      public int hashCode() {
+        calls.incrementAndGet();
+        return super.hashCode();
+      }
+
+      @Override
+      public boolean equals(Object o) {
+        calls.incrementAndGet();
+        return super.equals(o);
+      }
+    }
+    PartType x = new CountingPartType("X", partA.getCategory());
+    PartType y = new CountingPartType("Y", partC.getCategory());
+    compatibilityManager.addIncompatibilities(x, Set.of(partB));
+    compatibilityManager.addRequirements(x, Set.of(y));
+    // Même identifiant, instance non canonique : résolue par identifiant
+    PartType otherX = new CountingPartType("X", partA.getCategory());
+    calls.set(0);
+
+    for (int i = 0; i < 100; i++) {
+      compatibilityManager.getIncompatibilities(x);
+      compatibilityManager.getRequirements(x);
+      compatibilityManager.getIncompatibilities(y);
+      compatibilityManager.getPartTypeIndex().ordinalOf(y);
+      compatibilityManager.getIncompatibilities(otherX);
+    }
+    assertEquals(0, calls.get());
+    assertEquals(Set.of(partB), compatibilityManager.getIncompatibilities(otherX));
+  }
+
+  /**
+   * Vérifie que les ensembles retournés ne reflètent pas les modifications
+   * ultérieures et ne sont pas modifiables.
+   */
+  @Test
+  public void testReturnedSetsAreSnapshots() {
+    compatibilityManager.addIncompatibilities(partA, Set.of(partB));
+    Set<PartType> incompatibilities = compatibilityManager.getIncompatibilities(partA);
+    compatibilityManager.addIncompatibilities(partA, Set.of(partC));
+
+    assertEquals(Set.of(partB), incompatibilities);
+    assertThrows(UnsupportedOperationException.class, () -> incompatibilities.add(partC));
+    assertTrue(compatibilityManager.getIncompatibilities(
+        new PartTypeImpl("Unknown", partA.getCategory(), PartImpl.class, 1)).isEmpty());
+  }
+
+  /**
+   * Vérifie le chargement en masse d'un lot de règles exprimées en ordinaux.
+   */
+  @Test
+  public void testAddRules() {
+    PartTypeIndex index = compatibilityManager.getPartTypeIndex();
+    int a = index.register(partA);
+    int b = index.register(partB);
+    int c = index.register(partC);
+
+    CompatibilityRules rules = new CompatibilityRules();
+    for (int i = 0; i < 20; i++) {
+      rules.addIncompatibility(a, b);
+    }
+    rules.addRequirement(a, c);
+    compatibilityManager.addRules(rules);
+
+    assertEquals(Set.of(partB), compatibilityManager.getIncompatibilities(partA));
+    assertEquals(Set.of(partA), compatibilityManager.getIncompatibilities(partB));
+    assertEquals(Set.of(partC), compatibilityManager.getRequirements(partA));
+    assertTrue(Bits.get(compatibilityManager.getRequiredByBits(c), a));
+
+    CompatibilityRules invalid = new CompatibilityRules();
+    invalid.addRequirement(a, 42);
+    assertThrows(IllegalArgumentException.class, () -> compatibilityManager.addRules(invalid));
+    assertThrows(IllegalArgumentException.class, () -> compatibilityManager.addRules(null));
+  }
+
+  /**
+   * Vérifie qu'un lot de modifications publie une seule version, invisible
+   * avant la fin du lot, et qu'un lot interrompu ne publie rien.
+   */
+  @Test
+  public void testBatchPublishesOnce() {
+    RuleSnapshot before = compatibilityManager.getRules();
+    compatibilityManager.batch(manager -> {
+      manager.addIncompatibilities(partA, Set.of(partB));
+      manager.addRequirements(partA, Set.of(partC));
+      manager.removeRequirement(partA, partC);
+      assertTrue(manager.getIncompatibilities(partA).isEmpty());
+    });
+    RuleSnapshot after = compatibilityManager.getRules();
+    assertEquals(before.getVersion() + 1, after.getVersion());
+    assertEquals(Set.of(partB), compatibilityManager.getIncompatibilities(partA));
+    assertTrue(compatibilityManager.getRequirements(partA).isEmpty());
+    // La version précédente n'est pas modifiée
+    assertTrue(Bits.isEmpty(before.getIncompatibilityBits(0)));
+
+    assertThrows(IllegalStateException.class, () -> compatibilityManager.batch(manager -> {
+      manager.addIncompatibilities(partA, Set.of(partC));
+      throw new IllegalStateException();
+    }));
+    assertSame(after, compatibilityManager.getRules());
+    assertEquals(Set.of(partB), compatibilityManager.getIncompatibilities(partA));
+    assertThrows(IllegalArgumentException.class, () -> compatibilityManager.batch(null));
+  }
+
+  /**
+   * Vérifie que les lecteurs concurrents voient toujours une version
+   * cohérente des règles pendant qu'un écrivain les modifie.
+   */
+  @Test
+  public void testConcurrentReadersSeeConsistentRules() throws Exception {
+    compatibilityManager.addIncompatibilities(partA, Set.of(partB));
+    PartTypeIndex index = compatibilityManager.getPartTypeIndex();
+    int a = index.ordinalOf(partA);
+    int b = index.ordinalOf(partB);
+    AtomicBoolean running = new AtomicBoolean(true);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> readers = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+        readers.add(executor.submit(() -> {
+          while (running.get()) {
+            RuleSnapshot rules = compatibilityManager.getRules();
+            // Les incompatibilités restent symétriques dans chaque version
+            assertEquals(Bits.get(rules.getIncompatibilityBits(a), b),
+                Bits.get(rules.getIncompatibilityBits(b), a));
+          }
+        }));
+      }
+      for (int i = 0; i < 2000; i++) {
+        compatibilityManager.removeIncompatibility(partA, partB);
+        compatibilityManager.addIncompatibilities(partA, Set.of(partB));
+      }
+      running.set(false);
+      for (Future<?> reader : readers) {
+        reader.get(10, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(Set.of(partB), compatibilityManager.getIncompatibilities(partA));
+  }
+
+  /**
+   * Vérifie le calcul des exigences transitives et l'invalidation de leur
+   * cache lorsque les exigences changent.
+   */
+  @Test
+  public void testTransitiveRequirements() {
+    PartType partD = new PartTypeImpl("D", new TransmissionCategory(), PartImpl.class, 400);
+    compatibilityManager.addRequirements(partA, Set.of(partB));
+    compatibilityManager.addRequirements(partB, Set.of(partC));
+    assertEquals(Set.of(partB, partC), compatibilityManager.getTransitiveRequirements(partA));
+    assertEquals(Set.of(partC), compatibilityManager.getTransitiveRequirements(partB));
+    assertTrue(compatibilityManager.getTransitiveRequirements(partD).isEmpty());
+
+    RuleSnapshot before = compatibilityManager.getRules();
+    int c = compatibilityManager.getPartTypeIndex().ordinalOf(partC);
+    long[] closureOfC = before.getRequirementClosureBits(c);
+    compatibilityManager.addRequirements(partC, Set.of(partD));
+    assertEquals(Set.of(partB, partC, partD), compatibilityManager.getTransitiveRequirements(partA));
+    compatibilityManager.removeRequirement(partB, partC);
+    assertEquals(Set.of(partB), compatibilityManager.getTransitiveRequirements(partA));
+    assertEquals(Set.of(partD), compatibilityManager.getTransitiveRequirements(partC));
+    // L'ancienne version conserve ses fermetures
+    assertSame(closureOfC, before.getRequirementClosureBits(c));
+    assertTrue(Bits.isEmpty(closureOfC));
+    assertThrows(IllegalArgumentException.class, () -> compatibilityManager.getTransitiveRequirements(null));
+  }
+
+  /**
+   * Vérifie la détection des cycles d'exigences et des pièces dont les
+   * exigences sont incompatibles entre elles.
+   */
+  @Test
+  public void testCyclesAndUnsatisfiableParts() {
+    assertTrue(compatibilityManager.findRequirementCycles().isEmpty());
+    compatibilityManager.addRequirements(partA, Set.of(partB));
+    compatibilityManager.addRequirements(partB, Set.of(partA));
+    compatibilityManager.addRequirements(partC, Set.of(partC));
+    List<Set<PartType>> cycles = compatibilityManager.findRequirementCycles();
+    assertEquals(2, cycles.size());
+    assertTrue(cycles.contains(Set.of(partA, partB)));
+    assertTrue(cycles.contains(Set.of(partC)));
+    assertEquals(Set.of(partA, partB), compatibilityManager.getTransitiveRequirements(partA));
+    assertTrue(compatibilityManager.findUnsatisfiableParts().isEmpty());
+
+    compatibilityManager.removeRequirement(partB, partA);
+    compatibilityManager.addRequirements(partB, Set.of(partC));
+    compatibilityManager.addIncompatibilities(partA, Set.of(partC));
+    // A requiert C par B, mais lui est incompatible ; B reste satisfiable
+    assertEquals(Set.of(partA), compatibilityManager.findUnsatisfiableParts());
+  }
+}
@@ -2,12 +2,14 @@ package fr.istic.bodin_bodier.cartaylor.impl;
 
 import fr.istic.bodin_bodier.cartaylor.api.*;
 import fr.istic.bodin_bodier.cartaylor.impl.categories.EngineCategory;
+import fr.istic.bodin_bodier.cartaylor.impl.categories.TransmissionCategory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -145,4 +147,144 @@ public class ConfigurationImplTest {
       new ConfigurationImpl(null);
     });
   }
+
+  /**
+   * Vérifie que les compteurs de conflits et d'exigences suivent les
+   * sélections, désélections et modifications de règles.
+   */
+  @Test
+  public void testIncrementalValidityTracking() {
+    CompatibilityManagerImpl manager = new CompatibilityManagerImpl();
+    Category transmissionCategory = new TransmissionCategory();
+    Set<Category> categories = new HashSet<>();
+    categories.add(engineCategory);
+    categories.add(transmissionCategory);
+    when(configurator.getCategories()).thenReturn(categories);
+    when(configurator.getCompatibilityChecker()).thenReturn(manager);
+    Configuration tracked = new ConfigurationImpl(configurator);
+
+    PartType v6 = new PartTypeImpl("V6", engineCategory, PartImpl.class, 8000);
+    PartType manual = new PartTypeImpl("Manual", transmissionCategory, PartImpl.class, 2000);
+    PartType automatic = new PartTypeImpl("Automatic", transmissionCategory, PartImpl.class, 3000);
+    manager.addIncompatibilities(enginePart, Set.of(manual));
+    manager.addRequirements(v6, Set.of(automatic));
+
+    tracked.selectPart(enginePart);
+    assertTrue(tracked.isValid());
+    assertFalse(tracked.isComplete());
+
+    tracked.selectPart(manual);
+    assertFalse(tracked.isValid());
+    assertTrue(tracked.isComplete());
+
+    // V6 remplace V8 : plus de conflit, mais l'exigence n'est pas satisfaite
+    tracked.selectPart(v6);
+    assertFalse(tracked.isValid());
+
+    tracked.unselectPartType(transmissionCategory);
+    assertFalse(tracked.isValid());
+    assertFalse(tracked.isComplete());
+
+    tracked.selectPart(automatic);
+    assertTrue(tracked.isValid());
+
+    // Une modification des règles doit être prise en compte
+    manager.addIncompatibilities(automatic, Set.of(v6));
+    assertFalse(tracked.isValid());
+    manager.removeIncompatibility(v6, automatic);
+    assertTrue(tracked.isValid());
+
+    tracked.clear();
+    assertTrue(tracked.isValid());
+    assertFalse(tracked.isComplete());
+  }
+
+  /**
+   * Vérifie que validate() rapporte chaque incompatibilité une seule fois et
+   * chaque exigence non satisfaite, avec ou sans ensembles de bits.
+   */
+  @Test
+  public void testValidateExplainsViolations() {
+    PartType required = new PartTypeImpl("Required", engineCategory, PartImpl.class, 100);
+    when(compatibilityChecker.getRequirements(enginePart)).thenReturn(Set.of(required));
+    configuration.selectPart(enginePart);
+    assertEquals(List.of(new ViolationImpl(Violation.Kind.REQUIREMENT, enginePart, required)),
+        configuration.validate().getViolations());
+
+    CompatibilityManagerImpl manager = new CompatibilityManagerImpl();
+    Category transmissionCategory = new TransmissionCategory();
+    when(configurator.getCompatibilityChecker()).thenReturn(manager);
+    Configuration tracked = new ConfigurationImpl(configurator);
+    PartType v6 = new PartTypeImpl("V6", engineCategory, PartImpl.class, 8000);
+    PartType manual = new PartTypeImpl("Manual", transmissionCategory, PartImpl.class, 2000);
+    PartType automatic = new PartTypeImpl("Automatic", transmissionCategory, PartImpl.class, 3000);
+    manager.addIncompatibilities(enginePart, Set.of(manual));
+    manager.addRequirements(v6, Set.of(automatic));
+    assertSame(ValidationResultImpl.VALID, tracked.validate());
+
+    tracked.selectPart(enginePart);
+    tracked.selectPart(manual);
+    List<Violation> violations = tracked.validate().getViolations();
+    assertEquals(1, violations.size());
+    assertEquals(Violation.Kind.INCOMPATIBILITY, violations.get(0).getKind());
+    assertEquals(Set.of(enginePart, manual), Set.of(violations.get(0).getSource(), violations.get(0).getTarget()));
+
+    tracked.selectPart(v6);
+    assertFalse(tracked.validate().isValid());
+    assertEquals(List.of(new ViolationImpl(Violation.Kind.REQUIREMENT, v6, automatic)),
+        tracked.validate().getViolations());
+    tracked.selectPart(automatic);
+    assertTrue(tracked.validate().isValid());
+  }
+
+  /**
+   * Vérifie que le prix total suit les modifications et que la description
+   * HTML n'est reproduite qu'après une modification de la sélection.
+   */
+  @Test
+  public void testRunningTotalAndCachedDescription() {
+    configuration.selectPart(enginePart);
+    String html = configuration.getHtmlDescription();
+    assertSame(html, configuration.getHtmlDescription());
+    assertEquals(10000, configuration.getTotalPrice());
+
+    PartType v6 = new PartTypeImpl("V6", engineCategory, PartImpl.class, 8000);
+    configuration.selectPart(v6);
+    assertEquals(8000, configuration.getTotalPrice());
+    assertNotSame(html, configuration.getHtmlDescription());
+    assertTrue(configuration.getHtmlDescription().contains("V6"));
+
+    configuration.unselectPartType(engineCategory);
+    assertEquals(0, configuration.getTotalPrice());
+    configuration.selectPart(enginePart);
+    assertEquals(html, configuration.getHtmlDescription());
+    configuration.clear();
+    assertEquals(0, configuration.getTotalPrice());
+  }
+
+  /**
+   * Vérifie que la sélection est retrouvée par ordinal de catégorie, même si
+   * la catégorie a été modifiée, et qu'une catégorie étrangère ne compte pas
+   * pour l'exhaustivité.
+   */
+  @Test
+  public void testSelectionsByCategoryOrdinal() {
+    configuration.selectPart(enginePart);
+    ((EngineCategory) engineCategory).setPower(200);
+    assertSame(enginePart, configuration.getSelectionForCategory(engineCategory));
+    assertSame(enginePart, configuration.getSelectionForCategory(new EngineCategory()));
+
+    Category transmissionCategory = new TransmissionCategory();
+    PartType manual = new PartTypeImpl("Manual", transmissionCategory, PartImpl.class, 2000);
+    assertNull(configuration.getSelectionForCategory(transmissionCategory));
+    configuration.selectPart(manual);
+    assertTrue(configuration.isComplete());
+    assertEquals(Set.of(enginePart, manual), configuration.getSelectedParts());
+
+    configuration.unselectPartType(engineCategory);
+    assertFalse(configuration.isComplete());
+    assertSame(manual, configuration.getSelectionForCategory(transmissionCategory));
+    configuration.unselectPartType(transmissionCategory);
+    assertTrue(configuration.getSelectedParts().isEmpty());
+  }
 }
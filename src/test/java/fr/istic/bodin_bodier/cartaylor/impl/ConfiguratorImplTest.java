@@ -89,6 +89,31 @@ public class ConfiguratorImplTest {
     assertNotNull(configuration);
   }
 
+  /**
+   * Vérifie que les sessions créées par le configurateur sont indépendantes
+   * mais partagent les mêmes règles.
+   */
+  @Test
+  public void testNewConfiguration() {
+    Configurator withRules = new ConfiguratorImpl("data/test-catalogue-rules.json");
+    PartType v8 = withRules.findPartType("V8").orElseThrow();
+    PartType manual = withRules.findPartType("Manual").orElseThrow();
+
+    Configuration first = withRules.newConfiguration();
+    Configuration second = withRules.newConfiguration();
+    assertNotSame(first, second);
+    assertNotSame(withRules.getConfiguration(), first);
+
+    first.selectPart(v8);
+    first.selectPart(manual);
+    second.selectPart(v8);
+    assertFalse(first.isValid());
+    assertTrue(second.isValid());
+    assertEquals(Set.of(v8), second.getSelectedParts());
+    assertTrue(withRules.getConfiguration().getSelectedParts().isEmpty());
+    assertFalse(second.isComplete());
+  }
+
   /**
    * Vérifie que l'accès au vérificateur de compatibilité
    * fonctionne correctement.
@@ -99,6 +124,49 @@ public class ConfiguratorImplTest {
     assertNotNull(checker);
   }
 
+  /**
+   * Vérifie la construction à partir d'un catalogue déjà chargé.
+   */
+  @Test
+  public void testConstructorWithLoadedCatalog() {
+    CatalogImpl catalog = new CatalogImpl();
+    Configurator fromCatalog = new ConfiguratorImpl(catalog, new CompatibilityManagerImpl(catalog.getPartTypeIndex()));
+    assertEquals(4, fromCatalog.getCategories().size());
+    assertNotNull(fromCatalog.getConfiguration());
+
+    assertThrows(IllegalArgumentException.class, () -> {
+      new ConfiguratorImpl(null, new CompatibilityManagerImpl());
+    });
+    assertThrows(IllegalArgumentException.class, () -> {
+      new ConfiguratorImpl(catalog, null);
+    });
+  }
+
+  /**
+   * Vérifie que les règles portées par le fichier du catalogue sont chargées
+   * au démarrage.
+   */
+  @Test
+  public void testRulesLoadedFromCatalogFile() {
+    Configurator withRules = new ConfiguratorImpl("data/test-catalogue-rules.json");
+    PartType v8 = withRules.findPartType("V8").orElseThrow();
+    PartType v6 = withRules.findPartType("V6").orElseThrow();
+    PartType manual = withRules.findPartType("Manual").orElseThrow();
+    PartType automatic = withRules.findPartType("Automatic").orElseThrow();
+
+    CompatibilityChecker checker = withRules.getCompatibilityChecker();
+    assertEquals(Set.of(manual), checker.getIncompatibilities(v8));
+    assertEquals(Set.of(v8), checker.getIncompatibilities(manual));
+    assertEquals(Set.of(automatic), checker.getRequirements(v6));
+
+    Configuration configuration = withRules.getConfiguration();
+    configuration.selectPart(v6);
+    configuration.selectPart(manual);
+    assertFalse(configuration.isValid());
+    configuration.selectPart(automatic);
+    assertTrue(configuration.isValid());
+  }
+
   @Test
   public void testConstructorThrowsExceptionWhenFileNotFound() {
     // Simulez un chemin de fichier invalide
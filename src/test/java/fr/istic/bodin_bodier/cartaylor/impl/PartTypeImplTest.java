@@ -63,6 +63,35 @@ public class PartTypeImplTest {
     assertNotEquals(partType.hashCode(), differentPartType.hashCode());
   }
 
+  /**
+   * Teste l'identifiant stable : le prix ne participe pas à l'égalité, et
+   * l'index retourne l'instance canonique.
+   */
+  @Test
+  public void testStableId() {
+    assertEquals("Engine/V8", partType.getId());
+    PartType repriced = new PartTypeImpl("V8", engineCategory, PartImpl.class, 12000);
+    assertEquals(partType, repriced);
+    assertEquals(partType.hashCode(), repriced.hashCode());
+
+    PartType sku = new PartTypeImpl("SKU-42", "V8", engineCategory, PartImpl.class, 10000);
+    assertEquals("SKU-42", sku.getId());
+    assertNotEquals(partType, sku);
+
+    PartTypeIndex index = new PartTypeIndex();
+    assertEquals(0, index.register(partType));
+    assertEquals(0, index.ordinalOf(repriced));
+    assertEquals(0, index.ordinalOf("Engine/V8"));
+    assertSame(partType, index.intern(repriced));
+    assertEquals(-1, index.ordinalOf(sku));
+    assertEquals(1, index.register(sku));
+    assertEquals(-1, index.ordinalOf((PartType) null));
+
+    assertThrows(IllegalArgumentException.class, () -> {
+      new PartTypeImpl("", "V8", engineCategory, PartImpl.class, 10000);
+    });
+  }
+
   /**
    * Teste les paramètres invalides pour PartTypeImpl.
    */
@@ -0,0 +1,37 @@
+package fr.istic.bodin_bodier.cartaylor.impl;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitaires pour la classe PropertyFilter.
+ */
+public class PropertyFilterTest {
+
+  /**
+   * Vérifie l'analyse d'une conjonction et son équivalence avec les
+   * fabriques.
+   */
+  @Test
+  public void testParse() {
+    PropertyFilter filter = PropertyFilter.parse("power >= 110 and fuelType = 'Diesel'");
+    assertEquals(PropertyFilter.atLeast("power", 110).and(PropertyFilter.equalTo("fuelType", "Diesel")), filter);
+    assertEquals("power >= 110 AND fuelType = Diesel", filter.toString());
+    assertEquals(PropertyFilter.of("gears", PropertyFilter.Operator.NOT_EQUAL, "6"),
+        PropertyFilter.parse("  gears!=6 "));
+  }
+
+  /**
+   * Vérifie le rejet des expressions mal formées.
+   */
+  @Test
+  public void testParseInvalid() {
+    assertThrows(IllegalArgumentException.class, () -> PropertyFilter.parse(null));
+    assertThrows(IllegalArgumentException.class, () -> PropertyFilter.parse(""));
+    assertThrows(IllegalArgumentException.class, () -> PropertyFilter.parse("power >="));
+    assertThrows(IllegalArgumentException.class, () -> PropertyFilter.parse("power >= 110 AND"));
+    assertThrows(IllegalArgumentException.class, () -> PropertyFilter.parse("110"));
+    assertThrows(IllegalArgumentException.class, () -> PropertyFilter.equalTo(" ", "x"));
+    assertThrows(IllegalArgumentException.class, () -> PropertyFilter.atLeast("power", 1).and(null));
+  }
+}
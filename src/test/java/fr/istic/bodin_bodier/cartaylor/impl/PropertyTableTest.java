@@ -0,0 +1,126 @@
+package fr.istic.bodin_bodier.cartaylor.impl;
+
+import fr.istic.bodin_bodier.cartaylor.api.Category;
+import fr.istic.bodin_bodier.cartaylor.api.PartType;
+import fr.istic.bodin_bodier.cartaylor.api.PropertyManager;
+import fr.istic.bodin_bodier.cartaylor.impl.categories.EngineCategory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Tests unitaires pour la classe PropertyTable.
+ */
+public class PropertyTableTest {
+  private Category engine;
+  private PropertyTable table;
+  private PartType eg100;
+  private PartType eg133;
+  private PartType ed110;
+  private PartType ed180;
+
+  @BeforeEach
+  public void setUp() {
+    engine = new EngineCategory();
+    table = new PropertyTable(engine);
+    eg100 = add("EG100", 100, "Gasoline");
+    eg133 = add("EG133", 133, "Gasoline");
+    ed110 = add("ED110", 110, "Diesel");
+    ed180 = add("ED180", 180, "Diesel");
+  }
+
+  private PartType add(String name, int power, String fuelType) {
+    PartType partType = new PartTypeImpl(name, engine, PartImpl.class, power * 100);
+    table.put(partType, name + " engine", Map.of("power", power, "fuelType", fuelType));
+    return partType;
+  }
+
+  /**
+   * Vérifie le typage des colonnes et le dictionnaire des valeurs énumérées.
+   */
+  @Test
+  public void testColumns() {
+    assertEquals(4, table.size());
+    assertEquals(List.of(eg100, eg133, ed110, ed180), table.getPartTypes());
+    assertTrue(table.isNumeric("power"));
+    assertFalse(table.isNumeric("fuelType"));
+    assertEquals(Set.of("Gasoline", "Diesel"), table.getAvailablePropertyValues("fuelType"));
+    assertTrue(table.getAvailablePropertyValues("power").isEmpty());
+    assertEquals(Optional.of("133"), table.getProperty(eg133, "power"));
+    assertEquals(Optional.of("ED110 engine"), table.getDescription(ed110));
+    assertEquals(Optional.empty(), table.getProperty(eg133, "torque"));
+    assertEquals(-1, table.rowOf(new PartTypeImpl("EG90", engine, PartImpl.class, 0)));
+
+    // Une valeur non entière rend la colonne énumérée
+    PartType hybrid = new PartTypeImpl("H", engine, PartImpl.class, 0);
+    table.put(hybrid, null, Map.of("power", "n/a"));
+    assertFalse(table.isNumeric("power"));
+    assertEquals(Optional.of("100"), table.getProperty(eg100, "power"));
+    assertEquals(Optional.empty(), table.getProperty(hybrid, "fuelType"));
+    assertEquals(Optional.empty(), table.getDescription(hybrid));
+  }
+
+  /**
+   * Vérifie l'évaluation d'une conjonction de comparaisons.
+   */
+  @Test
+  public void testFilter() {
+    assertEquals(List.of(ed110, ed180), table.filter("power >= 110 AND fuelType = Diesel"));
+    assertEquals(List.of(eg100, eg133), table.filter(PropertyFilter.equalTo("fuelType", "Gasoline")));
+    assertEquals(List.of(eg133, ed110), table.filter("power > 100 AND power < 180"));
+    assertEquals(List.of(eg100, eg133, ed180), table.filter("power != 110"));
+    assertEquals(List.of(), table.filter("fuelType = Electric"));
+    assertEquals(List.of(), table.filter("torque >= 1"));
+
+    assertThrows(IllegalArgumentException.class, () -> table.filter("fuelType >= Diesel"));
+    assertThrows(IllegalArgumentException.class, () -> table.filter("power = high"));
+    assertThrows(IllegalArgumentException.class, () -> table.select(null));
+  }
+
+  /**
+   * Vérifie le filtrage sur plusieurs mots et les lignes sans la propriété.
+   */
+  @Test
+  public void testFilterManyRows() {
+    PropertyTable large = new PropertyTable(engine);
+    List<PartType> expected = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      PartType partType = new PartTypeImpl("E" + i, engine, PartImpl.class, i);
+      // Une ligne sur dix n'a pas de puissance
+      large.put(partType, null, i % 10 == 0 ? Map.of("fuelType", "Diesel")
+          : Map.of("power", i, "fuelType", i % 2 == 0 ? "Diesel" : "Gasoline"));
+      if (i >= 110 && i % 2 == 0 && i % 10 != 0) {
+        expected.add(partType);
+      }
+    }
+    assertEquals(expected, large.filter("power >= 110 AND fuelType = Diesel"));
+    assertEquals(180, large.filter("power != 0").size());
+  }
+
+  /**
+   * Vérifie le remplacement d'une ligne et la vue en lecture seule.
+   */
+  @Test
+  public void testPropertyManager() {
+    table.put(eg133, "Turbo", Map.of("power", 150));
+    assertEquals(4, table.size());
+    assertEquals(List.of(eg133, ed180), table.filter("power >= 150"));
+
+    PropertyManager properties = table.getPropertyManager(eg133);
+    assertEquals(Set.of("power"), properties.getPropertyNames());
+    assertEquals(Optional.of("150"), properties.getProperty("power"));
+    assertEquals(Optional.empty(), properties.getProperty("fuelType"));
+    assertThrows(IllegalArgumentException.class, () -> properties.setProperty("power", "160"));
+
+    PropertyManager unknown = table.getPropertyManager(null);
+    assertTrue(unknown.getPropertyNames().isEmpty());
+    assertTrue(unknown.getAvailablePropertyValues("fuelType").isEmpty());
+    assertThrows(IllegalArgumentException.class, () -> new PropertyTable(null));
+  }
+}
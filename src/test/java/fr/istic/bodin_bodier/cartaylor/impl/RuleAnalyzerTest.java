@@ -0,0 +1,108 @@
+package fr.istic.bodin_bodier.cartaylor.impl;
+
+import fr.istic.bodin_bodier.cartaylor.api.*;
+import fr.istic.bodin_bodier.cartaylor.impl.categories.EngineCategory;
+import fr.istic.bodin_bodier.cartaylor.impl.categories.ExteriorCategory;
+import fr.istic.bodin_bodier.cartaylor.impl.categories.InteriorCategory;
+import fr.istic.bodin_bodier.cartaylor.impl.categories.TransmissionCategory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tests unitaires pour la classe RuleAnalyzer.
+ */
+public class RuleAnalyzerTest {
+  private CompatibilityManagerImpl manager;
+  private PartType engineA;
+  private PartType engineB;
+  private PartType transmissionC;
+  private PartType transmissionD;
+  private PartType exteriorE;
+  private PartType interiorF;
+
+  /**
+   * Enregistre les pièces dans l'ordre, de sorte que leurs ordinaux suivent
+   * l'ordre alphabétique.
+   */
+  @BeforeEach
+  public void setUp() {
+    manager = new CompatibilityManagerImpl();
+    engineA = new PartTypeImpl("A", new EngineCategory(), PartImpl.class, 100);
+    engineB = new PartTypeImpl("B", new EngineCategory(), PartImpl.class, 100);
+    transmissionC = new PartTypeImpl("C", new TransmissionCategory(), PartImpl.class, 100);
+    transmissionD = new PartTypeImpl("D", new TransmissionCategory(), PartImpl.class, 100);
+    exteriorE = new PartTypeImpl("E", new ExteriorCategory(), PartImpl.class, 100);
+    interiorF = new PartTypeImpl("F", new InteriorCategory(), PartImpl.class, 100);
+    for (PartType part : new PartType[] { engineA, engineB, transmissionC, transmissionD, exteriorE, interiorF }) {
+      manager.getPartTypeIndex().register(part);
+    }
+  }
+
+  /**
+   * Vérifie chaque type de constat sur un jeu de règles défectueux.
+   */
+  @Test
+  public void testFindings() {
+    manager.addRequirements(engineA, Set.of(transmissionC, exteriorE));
+    manager.addRequirements(transmissionC, Set.of(exteriorE));
+    manager.addRequirements(engineB, Set.of(engineA));
+    manager.addRequirements(transmissionD, Set.of(exteriorE));
+    manager.addIncompatibilities(transmissionD, Set.of(exteriorE));
+    manager.addIncompatibilities(engineA, Set.of(engineB));
+    manager.addIncompatibilities(exteriorE, Set.of(interiorF));
+    manager.addIncompatibilities(transmissionC, Set.of(interiorF));
+
+    RuleAnalyzer.Report report = new RuleAnalyzer(manager).analyze();
+    assertEquals(manager.getVersion(), report.getVersion());
+    assertFalse(report.isConsistent());
+    // B requiert un autre moteur ; D requiert une pièce incompatible
+    assertEquals(Set.of(engineB, transmissionD), report.getDeadParts());
+    // B est aussi déclaré incompatible avec A, qu'il requiert
+    assertEquals(Map.of(engineB, Set.of(engineA), transmissionD, Set.of(exteriorE)),
+        report.getConflictingRequirements());
+    assertEquals(Map.of(engineB, Set.of(engineA)), report.getSameCategoryRequirements());
+    // A obtient déjà E par C
+    assertEquals(Map.of(engineA, Set.of(exteriorE)), report.getRedundantRequirements());
+    // A et B sont de la même catégorie ; C requiert E, incompatible avec F
+    assertEquals(Map.of(engineA, Set.of(engineB), transmissionC, Set.of(interiorF)),
+        report.getRedundantIncompatibilities());
+  }
+
+  /**
+   * Vérifie qu'un cycle d'exigences est analysé sans que ses exigences se
+   * justifient mutuellement.
+   */
+  @Test
+  public void testRequirementCycle() {
+    manager.addRequirements(engineA, Set.of(transmissionC, exteriorE, interiorF));
+    manager.addRequirements(transmissionC, Set.of(engineA, exteriorE));
+    manager.addRequirements(exteriorE, Set.of(interiorF));
+
+    RuleAnalyzer.Report report = new RuleAnalyzer(manager).analyze();
+    assertTrue(report.isConsistent());
+    assertTrue(report.getDeadParts().isEmpty());
+    // A et C obtiennent chacun E par l'autre, mais retirer les deux exigences
+    // rendrait E inaccessible : seule l'exigence de F, impliquée par E, est
+    // redondante
+    assertEquals(Map.of(engineA, Set.of(interiorF)), report.getRedundantRequirements());
+    assertTrue(report.getRedundantIncompatibilities().isEmpty());
+  }
+
+  /**
+   * Vérifie qu'un catalogue correct ne produit aucun constat.
+   */
+  @Test
+  public void testConsistentCatalogue() {
+    Configurator configurator = new ConfiguratorImpl("data/test-catalogue-solver.json");
+    RuleAnalyzer.Report report = new RuleAnalyzer(
+        (CompatibilityManagerImpl) configurator.getCompatibilityChecker()).analyze();
+    assertTrue(report.isConsistent());
+    assertTrue(report.getRedundantRequirements().isEmpty());
+    assertTrue(report.getRedundantIncompatibilities().isEmpty());
+    assertThrows(IllegalArgumentException.class, () -> new RuleAnalyzer(null));
+  }
+}
@@ -0,0 +1,62 @@
+package fr.istic.bodin_bodier.cartaylor.impl.render;
+
+import fr.istic.bodin_bodier.cartaylor.api.*;
+import fr.istic.bodin_bodier.cartaylor.impl.ConfiguratorImpl;
+import fr.istic.bodin_bodier.cartaylor.impl.PartImpl;
+import fr.istic.bodin_bodier.cartaylor.impl.PartTypeImpl;
+import fr.istic.bodin_bodier.cartaylor.impl.categories.EngineCategory;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Tests unitaires pour la classe HtmlRenderer.
+ */
+public class HtmlRendererTest {
+
+  private static Configuration completeConfiguration(Configurator configurator) {
+    Configuration configuration = configurator.newConfiguration();
+    for (String name : new String[] { "V6", "Manual", "Red", "Cloth" }) {
+      configuration.selectPart(configurator.findPartType(name).orElseThrow());
+    }
+    return configuration;
+  }
+
+  /**
+   * Vérifie que le rendu d'une configuration est identique à sa description
+   * HTML, vers un Appendable comme vers un canal.
+   */
+  @Test
+  public void testConfigurationMatchesHtmlDescription() {
+    Configurator configurator = new ConfiguratorImpl("data/test-catalogue-solver.json");
+    Configuration configuration = completeConfiguration(configurator);
+    StringBuilder out = new StringBuilder();
+    new HtmlRenderer(out).render(configuration);
+    assertEquals(configuration.getHtmlDescription(), out.toString());
+    assertTrue(out.toString().endsWith("<li>Prix total: 11300 €</li></ul></div>"));
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    new HtmlRenderer(Channels.newChannel(bytes)).render(configuration);
+    assertEquals(out.toString(), bytes.toString(StandardCharsets.UTF_8));
+
+    StringBuilder invalid = new StringBuilder();
+    new HtmlRenderer(invalid).render(configurator.newConfiguration());
+    assertEquals(configurator.newConfiguration().getHtmlDescription(), invalid.toString());
+  }
+
+  /**
+   * Vérifie l'échappement des caractères spéciaux.
+   */
+  @Test
+  public void testEscaping() {
+    PartType partType = new PartTypeImpl("V8 <Sport & \"Co\">", new EngineCategory(), PartImpl.class, 10000);
+    StringBuilder out = new StringBuilder();
+    new HtmlRenderer(out).visit(partType);
+    assertEquals("<li><strong>Engine:</strong> V8 &lt;Sport &amp; &quot;Co&quot;&gt;<br>Prix: 10000 €</li>",
+        out.toString());
+    assertThrows(IllegalArgumentException.class, () -> new HtmlRenderer((Appendable) null));
+  }
+}
@@ -0,0 +1,51 @@
+package fr.istic.bodin_bodier.cartaylor.impl.render;
+
+import fr.istic.bodin_bodier.cartaylor.api.*;
+import fr.istic.bodin_bodier.cartaylor.impl.ConfiguratorImpl;
+import fr.istic.bodin_bodier.cartaylor.impl.PartImpl;
+import fr.istic.bodin_bodier.cartaylor.impl.PartTypeImpl;
+import fr.istic.bodin_bodier.cartaylor.impl.categories.EngineCategory;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Tests unitaires pour la classe JsonRenderer.
+ */
+public class JsonRendererTest {
+
+  /**
+   * Vérifie le rendu d'une configuration partielle.
+   */
+  @Test
+  public void testConfiguration() {
+    Configurator configurator = new ConfiguratorImpl("data/test-catalogue-solver.json");
+    Configuration configuration = configurator.newConfiguration();
+    configuration.selectPart(configurator.findPartType("V8").orElseThrow());
+    configuration.selectPart(configurator.findPartType("Automatic").orElseThrow());
+    StringBuilder out = new StringBuilder();
+    new JsonRenderer(out).render(configuration);
+    assertEquals("{\"valid\":true,\"complete\":false,\"parts\":["
+        + "{\"category\":\"Engine\",\"name\":\"V8\",\"price\":10000},"
+        + "{\"category\":\"Transmission\",\"name\":\"Automatic\",\"price\":3000}],"
+        + "\"totalPrice\":13000}", out.toString());
+  }
+
+  /**
+   * Vérifie l'échappement des chaînes et l'encodage UTF-8 vers un canal.
+   */
+  @Test
+  public void testEscapingAndEncoding() {
+    PartType partType = new PartTypeImpl("Moteur \"é\\\n", new EngineCategory(), PartImpl.class, 1234567);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    JsonRenderer renderer = new JsonRenderer(Channels.newChannel(bytes));
+    renderer.visit(partType);
+    renderer.visit(partType.getCategory());
+    renderer.flush();
+    assertEquals("{\"category\":\"Engine\",\"name\":\"Moteur \\\"é\\\\\\n\",\"price\":1234567}{\"name\":\"Engine\"}",
+        bytes.toString(StandardCharsets.UTF_8));
+  }
+}
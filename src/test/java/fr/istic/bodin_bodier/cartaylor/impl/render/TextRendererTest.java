@@ -0,0 +1,44 @@
+package fr.istic.bodin_bodier.cartaylor.impl.render;
+
+import fr.istic.bodin_bodier.cartaylor.api.*;
+import fr.istic.bodin_bodier.cartaylor.impl.ConfiguratorImpl;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Tests unitaires pour la classe TextRenderer.
+ */
+public class TextRendererTest {
+
+  /**
+   * Vérifie le rendu d'une configuration et de plusieurs éléments successifs
+   * vers un canal.
+   */
+  @Test
+  public void testConfiguration() {
+    Configurator configurator = new ConfiguratorImpl("data/test-catalogue-solver.json");
+    Configuration configuration = configurator.newConfiguration();
+    configuration.selectPart(configurator.findPartType("Red").orElseThrow());
+    configuration.selectPart(configurator.findPartType("V6").orElseThrow());
+    String expected = "Configuration: \n"
+        + "Category: Engine\nPartType: V6, Price: 8000\n"
+        + "Category: Exterior\nPartType: Red, Price: 500\n"
+        + "Total: 8500\n";
+
+    StringBuilder out = new StringBuilder();
+    new TextRenderer(out).render(configuration);
+    assertEquals(expected, out.toString());
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    TextRenderer renderer = new TextRenderer(Channels.newChannel(bytes));
+    for (int i = 0; i < 1000; i++) {
+      renderer.visit(configuration);
+    }
+    renderer.flush();
+    assertEquals(expected.repeat(1000), bytes.toString(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,139 @@
+package fr.istic.bodin_bodier.cartaylor.impl.solver;
+
+import fr.istic.bodin_bodier.cartaylor.api.*;
+import fr.istic.bodin_bodier.cartaylor.impl.CatalogImpl;
+import fr.istic.bodin_bodier.cartaylor.impl.CompatibilityManagerImpl;
+import fr.istic.bodin_bodier.cartaylor.impl.ConfiguratorImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Tests unitaires pour la classe ConfigurationEnumerator.
+ *
+ * <p>
+ * Le catalogue de test admet exactement 9 configurations valides et
+ * complètes.
+ */
+public class ConfigurationEnumeratorTest {
+  private Configurator configurator;
+  private ConfigurationEnumerator enumerator;
+
+  @BeforeEach
+  public void setUp() {
+    configurator = new ConfiguratorImpl("data/test-catalogue-solver.json");
+    enumerator = new ConfigurationEnumerator(configurator);
+  }
+
+  private PartType part(String name) {
+    return configurator.findPartType(name).orElseThrow();
+  }
+
+  /**
+   * Vérifie que toutes les configurations produites sont valides, complètes
+   * et distinctes.
+   */
+  @Test
+  public void testStreamAll() {
+    List<Configuration> configurations = enumerator.stream().collect(Collectors.toList());
+    assertEquals(9, configurations.size());
+    assertTrue(configurations.stream().allMatch(c -> c.isValid() && c.isComplete()));
+    Set<Set<PartType>> distinct = configurations.stream()
+        .map(Configuration::getSelectedParts)
+        .collect(Collectors.toSet());
+    assertEquals(9, distinct.size());
+    assertEquals(BigInteger.valueOf(9), enumerator.count());
+  }
+
+  /**
+   * Vérifie que le flux parallèle découpe l'arbre sans perdre ni dupliquer de
+   * solution.
+   */
+  @Test
+  public void testParallelStream() {
+    Set<Set<PartType>> sequential = enumerator.stream()
+        .map(Configuration::getSelectedParts)
+        .collect(Collectors.toSet());
+    List<Set<PartType>> parallel = enumerator.stream().parallel()
+        .map(Configuration::getSelectedParts)
+        .collect(Collectors.toList());
+    assertEquals(9, parallel.size());
+    assertEquals(sequential, Set.copyOf(parallel));
+    assertEquals(BigInteger.valueOf(9), new ConfigurationEnumerator(configurator, new ForkJoinPool(3)).count());
+  }
+
+  /**
+   * Vérifie l'énumération des complétions d'une configuration partielle et la
+   * limite.
+   */
+  @Test
+  public void testCompletionsAndLimit() {
+    Configuration partial = configurator.newConfiguration();
+    partial.selectPart(part("V8"));
+    assertEquals(BigInteger.TWO, enumerator.count(partial));
+    assertTrue(enumerator.stream(partial)
+        .allMatch(c -> c.getSelectedParts().containsAll(Set.of(part("V8"), part("Automatic")))));
+
+    partial.selectPart(part("Manual"));
+    assertEquals(BigInteger.ZERO, enumerator.count(partial));
+    assertEquals(0, enumerator.stream(partial).count());
+
+    assertEquals(4, enumerator.stream(null, 4).count());
+    assertThrows(IllegalArgumentException.class, () -> enumerator.stream(null, -1));
+  }
+
+  /**
+   * Vérifie que l'énumération suit les modifications des règles.
+   */
+  @Test
+  public void testRuleChanges() {
+    CompatibilityManagerImpl manager = (CompatibilityManagerImpl) configurator.getCompatibilityChecker();
+    manager.removeIncompatibility(part("V8"), part("Manual"));
+    // V8 devient possible avec Manual, avec Red ou Blue : deux configurations de plus
+    assertEquals(BigInteger.valueOf(11), enumerator.count());
+  }
+
+  /**
+   * Vérifie le dénombrement d'un espace dépassant la capacité d'un long :
+   * vingt catégories de dix variantes, avec une seule incompatibilité.
+   *
+   * @throws IOException
+   */
+  @Test
+  public void testCountBeyondLong() throws IOException {
+    StringBuilder json = new StringBuilder("{ \"categories\": [");
+    for (int c = 0; c < 20; c++) {
+      json.append(c == 0 ? "" : ", ").append("\"C").append(c).append('"');
+    }
+    json.append("], \"partTypes\": [");
+    for (int c = 0; c < 20; c++) {
+      for (int v = 0; v < 10; v++) {
+        json.append(c + v == 0 ? "" : ", ")
+            .append("{ \"name\": \"C").append(c).append('V').append(v)
+            .append("\", \"category\": \"C").append(c).append("\", \"price\": 1 }");
+      }
+    }
+    json.append("], \"incompatibilities\": [{ \"reference\": \"C0V0\", \"targets\": [\"C1V0\"] }] }");
+    CatalogImpl catalog = new CatalogImpl();
+    catalog.loadFromJSON(new ByteArrayInputStream(json.toString().getBytes(StandardCharsets.UTF_8)));
+    CompatibilityManagerImpl manager = new CompatibilityManagerImpl(catalog.getPartTypeIndex());
+    manager.addRules(catalog.getCompatibilityRules());
+    Configurator large = new ConfiguratorImpl(catalog, manager);
+
+    // 10^20 combinaisons, moins les 10^18 contenant C0V0 et C1V0
+    BigInteger expected = BigInteger.TEN.pow(20).subtract(BigInteger.TEN.pow(18));
+    assertTrue(expected.bitLength() > Long.SIZE);
+    assertEquals(expected, new ConfigurationEnumerator(large).count());
+    assertEquals(expected, new DiagramCompiler(large).getDiagram().count());
+  }
+}
@@ -0,0 +1,74 @@
+package fr.istic.bodin_bodier.cartaylor.impl.solver;
+
+import fr.istic.bodin_bodier.cartaylor.api.*;
+import fr.istic.bodin_bodier.cartaylor.impl.CompatibilityManagerImpl;
+import fr.istic.bodin_bodier.cartaylor.impl.ConfiguratorImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Tests unitaires pour la classe ConfigurationSampler.
+ *
+ * <p>
+ * Le catalogue de test admet 9 configurations valides et complètes.
+ */
+public class ConfigurationSamplerTest {
+  private Configurator configurator;
+
+  @BeforeEach
+  public void setUp() {
+    configurator = new ConfiguratorImpl("data/test-catalogue-solver.json");
+  }
+
+  private PartType part(String name) {
+    return configurator.findPartType(name).orElseThrow();
+  }
+
+  private static List<Set<PartType>> draw(ConfigurationSampler sampler, long n) {
+    return sampler.stream(n).map(Configuration::getSelectedParts).collect(Collectors.toList());
+  }
+
+  /**
+   * Vérifie que les tirages sont valides, complets et uniformes.
+   */
+  @Test
+  public void testUniformity() {
+    ConfigurationSampler sampler = new ConfigurationSampler(configurator, 42);
+    assertTrue(sampler.stream(100).allMatch(c -> c.isValid() && c.isComplete()));
+
+    Map<Set<PartType>, Long> frequencies = draw(sampler, 9000).stream()
+        .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+    assertEquals(9, frequencies.size());
+    // Environ 1000 tirages par configuration, à plus de cinq écarts types
+    assertTrue(frequencies.values().stream().allMatch(n -> n > 850 && n < 1150), frequencies.values().toString());
+  }
+
+  /**
+   * Vérifie la reproductibilité à graine égale et la prise en compte des
+   * nouvelles règles.
+   */
+  @Test
+  public void testSeedAndRuleChanges() {
+    assertEquals(draw(new ConfigurationSampler(configurator, 7), 50),
+        draw(new ConfigurationSampler(new DiagramCompiler(configurator), 7), 50));
+
+    CompatibilityManagerImpl manager = (CompatibilityManagerImpl) configurator.getCompatibilityChecker();
+    manager.addIncompatibilities(part("V6"), Set.of(part("Red"), part("Blue")));
+    manager.addIncompatibilities(part("Electric"), Set.of(part("Blue")));
+    ConfigurationSampler sampler = new ConfigurationSampler(configurator, 7);
+    assertTrue(draw(sampler, 100).stream().allMatch(parts -> parts.contains(part("V8"))));
+
+    manager.addIncompatibilities(part("V8"), Set.of(part("Leather")));
+    assertTrue(sampler.sample().isEmpty());
+    assertEquals(0, sampler.stream(10).count());
+    assertThrows(IllegalArgumentException.class, () -> sampler.stream(-1));
+    assertThrows(IllegalArgumentException.class, () -> new ConfigurationSampler((DiagramCompiler) null, 1));
+  }
+}
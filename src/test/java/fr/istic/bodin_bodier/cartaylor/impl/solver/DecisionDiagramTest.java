@@ -0,0 +1,103 @@
+package fr.istic.bodin_bodier.cartaylor.impl.solver;
+
+import fr.istic.bodin_bodier.cartaylor.api.*;
+import fr.istic.bodin_bodier.cartaylor.impl.ConfiguratorImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests unitaires pour la classe DecisionDiagram.
+ *
+ * <p>
+ * Le catalogue de test admet 9 configurations valides et complètes : V8
+ * est incompatible avec Manual et Cloth, Electric est incompatible avec Red
+ * et requiert Automatic, Blue requiert Leather.
+ */
+public class DecisionDiagramTest {
+  private Configurator configurator;
+  private DecisionDiagram diagram;
+
+  @BeforeEach
+  public void setUp() {
+    configurator = new ConfiguratorImpl("data/test-catalogue-solver.json");
+    diagram = new DiagramCompiler(configurator).getDiagram();
+  }
+
+  private PartType part(String name) {
+    return configurator.findPartType(name).orElseThrow();
+  }
+
+  private Configuration select(String... names) {
+    Configuration configuration = configurator.newConfiguration();
+    for (String name : names) {
+      configuration.selectPart(part(name));
+    }
+    return configuration;
+  }
+
+  /**
+   * Vérifie le dénombrement global et par pièce.
+   */
+  @Test
+  public void testCounts() {
+    assertEquals(BigInteger.valueOf(9), diagram.count());
+    assertEquals(BigInteger.valueOf(2), diagram.count(part("V8")));
+    assertEquals(BigInteger.valueOf(6), diagram.count(part("V6")));
+    assertEquals(BigInteger.ONE, diagram.count(part("Electric")));
+    assertEquals(BigInteger.valueOf(7), diagram.count(part("Leather")));
+    assertEquals(BigInteger.valueOf(5), diagram.count(part("Red")));
+    // Le diagramme est réduit : V8 avec Red ou Blue et Electric avec Blue
+    // partagent le même nœud Interior
+    assertEquals(10, diagram.nodeCount());
+    assertEquals(15, diagram.edgeCount());
+    assertThrows(IllegalArgumentException.class, () -> diagram.count((PartType) null));
+  }
+
+  /**
+   * Vérifie le dénombrement des complétions d'une configuration partielle,
+   * comparé à une énumération exhaustive.
+   */
+  @Test
+  public void testPartialConfigurations() {
+    ConfigurationEnumerator enumerator = new ConfigurationEnumerator(configurator);
+    List<PartType> all = new ArrayList<>(configurator.getPartTypes());
+    for (PartType first : all) {
+      for (PartType second : all) {
+        Configuration partial = configurator.newConfiguration();
+        partial.selectPart(first);
+        partial.selectPart(second);
+        BigInteger expected = enumerator.count(partial);
+        assertEquals(expected, diagram.count(partial), partial.toString());
+        assertEquals(expected.signum() > 0, diagram.isExtendable(partial), partial.toString());
+      }
+    }
+    assertEquals(BigInteger.valueOf(9), diagram.count(configurator.newConfiguration()));
+    assertFalse(diagram.isExtendable(select("V8", "Manual")));
+    assertThrows(IllegalArgumentException.class, () -> diagram.isExtendable(null));
+  }
+
+  /**
+   * Vérifie le nombre de complétions de chaque variante d'une catégorie, la
+   * sélection courante de cette catégorie étant ignorée.
+   */
+  @Test
+  public void testCountOptions() {
+    Configuration partial = select("Red", "V6");
+    Map<PartType, BigInteger> options = diagram.countOptions(partial, part("V8").getCategory());
+    assertEquals(List.of(part("V8"), part("V6"), part("Electric")), new ArrayList<>(options.keySet()));
+    assertEquals(BigInteger.ZERO, options.get(part("Electric")));
+    assertEquals(BigInteger.valueOf(4), options.get(part("V6")));
+    assertEquals(BigInteger.ONE, options.get(part("V8")));
+
+    options = diagram.countOptions(partial, part("Manual").getCategory());
+    assertEquals(BigInteger.valueOf(2), options.get(part("Manual")));
+    assertEquals(BigInteger.valueOf(2), options.get(part("Automatic")));
+    assertThrows(IllegalArgumentException.class, () -> diagram.countOptions(partial, null));
+  }
+}
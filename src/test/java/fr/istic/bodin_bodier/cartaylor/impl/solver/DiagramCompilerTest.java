@@ -0,0 +1,76 @@
+package fr.istic.bodin_bodier.cartaylor.impl.solver;
+
+import fr.istic.bodin_bodier.cartaylor.api.*;
+import fr.istic.bodin_bodier.cartaylor.impl.CompatibilityManagerImpl;
+import fr.istic.bodin_bodier.cartaylor.impl.ConfiguratorImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigInteger;
+import java.util.Set;
+
+/**
+ * Tests unitaires pour la classe DiagramCompiler.
+ */
+public class DiagramCompilerTest {
+  private Configurator configurator;
+  private DiagramCompiler compiler;
+  private CompatibilityManagerImpl manager;
+
+  @BeforeEach
+  public void setUp() {
+    configurator = new ConfiguratorImpl("data/test-catalogue-solver.json");
+    compiler = new DiagramCompiler(configurator);
+    manager = (CompatibilityManagerImpl) configurator.getCompatibilityChecker();
+  }
+
+  private PartType part(String name) {
+    return configurator.findPartType(name).orElseThrow();
+  }
+
+  /**
+   * Vérifie que le diagramme n'est reconstruit que lorsque les règles
+   * changent, et qu'il reflète alors les nouvelles règles.
+   */
+  @Test
+  public void testRebuildOnRuleChanges() {
+    DecisionDiagram diagram = compiler.getDiagram();
+    assertSame(diagram, compiler.getDiagram());
+    assertEquals(BigInteger.valueOf(9), diagram.count());
+
+    // Moteur et transmission : seul le premier niveau est reconstruit
+    manager.removeIncompatibility(part("V8"), part("Manual"));
+    DecisionDiagram next = compiler.getDiagram();
+    assertNotSame(diagram, next);
+    assertEquals(BigInteger.valueOf(11), next.count());
+    assertEquals(BigInteger.valueOf(4), next.count(part("V8")));
+    // Le diagramme précédent n'est pas modifié
+    assertEquals(BigInteger.valueOf(9), diagram.count());
+
+    manager.addIncompatibilities(part("V8"), Set.of(part("Manual")));
+    assertEquals(BigInteger.valueOf(9), compiler.getDiagram().count());
+
+    // Extérieur et intérieur
+    manager.removeRequirement(part("Blue"), part("Leather"));
+    assertEquals(BigInteger.valueOf(12), compiler.getDiagram().count());
+    assertEquals(new ConfigurationEnumerator(configurator).count(), compiler.getDiagram().count());
+  }
+
+  /**
+   * Vérifie le diagramme vide d'un jeu de règles insatisfiable.
+   */
+  @Test
+  public void testUnsatisfiableRules() {
+    manager.addIncompatibilities(part("Leather"), Set.of(part("V8"), part("V6"), part("Electric")));
+    manager.addIncompatibilities(part("Cloth"), Set.of(part("V8"), part("V6"), part("Electric")));
+    DecisionDiagram diagram = compiler.getDiagram();
+    assertEquals(BigInteger.ZERO, diagram.count());
+    assertEquals(0, diagram.nodeCount());
+    assertFalse(diagram.isExtendable(configurator.newConfiguration()));
+    assertEquals(BigInteger.ZERO, diagram.count(part("V8")));
+    assertTrue(diagram.countOptions(configurator.newConfiguration(), part("V8").getCategory()).values()
+        .stream().allMatch(count -> count.signum() == 0));
+    assertThrows(IllegalArgumentException.class, () -> new DiagramCompiler(null));
+  }
+}
@@ -0,0 +1,63 @@
+package fr.istic.bodin_bodier.cartaylor.impl.solver;
+
+import fr.istic.bodin_bodier.cartaylor.api.*;
+import fr.istic.bodin_bodier.cartaylor.impl.ConfiguratorImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Tests unitaires pour la classe PriceOptimizer.
+ */
+public class PriceOptimizerTest {
+  private Configurator configurator;
+  private PriceOptimizer optimizer;
+
+  @BeforeEach
+  public void setUp() {
+    configurator = new ConfiguratorImpl("data/test-catalogue-solver.json");
+    optimizer = new PriceOptimizer(configurator);
+  }
+
+  private PartType part(String name) {
+    return configurator.findPartType(name).orElseThrow();
+  }
+
+  /**
+   * Vérifie les complétions extrêmes sans sélection préalable.
+   */
+  @Test
+  public void testFromScratch() {
+    Configuration cheapest = optimizer.cheapestCompletion(null).orElseThrow();
+    assertTrue(cheapest.isValid() && cheapest.isComplete());
+    assertEquals(11300, cheapest.getTotalPrice());
+    assertEquals(Set.of(part("V6"), part("Manual"), part("Red"), part("Cloth")), cheapest.getSelectedParts());
+
+    Configuration mostExpensive = optimizer.mostExpensiveCompletion(configurator.newConfiguration()).orElseThrow();
+    assertTrue(mostExpensive.isValid() && mostExpensive.isComplete());
+    assertEquals(17200, mostExpensive.getTotalPrice());
+  }
+
+  /**
+   * Vérifie que les sélections de la configuration partielle sont conservées
+   * et qu'une configuration sans complétion ne donne aucun résultat.
+   */
+  @Test
+  public void testFromPartialConfiguration() {
+    Configuration partial = configurator.newConfiguration();
+    partial.selectPart(part("V8"));
+    Configuration cheapest = optimizer.cheapestCompletion(partial).orElseThrow();
+    assertEquals(15000, cheapest.getTotalPrice());
+    assertTrue(cheapest.getSelectedParts().contains(part("V8")));
+    assertEquals(15200, optimizer.mostExpensiveCompletion(partial).orElseThrow().getTotalPrice());
+    // La configuration partielle n'est pas modifiée
+    assertEquals(Set.of(part("V8")), partial.getSelectedParts());
+
+    partial.selectPart(part("Manual"));
+    assertEquals(Optional.empty(), optimizer.cheapestCompletion(partial));
+    assertEquals(Optional.empty(), optimizer.mostExpensiveCompletion(partial));
+  }
+}
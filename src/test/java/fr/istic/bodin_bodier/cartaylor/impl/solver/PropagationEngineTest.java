@@ -0,0 +1,193 @@
+package fr.istic.bodin_bodier.cartaylor.impl.solver;
+
+import fr.istic.bodin_bodier.cartaylor.api.*;
+import fr.istic.bodin_bodier.cartaylor.impl.CompatibilityManagerImpl;
+import fr.istic.bodin_bodier.cartaylor.impl.ConfiguratorImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Tests unitaires pour la classe PropagationEngine.
+ *
+ * <p>
+ * Le catalogue de test comporte trois moteurs, deux transmissions, deux
+ * extérieurs et deux intérieurs, avec les règles suivantes : V8 est
+ * incompatible avec Manual et Cloth, Electric est incompatible avec Red et
+ * requiert Automatic, Blue requiert Leather.
+ */
+public class PropagationEngineTest {
+  private Configurator configurator;
+  private PropagationEngine engine;
+
+  @BeforeEach
+  public void setUp() {
+    configurator = new ConfiguratorImpl("data/test-catalogue-solver.json");
+    engine = new PropagationEngine(configurator);
+  }
+
+  private PartType part(String name) {
+    return configurator.findPartType(name).orElseThrow();
+  }
+
+  private Category category(String name) {
+    return part(name).getCategory();
+  }
+
+  private Set<PartType> parts(String... names) {
+    Set<PartType> parts = new HashSet<>();
+    for (String name : names) {
+      parts.add(part(name));
+    }
+    return parts;
+  }
+
+  /**
+   * Vérifie que toutes les variantes sont proposées sans sélection.
+   */
+  @Test
+  public void testEmptyConfiguration() {
+    Map<Category, Set<PartType>> variants = engine.getCompatibleVariants(configurator.newConfiguration());
+    assertEquals(4, variants.size());
+    assertEquals(parts("V8", "V6", "Electric"), variants.get(category("V8")));
+    assertEquals(parts("Red", "Blue"), variants.get(category("Red")));
+  }
+
+  /**
+   * Vérifie l'élagage des variantes après des sélections successives.
+   */
+  @Test
+  public void testSelectionPrunesVariants() {
+    Configuration configuration = configurator.newConfiguration();
+    configuration.selectPart(part("Electric"));
+    Map<Category, Set<PartType>> variants = engine.getCompatibleVariants(configuration);
+    assertFalse(variants.containsKey(category("Electric")));
+    assertEquals(parts("Automatic"), variants.get(category("Manual")));
+    assertEquals(parts("Blue"), variants.get(category("Red")));
+    assertEquals(parts("Leather"), variants.get(category("Cloth")));
+
+    // Les variantes d'une catégorie sélectionnée tiennent compte des autres seulement
+    assertEquals(parts("V8", "V6", "Electric"), engine.getCompatibleVariants(configuration, category("V8")));
+
+    configuration.selectPart(part("V8"));
+    variants = engine.getCompatibleVariants(configuration);
+    assertEquals(parts("Automatic"), variants.get(category("Manual")));
+    assertEquals(parts("Red", "Blue"), variants.get(category("Red")));
+    assertEquals(parts("Leather"), variants.get(category("Cloth")));
+
+    configuration.clear();
+    configuration.selectPart(part("Cloth"));
+    variants = engine.getCompatibleVariants(configuration);
+    assertEquals(parts("V6"), variants.get(category("V8")));
+    assertEquals(parts("Red"), variants.get(category("Red")));
+    assertEquals(parts("Manual", "Automatic"), variants.get(category("Manual")));
+  }
+
+  /**
+   * Vérifie qu'une configuration partielle déjà invalide n'offre plus aucune
+   * variante.
+   */
+  @Test
+  public void testInvalidPartialConfiguration() {
+    Configuration configuration = configurator.newConfiguration();
+    configuration.selectPart(part("V8"));
+    configuration.selectPart(part("Manual"));
+    assertFalse(engine.isCompletable(configuration));
+    assertTrue(engine.getCompatibleVariants(configuration).values().stream().allMatch(Set::isEmpty));
+    assertThrows(IllegalArgumentException.class, () -> engine.getCompatibleVariants(null));
+  }
+
+  /**
+   * Vérifie que le modèle est recompilé quand les règles changent.
+   */
+  @Test
+  public void testRuleChangesAreSeen() {
+    Configuration configuration = configurator.newConfiguration();
+    configuration.selectPart(part("V8"));
+    assertEquals(parts("Automatic"), engine.getCompatibleVariants(configuration, category("Manual")));
+
+    CompatibilityManagerImpl manager = (CompatibilityManagerImpl) configurator.getCompatibilityChecker();
+    manager.removeIncompatibility(part("V8"), part("Manual"));
+    assertEquals(parts("Manual", "Automatic"), engine.getCompatibleVariants(configuration, category("Manual")));
+  }
+
+  /**
+   * Compare le moteur à une énumération exhaustive, pour toutes les
+   * sélections d'une ou deux pièces.
+   */
+  @Test
+  public void testMatchesExhaustiveSearch() {
+    List<List<PartType>> solutions = new ArrayList<>();
+    List<Category> categories = new ArrayList<>(configurator.getCategories());
+    enumerate(categories, 0, new ArrayList<>(), solutions);
+    assertEquals(9, solutions.size());
+
+    List<PartType> all = new ArrayList<>(configurator.getPartTypes());
+    for (PartType first : all) {
+      for (PartType second : all) {
+        Configuration configuration = configurator.newConfiguration();
+        configuration.selectPart(first);
+        configuration.selectPart(second);
+        Map<Category, Set<PartType>> variants = engine.getCompatibleVariants(configuration);
+        for (Map.Entry<Category, Set<PartType>> entry : variants.entrySet()) {
+          Set<PartType> expected = new HashSet<>();
+          for (List<PartType> solution : solutions) {
+            if (solution.containsAll(configuration.getSelectedParts())) {
+              solution.stream().filter(p -> p.getCategory().equals(entry.getKey())).forEach(expected::add);
+            }
+          }
+          assertEquals(expected, entry.getValue(), first.getName() + " + " + second.getName());
+        }
+      }
+    }
+  }
+
+  /**
+   * Vérifie qu'une catégorie sans variante rend toute configuration
+   * incomplétable, comme pour {@link Configuration#isComplete()} : le
+   * catalogue livré n'a ni extérieur ni intérieur.
+   */
+  @Test
+  public void testEmptyCategoryHasNoCompletion() throws TimeoutException {
+    Configurator shipped = new ConfiguratorImpl("data/catalogue.json");
+    Category exterior = shipped.getCategories().stream()
+        .filter(c -> c.getName().equals("Exterior")).findFirst().orElseThrow();
+    assertTrue(shipped.getVariants(exterior).isEmpty());
+
+    PropagationEngine shippedEngine = new PropagationEngine(shipped);
+    assertEquals(shipped.getCategories().size(), shippedEngine.getModel().categoryCount());
+    Configuration partial = shipped.newConfiguration();
+    partial.selectPart(shipped.findPartType("EG100").orElseThrow());
+    assertFalse(shippedEngine.isCompletable(partial));
+
+    assertEquals(0, new ConfigurationEnumerator(shipped).count().signum());
+    assertEquals(0, new DiagramCompiler(shipped).getDiagram().count().signum());
+    assertTrue(new PriceOptimizer(shipped).cheapestCompletion(partial).isEmpty());
+    assertTrue(new RepairAdvisor(shipped).suggest(partial).isEmpty());
+    assertTrue(new ConfigurationSampler(shipped, 1).sample().isEmpty());
+  }
+
+  private void enumerate(List<Category> categories, int depth, List<PartType> current,
+      List<List<PartType>> solutions) {
+    if (depth == categories.size()) {
+      Configuration configuration = configurator.newConfiguration();
+      current.forEach(configuration::selectPart);
+      if (configuration.isValid() && configuration.isComplete()) {
+        solutions.add(new ArrayList<>(current));
+      }
+      return;
+    }
+    for (PartType variant : configurator.getVariants(categories.get(depth))) {
+      current.add(variant);
+      enumerate(categories, depth + 1, current, solutions);
+      current.remove(current.size() - 1);
+    }
+  }
+}
@@ -0,0 +1,109 @@
+package fr.istic.bodin_bodier.cartaylor.impl.solver;
+
+import fr.istic.bodin_bodier.cartaylor.api.*;
+import fr.istic.bodin_bodier.cartaylor.impl.ConfiguratorImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Tests unitaires pour la classe RepairAdvisor.
+ *
+ * <p>
+ * La configuration réparée choisit V8, incompatible avec Manual et Cloth.
+ */
+public class RepairAdvisorTest {
+  private Configurator configurator;
+  private Configuration broken;
+
+  @BeforeEach
+  public void setUp() {
+    configurator = new ConfiguratorImpl("data/test-catalogue-solver.json");
+    broken = configurator.newConfiguration();
+    for (String name : List.of("V8", "Manual", "Red", "Cloth")) {
+      broken.selectPart(part(name));
+    }
+  }
+
+  private PartType part(String name) {
+    return configurator.findPartType(name).orElseThrow();
+  }
+
+  private static Set<PartType> selectedBy(RepairAdvisor.Repair repair) {
+    return repair.getChanges().stream()
+        .map(RepairAdvisor.Change::getPartType)
+        .collect(Collectors.toSet());
+  }
+
+  /**
+   * Vérifie que le nombre de modifications est minimisé : changer le moteur
+   * suffit.
+   */
+  @Test
+  public void testFewestChanges() throws TimeoutException {
+    RepairAdvisor.Repair repair = new RepairAdvisor(configurator).suggest(broken).orElseThrow();
+    assertTrue(repair.isOptimal());
+    assertEquals(Set.of(part("V6")), selectedBy(repair));
+    assertTrue(repair.getResult().isValid() && repair.getResult().isComplete());
+    // La configuration d'origine n'est pas modifiée
+    assertFalse(broken.isValid());
+
+    repair.applyTo(broken);
+    assertTrue(broken.isValid() && broken.isComplete());
+    assertTrue(new RepairAdvisor(configurator).suggest(broken).orElseThrow().getChanges().isEmpty());
+  }
+
+  /**
+   * Vérifie qu'en mode pondéré, garder le V8 et changer deux pièces moins
+   * chères est préféré.
+   */
+  @Test
+  public void testPriceWeighted() throws TimeoutException {
+    RepairAdvisor advisor = new RepairAdvisor(configurator, Duration.ofSeconds(1), true);
+    RepairAdvisor.Repair repair = advisor.suggest(broken).orElseThrow();
+    assertEquals(Set.of(part("Automatic"), part("Leather")), selectedBy(repair));
+    assertEquals(3001 + 1501, repair.getCost());
+  }
+
+  /**
+   * Vérifie la complétion d'une configuration partielle et le respect de
+   * l'échéance.
+   */
+  @Test
+  public void testCompletionAndDeadline() throws TimeoutException {
+    Configuration partial = configurator.newConfiguration();
+    partial.selectPart(part("V8"));
+    RepairAdvisor.Repair repair = new RepairAdvisor(configurator).suggest(partial).orElseThrow();
+    assertEquals(Set.of(part("Automatic"), part("Red"), part("Leather")), selectedBy(repair));
+
+    // L'échéance borne la recherche même avant la première solution
+    assertThrows(TimeoutException.class, () -> new RepairAdvisor(configurator, Duration.ZERO, false).suggest(broken));
+
+    assertThrows(IllegalArgumentException.class, () -> new RepairAdvisor(configurator).suggest(null));
+    assertThrows(IllegalArgumentException.class,
+        () -> new RepairAdvisor(configurator, Duration.ofMillis(-1), false));
+  }
+
+  /**
+   * Vérifie qu'une configuration sans réparation possible se distingue d'une
+   * échéance expirée.
+   *
+   * @throws TimeoutException
+   */
+  @Test
+  public void testInfeasibleIsNotTimeout() throws TimeoutException {
+    CompatibilityManager manager = (CompatibilityManager) configurator.getCompatibilityChecker();
+    Set<PartType> interiors = Set.of(part("Leather"), part("Cloth"));
+    manager.addIncompatibilities(part("Red"), interiors);
+    manager.addIncompatibilities(part("Blue"), interiors);
+
+    assertTrue(new RepairAdvisor(configurator, Duration.ofSeconds(1), false).suggest(broken).isEmpty());
+    assertTrue(new RepairAdvisor(configurator, Duration.ZERO, false).suggest(broken).isEmpty());
+  }
+}